@@ -0,0 +1,12 @@
+package com.dalhousie.dalhousie_marketplace_backend.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on @Scheduled methods for periodic background work such as counter flushes.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -34,7 +34,9 @@ public class SecurityConfig {
                     config.setAllowCredentials(true);
                     config.setAllowedOriginPatterns(List.of("*"));
                     config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-                    config.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+                    config.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type",
+                            "If-None-Match", "Range"));
+                    config.setExposedHeaders(List.of("ETag", "Accept-Ranges", "Content-Range"));
                     return config;
                 }))
                 .csrf(csrf -> csrf.disable())
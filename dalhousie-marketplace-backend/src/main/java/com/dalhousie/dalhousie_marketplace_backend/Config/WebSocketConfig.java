@@ -1,26 +1,79 @@
 package com.dalhousie.dalhousie_marketplace_backend.Config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP over SockJS at /ws. The broker behind /topic and /queue is chosen with
+ * marketplace.websocket.broker:
+ * <ul>
+ *   <li>{@code simple} (default) keeps subscriptions in this JVM; fine for a single instance and tests.</li>
+ *   <li>{@code relay} forwards subscriptions and sends to an external STOMP broker (e.g. ActiveMQ
+ *   Artemis or RabbitMQ with the STOMP plugin), so a message sent on any instance reaches
+ *   subscribers connected to every instance.</li>
+ * </ul>
+ * Callers of SimpMessagingTemplate are the same in both modes.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${marketplace.websocket.broker:simple}")
+    private String brokerMode = "simple";
+
+    @Value("${marketplace.websocket.relay.host:localhost}")
+    private String relayHost = "localhost";
+
+    @Value("${marketplace.websocket.relay.port:61613}")
+    private int relayPort = 61613;
+
+    @Value("${marketplace.websocket.relay.virtual-host:}")
+    private String relayVirtualHost = "";
+
+    @Value("${marketplace.websocket.relay.client-login:guest}")
+    private String relayClientLogin = "guest";
+
+    @Value("${marketplace.websocket.relay.client-passcode:guest}")
+    private String relayClientPasscode = "guest";
+
+    @Value("${marketplace.websocket.relay.system-login:guest}")
+    private String relaySystemLogin = "guest";
+
+    @Value("${marketplace.websocket.relay.system-passcode:guest}")
+    private String relaySystemPasscode = "guest";
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic", "/queue"); 
-        registry.setApplicationDestinationPrefixes("/app"); 
-        registry.setUserDestinationPrefix("/user"); 
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setVirtualHost(relayVirtualHost.isBlank() ? null : relayVirtualHost)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    // Share connected users between instances so /user destinations resolve anywhere
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else if ("simple".equalsIgnoreCase(brokerMode)) {
+            registry.enableSimpleBroker("/topic", "/queue");
+        } else {
+            throw new IllegalArgumentException("Unknown marketplace.websocket.broker: " + brokerMode
+                    + " (expected simple or relay)");
+        }
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
-                .setAllowedOriginPatterns("*") 
-                .withSockJS();  
+                .setAllowedOriginPatterns("*")
+                .withSockJS();
     }
 }
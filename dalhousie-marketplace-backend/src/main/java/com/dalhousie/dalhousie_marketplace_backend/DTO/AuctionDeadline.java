@@ -0,0 +1,19 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.Date;
+
+/**
+ * Listing ID and auction end time, selected directly by JPQL for the auction timer.
+ */
+public class AuctionDeadline {
+    private Long listingId;
+    private Date endsAt;
+
+    public AuctionDeadline(Long listingId, Date endsAt) {
+        this.listingId = listingId;
+        this.endsAt = endsAt;
+    }
+
+    public Long getListingId() { return listingId; }
+    public Date getEndsAt() { return endsAt; }
+}
@@ -0,0 +1,37 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Active bid as held by the in-memory bid book, selected directly by JPQL so no
+ * listing or buyer entity is loaded.
+ */
+public class BidBookEntry {
+    private Long bidId;
+    private Long buyerId;
+    private Double proposedPrice;
+    private BidStatus status;
+    private Double maxPrice;
+
+    public BidBookEntry(Long bidId, Long buyerId, Double proposedPrice, BidStatus status) {
+        this(bidId, buyerId, proposedPrice, status, null);
+    }
+
+    public BidBookEntry(Long bidId, Long buyerId, Double proposedPrice, BidStatus status, Double maxPrice) {
+        this.bidId = bidId;
+        this.buyerId = buyerId;
+        this.proposedPrice = proposedPrice;
+        this.status = status;
+        this.maxPrice = maxPrice;
+    }
+
+    public Long getBidId() { return bidId; }
+    public Long getBuyerId() { return buyerId; }
+    public Double getProposedPrice() { return proposedPrice; }
+    public BidStatus getStatus() { return status; }
+
+    // Proxy ceilings are private to the bidder, so they never go out on the bid topic.
+    @JsonIgnore
+    public Double getMaxPrice() { return maxPrice; }
+}
@@ -0,0 +1,26 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+
+/**
+ * Latest state of one bid as sent on a listing's bid stream. seq is the listing version of the
+ * commit that made this change.
+ */
+public class BidEvent {
+    private Long id;
+    private Double price;
+    private BidStatus status;
+    private long seq;
+
+    public BidEvent(Long id, Double price, BidStatus status, long seq) {
+        this.id = id;
+        this.price = price;
+        this.status = status;
+        this.seq = seq;
+    }
+
+    public Long getId() { return id; }
+    public Double getPrice() { return price; }
+    public BidStatus getStatus() { return status; }
+    public long getSeq() { return seq; }
+}
@@ -0,0 +1,26 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.List;
+
+/**
+ * One message on /topic/bids/{listingId}: every bid that changed during a coalescing window.
+ * The sequence number is the listing version of the newest change in the frame, so it rises
+ * across every instance publishing to the topic. A subscriber that receives a lower number than
+ * one it has applied should reload the listing's bid snapshot. A snapshot carries the listing
+ * version it is current up to and the listing's active bids.
+ */
+public class BidEventFrame {
+    private Long listingId;
+    private long seq;
+    private List<BidEvent> bids;
+
+    public BidEventFrame(Long listingId, long seq, List<BidEvent> bids) {
+        this.listingId = listingId;
+        this.seq = seq;
+        this.bids = bids;
+    }
+
+    public Long getListingId() { return listingId; }
+    public long getSeq() { return seq; }
+    public List<BidEvent> getBids() { return bids; }
+}
@@ -12,6 +12,9 @@ public class BidRequest {
     @Positive(message = "Proposed price must be positive")
     private Double proposedPrice;
 
+    @Positive(message = "Maximum price must be positive")
+    private Double maxPrice;
+
     private String additionalTerms;
 
     // Getters and Setters
@@ -23,6 +26,14 @@ public class BidRequest {
         this.proposedPrice = proposedPrice;
     }
 
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
     public String getAdditionalTerms() {
         return additionalTerms;
     }
@@ -8,6 +8,7 @@ public class ConversationDTO {
     private String timestamp;
     private Long listingId;
     private String listingTitle;
+    private int unreadCount;
 
     // Default no-args constructor
     public ConversationDTO() {
@@ -82,4 +83,12 @@ public class ConversationDTO {
     public void setListingTitle(String listingTitle) {
         this.listingTitle = listingTitle;
     }
-}
\ No newline at end of file
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
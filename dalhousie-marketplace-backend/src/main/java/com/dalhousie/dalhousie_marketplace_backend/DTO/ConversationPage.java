@@ -0,0 +1,23 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.List;
+
+/**
+ * One page of an inbox, most recent activity first. Pass nextCursor back as the cursor parameter
+ * to fetch the following page.
+ */
+public class ConversationPage {
+    private List<ConversationDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ConversationPage(List<ConversationDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<ConversationDTO> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
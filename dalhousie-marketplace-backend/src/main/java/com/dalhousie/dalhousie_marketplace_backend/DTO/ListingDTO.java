@@ -14,6 +14,7 @@ public class ListingDTO {
     private Date createdAt;
     private SellerDTO seller;
     private Boolean biddingAllowed;
+    private Date auctionEndsAt;
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -47,4 +48,27 @@ public class ListingDTO {
 
     public boolean getbiddingAllowed() { return biddingAllowed; }
     public void setBiddingAllowed(boolean biddingAllowed) { this.biddingAllowed = biddingAllowed; }
+
+    public Date getAuctionEndsAt() { return auctionEndsAt; }
+    public void setAuctionEndsAt(Date auctionEndsAt) { this.auctionEndsAt = auctionEndsAt; }
+
+    /**
+     * Copies this DTO, including its seller and dates, so the copy can be changed freely.
+     */
+    public ListingDTO copy() {
+        ListingDTO copy = new ListingDTO();
+        copy.id = id;
+        copy.title = title;
+        copy.description = description;
+        copy.price = price;
+        copy.quantity = quantity;
+        copy.categoryId = categoryId;
+        copy.categoryName = categoryName;
+        copy.purchaseDate = purchaseDate != null ? new Date(purchaseDate.getTime()) : null;
+        copy.createdAt = createdAt != null ? new Date(createdAt.getTime()) : null;
+        copy.seller = seller != null ? new SellerDTO(seller.getUserId(), seller.getUsername()) : null;
+        copy.biddingAllowed = biddingAllowed;
+        copy.auctionEndsAt = auctionEndsAt != null ? new Date(auctionEndsAt.getTime()) : null;
+        return copy;
+    }
 }
@@ -0,0 +1,32 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+/**
+ * Optional listing feed filters; a null field means "don't filter on this".
+ */
+public class ListingFeedFilter {
+    private Long categoryId;
+    private Double minPrice;
+    private Double maxPrice;
+    private Boolean biddable;
+
+    public ListingFeedFilter() {}
+
+    public ListingFeedFilter(Long categoryId, Double minPrice, Double maxPrice, Boolean biddable) {
+        this.categoryId = categoryId;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.biddable = biddable;
+    }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+
+    public Boolean getBiddable() { return biddable; }
+    public void setBiddable(Boolean biddable) { this.biddable = biddable; }
+}
@@ -0,0 +1,22 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.List;
+
+/**
+ * One page of the listing feed. Pass nextCursor back as the cursor parameter to fetch the following page.
+ */
+public class ListingFeedPage {
+    private List<ListingSummaryDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ListingFeedPage(List<ListingSummaryDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<ListingSummaryDTO> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -0,0 +1,30 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+/**
+ * Listing image row without its bytes, selected directly by JPQL so no blob is ever read.
+ */
+public class ListingImageMetadata {
+    private Long id;
+    private Long listingId;
+    private String imageType;
+    private Long imageSize;
+    private Boolean isPrimary;
+    private String contentHash;
+
+    public ListingImageMetadata(Long id, Long listingId, String imageType, Long imageSize,
+                                Boolean isPrimary, String contentHash) {
+        this.id = id;
+        this.listingId = listingId;
+        this.imageType = imageType;
+        this.imageSize = imageSize;
+        this.isPrimary = isPrimary;
+        this.contentHash = contentHash;
+    }
+
+    public Long getId() { return id; }
+    public Long getListingId() { return listingId; }
+    public String getImageType() { return imageType; }
+    public Long getImageSize() { return imageSize; }
+    public Boolean getIsPrimary() { return isPrimary; }
+    public String getContentHash() { return contentHash; }
+}
@@ -0,0 +1,52 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.Date;
+
+/**
+ * Listing card for feeds, selected directly by JPQL so neither the listing nor its seller is hydrated.
+ */
+public class ListingSummaryDTO {
+    private Long id;
+    private String title;
+    private Double price;
+    private Integer quantity;
+    private Long categoryId;
+    private Boolean biddingAllowed;
+    private Double startingBid;
+    private Double averageRating;
+    private Integer reviewCount;
+    private Date createdAt;
+    private SellerDTO seller;
+    private Long primaryImageId;
+
+    public ListingSummaryDTO(Long id, String title, Double price, Integer quantity, Long categoryId,
+                             Boolean biddingAllowed, Double startingBid, Double averageRating,
+                             Integer reviewCount, Date createdAt, Long sellerId, String sellerUsername,
+                             Long primaryImageId) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.quantity = quantity;
+        this.categoryId = categoryId;
+        this.biddingAllowed = biddingAllowed;
+        this.startingBid = startingBid;
+        this.averageRating = averageRating;
+        this.reviewCount = reviewCount;
+        this.createdAt = createdAt;
+        this.seller = sellerId != null ? new SellerDTO(sellerId, sellerUsername) : null;
+        this.primaryImageId = primaryImageId;
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public Double getPrice() { return price; }
+    public Integer getQuantity() { return quantity; }
+    public Long getCategoryId() { return categoryId; }
+    public Boolean getBiddingAllowed() { return biddingAllowed; }
+    public Double getStartingBid() { return startingBid; }
+    public Double getAverageRating() { return averageRating; }
+    public Integer getReviewCount() { return reviewCount; }
+    public Date getCreatedAt() { return createdAt; }
+    public SellerDTO getSeller() { return seller; }
+    public Long getPrimaryImageId() { return primaryImageId; }
+}
@@ -0,0 +1,36 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.Date;
+
+/**
+ * A chat message with its participants and listing referenced by ID, selected directly by JPQL
+ * so message history does not load or serialize the sender, receiver and listing entities.
+ */
+public class MessageDTO {
+    private Long id;
+    private String conversationId;
+    private Long senderId;
+    private Long receiverId;
+    private Long listingId;
+    private String content;
+    private Date timestamp;
+
+    public MessageDTO(Long id, String conversationId, Long senderId, Long receiverId, Long listingId,
+                      String content, Date timestamp) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.listingId = listingId;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    public Long getId() { return id; }
+    public String getConversationId() { return conversationId; }
+    public Long getSenderId() { return senderId; }
+    public Long getReceiverId() { return receiverId; }
+    public Long getListingId() { return listingId; }
+    public String getContent() { return content; }
+    public Date getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,24 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import java.util.List;
+
+/**
+ * A window of a conversation in chronological order. When paging backwards with {@code before},
+ * nextCursor is the oldest message ID on the page; when paging forwards with {@code after}, it is
+ * the newest. Pass it back with the same parameter to continue in that direction.
+ */
+public class MessageHistoryPage {
+    private List<MessageDTO> items;
+    private Long nextCursor;
+    private boolean hasMore;
+
+    public MessageHistoryPage(List<MessageDTO> items, Long nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<MessageDTO> getItems() { return items; }
+    public Long getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -0,0 +1,25 @@
+package com.dalhousie.dalhousie_marketplace_backend.DTO;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+
+import java.util.List;
+
+/**
+ * One page of a user's unread notifications, newest first. Pass nextCursor back as the cursor
+ * parameter to fetch the following page.
+ */
+public class NotificationPage {
+    private List<Notification> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public NotificationPage(List<Notification> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Notification> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+}
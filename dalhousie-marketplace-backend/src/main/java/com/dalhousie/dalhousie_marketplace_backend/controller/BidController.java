@@ -63,7 +63,8 @@ public class BidController {
                     listingId,
                     userId,
                     bidRequest.getProposedPrice(),
-                    bidRequest.getAdditionalTerms()
+                    bidRequest.getAdditionalTerms(),
+                    bidRequest.getMaxPrice()
             );
 
             return ResponseEntity.ok(bid);
@@ -227,6 +228,33 @@ public class BidController {
     }
 
 
+    @GetMapping("/listing/{listingId}/top")
+    public ResponseEntity<?> getTopBids(
+            @PathVariable Long listingId,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and 100");
+        }
+        try {
+            return ResponseEntity.ok(bidService.getTopBids(listingId, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error getting top bids: " + e.getMessage());
+        }
+    }
+
+
+    @GetMapping("/listing/{listingId}/snapshot")
+    public ResponseEntity<?> getBidSnapshot(@PathVariable Long listingId) {
+        try {
+            return ResponseEntity.ok(bidService.getBidSnapshot(listingId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error getting bid snapshot: " + e.getMessage());
+        }
+    }
+
+
     @PostMapping("/{bidId}/pay")
     public ResponseEntity<?> payForAcceptedBid(
             @PathVariable Long bidId,
@@ -1,9 +1,9 @@
 package com.dalhousie.dalhousie_marketplace_backend.controller;
 
 import com.dalhousie.dalhousie_marketplace_backend.model.Category;
-import com.dalhousie.dalhousie_marketplace_backend.repository.CategoryRepository;
 import com.dalhousie.dalhousie_marketplace_backend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -20,14 +20,22 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    /**
+     * Get all categories. Served from the in-memory registry; the ETag lets clients
+     * revalidate with If-None-Match and receive 304 when nothing has changed.
+     */
     @GetMapping
     public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
+        CategoryService.CategorySnapshot snapshot = categoryService.getSnapshot();
+        List<Category> categories = snapshot.getCategories();
 
         if (categories.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
 
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok()
+                .eTag(snapshot.getETag())
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .body(categories);
     }
 }
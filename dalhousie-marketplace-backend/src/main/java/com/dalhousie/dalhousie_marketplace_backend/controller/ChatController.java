@@ -5,7 +5,6 @@ import com.dalhousie.dalhousie_marketplace_backend.model.Message;
 import com.dalhousie.dalhousie_marketplace_backend.service.MessageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,10 +15,6 @@ public class ChatController {
     @Autowired
     private MessageService messageService;
 
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
-
     @MessageMapping("/sendMessage")
     public void sendMessage(@Payload MessageRequest messageRequest) {
         try {
@@ -30,9 +25,8 @@ public class ChatController {
 
             String conversationId = generateConversationId(messageRequest);
 
-            Message savedMessage = sendAndSaveMessage(messageRequest, conversationId);
-
-            sendMessageToUsers(savedMessage, conversationId, messageRequest);
+            // The service broadcasts the message to the conversation topic once it commits
+            sendAndSaveMessage(messageRequest, conversationId);
 
         } catch (Exception e) {
             logErrorSendingMessage(e);
@@ -65,12 +59,6 @@ public class ChatController {
         );
     }
 
-    private void sendMessageToUsers(Message savedMessage, String conversationId, MessageRequest messageRequest) {
-        messagingTemplate.convertAndSend("/topic/messages/" + conversationId, savedMessage);
-        messagingTemplate.convertAndSend("/user/" + messageRequest.getReceiverId() + "/queue/messages", savedMessage);
-        messagingTemplate.convertAndSend("/user/" + messageRequest.getSenderId() + "/queue/messages", savedMessage);
-    }
-
     private void logErrorSendingMessage(Exception e) {
         System.err.println("Error sending message: " + e.getMessage());
     }
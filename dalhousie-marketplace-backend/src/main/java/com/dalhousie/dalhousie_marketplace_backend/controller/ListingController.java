@@ -1,17 +1,23 @@
 package com.dalhousie.dalhousie_marketplace_backend.controller;
 
 import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedFilter;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata;
 import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
 import com.dalhousie.dalhousie_marketplace_backend.model.ListingImage;
+import com.dalhousie.dalhousie_marketplace_backend.model.ListingImageVariant;
 import com.dalhousie.dalhousie_marketplace_backend.model.User;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageStorageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageVariantService;
 import com.dalhousie.dalhousie_marketplace_backend.service.ListingService;
 import com.dalhousie.dalhousie_marketplace_backend.util.JwtUtil;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,11 +25,19 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/listings")
 public class ListingController {
 
+    private static final CacheControl IMAGE_CACHE_CONTROL =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl LEGACY_IMAGE_CACHE_CONTROL =
+            CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     @Autowired
     private ListingService listingService;
 
@@ -32,6 +46,12 @@ public class ListingController {
 
     @Autowired
     private ListingImageRepository listingImageRepository;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
     private UserRepository userRepository;
 
     /**
@@ -44,6 +64,32 @@ public class ListingController {
         return ResponseEntity.ok(activeListings);
     }
 
+    /**
+     * Get a page of active listings, newest first
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param limit Page size
+     * @param categoryId Only listings in this category
+     * @param minPrice Only listings at or above this price
+     * @param maxPrice Only listings at or below this price
+     * @param biddable Only listings that do (true) or don't (false) allow bidding
+     * @return Listing summaries and the cursor for the next page
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<?> getListingFeed(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "categoryId", required = false) Long categoryId,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "biddable", required = false) Boolean biddable) {
+        try {
+            ListingFeedFilter filter = new ListingFeedFilter(categoryId, minPrice, maxPrice, biddable);
+            return ResponseEntity.ok(listingService.getListingFeed(cursor, limit, filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Get all listings (including inactive and sold)
      * For admin use
@@ -110,27 +156,57 @@ public class ListingController {
     }
 
     /**
-     * Get a specific image for a listing
+     * Get a specific image for a listing.
+     * The body is streamed from the image store rather than buffered. Spring answers
+     * If-None-Match with 304 and Range with 206 based on the ETag and Resource body set here.
      * @param listingId Listing ID
      * @param imageId Image ID
+     * @param size Optional display width in pixels; the narrowest variant at least this wide is served
      * @return The image data with appropriate content type
      */
     @GetMapping("/{listingId}/images/{imageId}")
-    public ResponseEntity<?> getListingImage(@PathVariable Long listingId, @PathVariable Long imageId) {
+    public ResponseEntity<?> getListingImage(@PathVariable Long listingId, @PathVariable Long imageId,
+                                             @RequestParam(value = "size", required = false) Integer size) {
         try {
-            ListingImage image = listingImageRepository.findById(imageId)
+            ListingImageMetadata image = listingImageRepository.findMetadataById(imageId)
                     .orElseThrow(() -> new RuntimeException("Image not found"));
 
 
-            if (!image.getListing().getId().equals(listingId)) {
+            if (!image.getListingId().equals(listingId)) {
                 return ResponseEntity.notFound().build();
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(image.getImageType()));
-            headers.setContentLength(image.getImageSize());
+            MediaType contentType = MediaType.parseMediaType(image.getImageType());
+
+            if (size != null && image.getContentHash() != null) {
+                Optional<ListingImageVariant> variant = imageVariantService.selectVariant(imageId, size);
+                if (variant.isPresent()) {
+                    Resource content = imageStorageService.load(variant.get().getContentHash());
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(variant.get().getImageType()))
+                            .eTag("\"" + variant.get().getContentHash() + "\"")
+                            .cacheControl(IMAGE_CACHE_CONTROL)
+                            .body(content);
+                }
+            }
+
+            if (image.getContentHash() != null) {
+                // Stored content never changes for a given hash, so browsers may cache it indefinitely
+                Resource content = imageStorageService.load(image.getContentHash());
+                return ResponseEntity.ok()
+                        .contentType(contentType)
+                        .eTag("\"" + image.getContentHash() + "\"")
+                        .cacheControl(IMAGE_CACHE_CONTROL)
+                        .body(content);
+            }
 
-            return new ResponseEntity<>(image.getImageData(), headers, HttpStatus.OK);
+            // Not yet migrated out of the image_data column
+            ListingImage legacyImage = listingImageRepository.findById(imageId)
+                    .orElseThrow(() -> new RuntimeException("Image not found"));
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .cacheControl(LEGACY_IMAGE_CACHE_CONTROL)
+                    .body(new ByteArrayResource(legacyImage.getImageData()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error fetching image: " + e.getMessage());
         }
@@ -144,20 +220,36 @@ public class ListingController {
     @GetMapping("/{listingId}/images")
     public ResponseEntity<?> getListingImages(@PathVariable Long listingId) {
         try {
-            List<ListingImage> images = listingImageRepository.findByListingId(listingId);
+            List<ListingImageMetadata> images = listingImageRepository.findMetadataByListingId(listingId);
             if (images.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
 
+            Map<Long, List<ListingImageVariant>> variantsByImage = imageVariantService.getVariants(
+                    images.stream().map(ListingImageMetadata::getId).toList());
+
             List<ImageMetadata> imageMetadata = images.stream()
-                    .map(img -> new ImageMetadata(
-                            img.getId(),
-                            img.getImageType(),
-                            img.getImageSize(),
-                            img.getIsPrimary(),
-                            "/api/listings/" + listingId + "/images/" + img.getId()
-                    ))
+                    .map(img -> {
+                        String url = "/api/listings/" + listingId + "/images/" + img.getId();
+                        List<VariantMetadata> variants = variantsByImage.getOrDefault(img.getId(), List.of()).stream()
+                                .map(variant -> new VariantMetadata(
+                                        variant.getWidth(),
+                                        variant.getHeight(),
+                                        variant.getImageType(),
+                                        variant.getImageSize(),
+                                        url + "?size=" + variant.getWidth()
+                                ))
+                                .toList();
+                        return new ImageMetadata(
+                                img.getId(),
+                                img.getImageType(),
+                                img.getImageSize(),
+                                img.getIsPrimary(),
+                                url,
+                                variants
+                        );
+                    })
                     .toList();
 
             return ResponseEntity.ok(imageMetadata);
@@ -186,13 +278,16 @@ public class ListingController {
         private Long size;
         private Boolean isPrimary;
         private String url;
+        private List<VariantMetadata> variants;
 
-        public ImageMetadata(Long id, String contentType, Long size, Boolean isPrimary, String url) {
+        public ImageMetadata(Long id, String contentType, Long size, Boolean isPrimary, String url,
+                             List<VariantMetadata> variants) {
             this.id = id;
             this.contentType = contentType;
             this.size = size;
             this.isPrimary = isPrimary;
             this.url = url;
+            this.variants = variants;
         }
 
         // Getters
@@ -201,6 +296,33 @@ public class ListingController {
         public Long getSize() { return size; }
         public Boolean getIsPrimary() { return isPrimary; }
         public String getUrl() { return url; }
+        public List<VariantMetadata> getVariants() { return variants; }
+    }
+
+    /**
+     * Inner class for resized image variant metadata
+     */
+    private static class VariantMetadata {
+        private Integer width;
+        private Integer height;
+        private String contentType;
+        private Long size;
+        private String url;
+
+        public VariantMetadata(Integer width, Integer height, String contentType, Long size, String url) {
+            this.width = width;
+            this.height = height;
+            this.contentType = contentType;
+            this.size = size;
+            this.url = url;
+        }
+
+        // Getters
+        public Integer getWidth() { return width; }
+        public Integer getHeight() { return height; }
+        public String getContentType() { return contentType; }
+        public Long getSize() { return size; }
+        public String getUrl() { return url; }
     }
 
     @GetMapping("/biddable")
@@ -7,7 +7,6 @@ import com.dalhousie.dalhousie_marketplace_backend.service.MessageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,9 +19,6 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
 
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
     /**
      * Sends a message from sender to receiver related to a listing.
      */
@@ -45,7 +41,7 @@ public class MessageController {
                     messageRequest.getListingId()
             );
 
-            // Save message in DB
+            // Save message in DB; the service broadcasts it once the save commits
             Message message = messageService.sendMessage(
                     messageRequest.getSenderId(),
                     messageRequest.getReceiverId(),
@@ -54,10 +50,7 @@ public class MessageController {
                     conversationId
             );
 
-            // Broadcast message using WebSockets
-            messagingTemplate.convertAndSend("/topic/messages/" + conversationId, message);
-
-            return ResponseEntity.ok(message);
+            return ResponseEntity.ok(messageService.toMessageDTO(message));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
@@ -66,7 +59,7 @@ public class MessageController {
     }
 
     /**
-     * Retrieves all conversations for a listing where a user is involved.
+     * Retrieves the most recent conversations for a listing where a user is involved, up to the inbox max-limit.
      */
     @GetMapping("/listing/{listingId}/conversations/{userId}")
     public ResponseEntity<List<ConversationDTO>> getListingMessages(
@@ -76,16 +69,25 @@ public class MessageController {
     }
 
     /**
-     * Fetch chat history based on conversationId.
+     * Fetch a window of chat history based on conversationId, oldest message first.
+     * Without a cursor the most recent messages are returned; page back with before
+     * and forward with after, both message IDs.
      */
     @GetMapping("/history/{conversationId}")
-    public ResponseEntity<List<Message>> getMessagesByConversation(@PathVariable String conversationId) {
-        List<Message> messages = messageService.getMessageHistory(conversationId);
-        return messages.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(messages);
+    public ResponseEntity<?> getMessagesByConversation(
+            @PathVariable String conversationId,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(messageService.getMessageHistory(conversationId, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
-     * Fetch all conversations associated with a seller.
+     * Fetch a seller's most recent conversations, up to the inbox max-limit.
      */
     @GetMapping("/conversations/seller/{sellerId}")
     public ResponseEntity<List<ConversationDTO>> getSellerConversations(@PathVariable Long sellerId) {
@@ -94,11 +96,42 @@ public class MessageController {
     }
 
     /**
-     * Fetch all conversations associated with a buyer.
+     * Fetch a buyer's most recent conversations, up to the inbox max-limit.
      */
     @GetMapping("/conversations/buyer/{buyerId}")
     public ResponseEntity<List<ConversationDTO>> getBuyerConversations(@PathVariable Long buyerId) {
         List<ConversationDTO> conversationList = messageService.getBuyerConversations(buyerId);
         return conversationList.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(conversationList);
     }
+
+    /**
+     * Fetch one page of a user's inbox, most recent activity first.
+     * The buyer role lists only conversations the seller has replied to.
+     */
+    @GetMapping("/inbox/{userId}")
+    public ResponseEntity<?> getInbox(
+            @PathVariable Long userId,
+            @RequestParam(value = "role", defaultValue = "seller") String role,
+            @RequestParam(value = "listingId", required = false) Long listingId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!"seller".equalsIgnoreCase(role) && !"buyer".equalsIgnoreCase(role)) {
+            return ResponseEntity.badRequest().body("Role must be seller or buyer");
+        }
+        try {
+            return ResponseEntity.ok(messageService.getInbox(userId, "buyer".equalsIgnoreCase(role), listingId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Clear a user's unread count for a conversation.
+     */
+    @PutMapping("/conversations/{conversationId}/read/{userId}")
+    public ResponseEntity<?> markConversationRead(@PathVariable String conversationId, @PathVariable Long userId) {
+        return messageService.markConversationRead(conversationId, userId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
 }
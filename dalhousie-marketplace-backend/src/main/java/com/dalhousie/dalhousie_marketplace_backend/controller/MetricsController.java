@@ -0,0 +1,173 @@
+package com.dalhousie.dalhousie_marketplace_backend.controller;
+
+import com.dalhousie.dalhousie_marketplace_backend.service.AuctionTimer;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidEventStream;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidNotificationDispatcher;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageVariantService;
+import com.dalhousie.dalhousie_marketplace_backend.service.KeywordMatcher;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidBook;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidLocks;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingDetailCache;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingFanoutService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingViewCounter;
+import com.dalhousie.dalhousie_marketplace_backend.service.NotificationOutbox;
+import com.dalhousie.dalhousie_marketplace_backend.service.NotificationRetention;
+import com.dalhousie.dalhousie_marketplace_backend.service.UserDisplayNameCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Read-only operational counters for background pipelines.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private ListingFanoutService listingFanoutService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ListingViewCounter listingViewCounter;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private ListingBidBook listingBidBook;
+
+    @Autowired
+    private BidNotificationDispatcher bidNotificationDispatcher;
+
+    @Autowired
+    private ListingBidLocks listingBidLocks;
+
+    @Autowired
+    private AuctionTimer auctionTimer;
+
+    @Autowired
+    private BidEventStream bidEventStream;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private UserDisplayNameCache userDisplayNameCache;
+
+    @Autowired
+    private KeywordMatcher keywordMatcher;
+
+    @Autowired
+    private NotificationRetention notificationRetention;
+
+    /**
+     * Queue depth, lag and throughput of the new-listing notification fan-out.
+     */
+    @GetMapping("/listing-fanout")
+    public ResponseEntity<Map<String, Object>> getListingFanoutStats() {
+        return ResponseEntity.ok(listingFanoutService.getStats());
+    }
+
+    /**
+     * Queue depth and throughput of listing image variant generation.
+     */
+    @GetMapping("/image-variants")
+    public ResponseEntity<Map<String, Object>> getImageVariantStats() {
+        return ResponseEntity.ok(imageVariantService.getStats());
+    }
+
+    /**
+     * Buffered and flushed listing view counts.
+     */
+    @GetMapping("/listing-views")
+    public ResponseEntity<Map<String, Object>> getListingViewStats() {
+        return ResponseEntity.ok(listingViewCounter.getStats());
+    }
+
+    /**
+     * Hit rate, evictions and invalidations of the listing detail cache.
+     */
+    @GetMapping("/listing-cache")
+    public ResponseEntity<Map<String, Object>> getListingCacheStats() {
+        return ResponseEntity.ok(listingDetailCache.getStats());
+    }
+
+    /**
+     * Loads and applied updates of the in-memory bid book.
+     */
+    @GetMapping("/bid-book")
+    public ResponseEntity<Map<String, Object>> getBidBookStats() {
+        return ResponseEntity.ok(listingBidBook.getStats());
+    }
+
+    /**
+     * Queue depth and lag of losing-bid notifications.
+     */
+    @GetMapping("/bid-notifications")
+    public ResponseEntity<Map<String, Object>> getBidNotificationStats() {
+        return ResponseEntity.ok(bidNotificationDispatcher.getStats());
+    }
+
+    /**
+     * Lock contention and optimistic-lock retries of bid mutations.
+     */
+    @GetMapping("/bid-locks")
+    public ResponseEntity<Map<String, Object>> getBidLockStats() {
+        return ResponseEntity.ok(listingBidLocks.getStats());
+    }
+
+    /**
+     * Queued deadlines, closes and lag of the timed auction closer.
+     */
+    @GetMapping("/auctions")
+    public ResponseEntity<Map<String, Object>> getAuctionStats() {
+        return ResponseEntity.ok(auctionTimer.getStats());
+    }
+
+    /**
+     * Events, coalesced events and frames sent on the bid stream.
+     */
+    @GetMapping("/bid-stream")
+    public ResponseEntity<Map<String, Object>> getBidStreamStats() {
+        return ResponseEntity.ok(bidEventStream.getStats());
+    }
+
+    /**
+     * Buffer depth, batch throughput, failures and replay of the notification outbox.
+     */
+    @GetMapping("/notifications")
+    public ResponseEntity<Map<String, Object>> getNotificationStats() {
+        return ResponseEntity.ok(notificationOutbox.getStats());
+    }
+
+    /**
+     * Size and hit rate of the username cache.
+     */
+    @GetMapping("/display-names")
+    public ResponseEntity<Map<String, Object>> getDisplayNameStats() {
+        return ResponseEntity.ok(userDisplayNameCache.getStats());
+    }
+
+    /**
+     * Automaton size, rebuilds and scans of the alert keyword matcher.
+     */
+    @GetMapping("/keywords")
+    public ResponseEntity<Map<String, Object>> getKeywordStats() {
+        return ResponseEntity.ok(keywordMatcher.getStats());
+    }
+
+    /**
+     * Rows purged and compacted, and throughput, of the notification retention job.
+     */
+    @GetMapping("/notification-retention")
+    public ResponseEntity<Map<String, Object>> getNotificationRetentionStats() {
+        return ResponseEntity.ok(notificationRetention.getStats());
+    }
+}
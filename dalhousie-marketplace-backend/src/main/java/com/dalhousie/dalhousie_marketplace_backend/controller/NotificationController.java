@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -27,11 +28,53 @@ public class NotificationController {
     }
 
 
+    /**
+     * Fetch one page of a user's unread notifications, newest first.
+     */
+    @GetMapping("/{userId}/unread")
+    public ResponseEntity<?> getUnreadPage(
+            @PathVariable Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(notificationService.getUnreadPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{notificationId}/read")
     public ResponseEntity<String> markAsRead(@PathVariable Long notificationId) {
         notificationService.markNotificationAsRead(notificationId);
         return ResponseEntity.ok("Notification marked as read");
     }
+
+    /**
+     * Mark all of a user's notifications read, optionally only those up to a notification ID.
+     */
+    @PutMapping("/{userId}/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllAsRead(
+            @PathVariable Long userId,
+            @RequestParam(value = "upToId", required = false) Long upToId) {
+        return ResponseEntity.ok(Map.of("updated", notificationService.markAllAsRead(userId, upToId)));
+    }
+
+    /**
+     * Mark a list of a user's notifications read.
+     */
+    @PutMapping("/{userId}/read-batch")
+    public ResponseEntity<?> markBatchAsRead(@PathVariable Long userId, @RequestBody List<Long> notificationIds) {
+        try {
+            return ResponseEntity.ok(Map.of("updated", notificationService.markAsRead(userId, notificationIds)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(userId)));
+    }
 }
 
 
@@ -0,0 +1,39 @@
+package com.dalhousie.dalhousie_marketplace_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A read notification moved out of the notification table by the retention job when it runs in
+ * archive mode. Keeps the original ID so an archived row can be traced back.
+ */
+@Entity
+@Table(name = "notification_archive", indexes =
+        @Index(name = "idx_notification_archive_user_time", columnList = "user_id, timestamp"))
+@Getter
+@Setter
+public class ArchivedNotification {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date timestamp;
+
+    @Column(name = "archived_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date archivedAt;
+}
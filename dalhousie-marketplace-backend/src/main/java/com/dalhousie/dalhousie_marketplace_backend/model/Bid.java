@@ -1,6 +1,7 @@
 package com.dalhousie.dalhousie_marketplace_backend.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.Date;
@@ -10,7 +11,8 @@ import java.util.Date;
  * Represents offers made by buyers for specific listings.
  */
 @Entity
-@Table(name = "bids")
+@Table(name = "bids", indexes =
+        @Index(name = "idx_bids_listing_status_price", columnList = "listing_id, status, proposed_price, id"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Bid {
 
@@ -31,6 +33,11 @@ public class Bid {
     @Column(name = "proposed_price", nullable = false)
     private Double proposedPrice;
 
+    // Proxy bids: the most the buyer will pay. Kept server-side, since bids are broadcast to every bidder.
+    @JsonIgnore
+    @Column(name = "max_price")
+    private Double maxPrice;
+
     @Column(name = "additional_terms")
     private String additionalTerms;
 
@@ -49,6 +56,11 @@ public class Bid {
     @Column(name = "order_id")
     private Long orderId;
 
+    // Existing rows get 0 when the column is added; new bids start unset so save() still persists them.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     /**
      * Default constructor
      */
@@ -153,6 +165,22 @@ public class Bid {
         this.proposedPrice = proposedPrice;
     }
 
+    /**
+     * Get the proxy maximum of this bid
+     * @return The maximum price, or null for a fixed-price bid
+     */
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Set the proxy maximum of this bid
+     * @param maxPrice The maximum price
+     */
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
     /**
      * Get any additional terms for this bid
      * @return The additional terms
@@ -251,4 +279,12 @@ public class Bid {
     public void setOrderId(Long orderId) {
         this.orderId = orderId;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -8,6 +8,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Table(name = "Category")
+@EntityListeners(CategoryChangeListener.class)
 public class Category {
 
     @Id
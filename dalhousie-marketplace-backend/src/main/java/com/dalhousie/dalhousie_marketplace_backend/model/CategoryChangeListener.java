@@ -0,0 +1,30 @@
+package com.dalhousie.dalhousie_marketplace_backend.model;
+
+import com.dalhousie.dalhousie_marketplace_backend.service.CategoryService;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the category registry snapshot once a Category insert, update or delete commits.
+ */
+@Component
+public class CategoryChangeListener {
+
+    // Lazy: Hibernate creates entity listeners while the EntityManagerFactory that CategoryService
+    // depends on is still being built.
+    @Lazy
+    @Autowired
+    private CategoryService categoryService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCategoryChanged(Category category) {
+        TransactionHooks.afterCommit(categoryService::invalidate);
+    }
+}
@@ -0,0 +1,65 @@
+package com.dalhousie.dalhousie_marketplace_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * One participant's view of a conversation: who it is with, the listing, the latest message and
+ * how many messages they have not read. Each conversation has a row per participant, maintained
+ * by MessageService when a message is sent, so an inbox is a single range scan over
+ * (user_id, last_message_at) instead of an aggregate over the message table.
+ */
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summaries_conversation_user",
+                columnNames = {"conversation_id", "user_id"}),
+        indexes = {
+                @Index(name = "idx_conversation_summaries_user_last", columnList = "user_id, last_message_at, id"),
+                @Index(name = "idx_conversation_summaries_user_listing_last", columnList = "user_id, listing_id, last_message_at, id")
+        })
+@Getter
+@Setter
+public class ConversationSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private String conversationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "other_user_id", nullable = false)
+    private Long otherUserId;
+
+    @Column(name = "other_username")
+    private String otherUsername;
+
+    @Column(name = "listing_id", nullable = false)
+    private Long listingId;
+
+    @Column(name = "listing_title")
+    private String listingTitle;
+
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    // Set once any message in the conversation goes to someone other than the listing's seller
+    @Column(name = "seller_replied", nullable = false)
+    private boolean sellerReplied;
+
+    @Column(name = "last_message")
+    private String lastMessage;
+
+    @Column(name = "last_message_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastMessageAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+}
@@ -11,7 +11,11 @@ import org.springframework.format.annotation.DateTimeFormat;
 @Entity
 @Getter
 @Setter
-@Table(name = "listings")
+@Table(name = "listings", indexes = {
+        @Index(name = "idx_listings_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_listings_category_status_created", columnList = "category_id, status, created_at, id"),
+        @Index(name = "idx_listings_status_auction_ends", columnList = "status, auction_ends_at")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Listing {
 
@@ -49,7 +53,8 @@ public class Listing {
     @Column(nullable = false)
     private ListingStatus status = ListingStatus.ACTIVE;
 
-    @Column(nullable = false)
+    // Written only by ListingViewCounter's batched increments; entity saves must not overwrite it.
+    @Column(nullable = false, updatable = false)
     private Integer views = 0;
 
     @Column(name = "average_rating")
@@ -66,6 +71,19 @@ public class Listing {
     @Temporal(TemporalType.TIMESTAMP)
     private Date updatedAt;
 
+    // When a timed auction closes; AuctionTimer awards the highest bid then. Cleared once bidding
+    // closes by any route, so a non-null value always means an auction that is still running.
+    @Column(name = "auction_ends_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date auctionEndsAt;
+
+    // Lets concurrent bid closes and listing edits fail and retry instead of overwriting each other.
+    // Existing rows get 0 when the column is added; new listings start unset so save() still persists them.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(name = "purchase_date")
     @DateTimeFormat(pattern = "yyyy-MM-dd")  
     @Temporal(TemporalType.DATE)
@@ -23,10 +23,15 @@ public class ListingImage {
     @Column(name = "seller_id", nullable = false)
     private Long sellerId;
 
+    // Legacy inline bytes. New rows keep an empty array here and store the content
+    // in ImageStorageService under contentHash instead.
     @Lob
     @Column(name = "image_data", nullable = false,columnDefinition = "LONGBLOB")
     private byte[] imageData;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "image_type", nullable = false)
     private String imageType;
 
@@ -90,6 +95,14 @@ public class ListingImage {
         this.imageData = imageData;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getImageType() {
         return imageType;
     }
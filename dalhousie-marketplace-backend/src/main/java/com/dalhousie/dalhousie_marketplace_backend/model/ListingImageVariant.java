@@ -0,0 +1,90 @@
+package com.dalhousie.dalhousie_marketplace_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A resized, re-encoded copy of a listing image. The bytes live in the image store under contentHash.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "listing_image_variants",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"image_id", "width"}),
+        indexes = @Index(name = "idx_listing_image_variants_image", columnList = "image_id"))
+public class ListingImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_id", nullable = false)
+    private Long imageId;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "image_type", nullable = false)
+    private String imageType;
+
+    @Column(name = "image_size", nullable = false)
+    private Long imageSize;
+
+    @Column(name = "created_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+    }
+
+    public ListingImageVariant() {}
+
+    public ListingImageVariant(Long imageId, Integer width, Integer height, String contentHash,
+                               String imageType, Long imageSize) {
+        this.imageId = imageId;
+        this.width = width;
+        this.height = height;
+        this.contentHash = contentHash;
+        this.imageType = imageType;
+        this.imageSize = imageSize;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getImageId() {
+        return imageId;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getImageType() {
+        return imageType;
+    }
+
+    public Long getImageSize() {
+        return imageSize;
+    }
+}
@@ -7,6 +7,8 @@ import lombok.Setter;
 import java.util.Date;
 
 @Entity
+@Table(name = "message", indexes =
+        @Index(name = "idx_message_conversation_id", columnList = "conversation_id, id"))
 @Getter
 @Setter
 public class Message {
@@ -1,16 +1,24 @@
 package com.dalhousie.dalhousie_marketplace_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
+@Table(name = "notification", indexes =
+        @Index(name = "idx_notification_user_read_time", columnList = "user_id, read_status, timestamp"))
 @Getter
 @Setter
 public class Notification {
 
+    // Length of the message column; longer text is cut with fitMessage before it is written
+    public static final int MESSAGE_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,7 +27,7 @@ public class Notification {
     @JoinColumn(name = "user_id", referencedColumnName = "user_id")
     private User user; 
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = MESSAGE_LENGTH)
     private String message;
 
     @Column(nullable = false)
@@ -32,6 +40,17 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationType type;
 
+    // Every normalized keyword an ITEM notification was sent for; empty when the user had no keywords
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "notification_keywords", joinColumns = @JoinColumn(name = "notification_id"))
+    @Column(name = "keyword", nullable = false)
+    private Set<String> matchedKeywords = new HashSet<>();
+
+    // Number of notifications a retention digest stands for; null for an ordinary notification
+    @Column(name = "digest_count")
+    private Integer digestCount;
+
     @PrePersist
     protected void onCreate() {
         this.timestamp = new Date();
@@ -40,6 +59,17 @@ public class Notification {
 
     public Notification() {}
 
+    /**
+     * Cuts text to the message column's length, without splitting a surrogate pair.
+     */
+    public static String fitMessage(String text) {
+        if (text == null || text.length() <= MESSAGE_LENGTH) {
+            return text;
+        }
+        int end = Character.isHighSurrogate(text.charAt(MESSAGE_LENGTH - 1)) ? MESSAGE_LENGTH - 1 : MESSAGE_LENGTH;
+        return text.substring(0, end);
+    }
+
 
     public Notification(User user, String message, Date timestamp, Boolean readStatus, NotificationType type) {
         this.user = user;
@@ -97,4 +127,20 @@ public class Notification {
     public void setType(NotificationType type) {
         this.type = type;
     }
+
+    public Set<String> getMatchedKeywords() {
+        return matchedKeywords;
+    }
+
+    public void setMatchedKeywords(Set<String> matchedKeywords) {
+        this.matchedKeywords = matchedKeywords;
+    }
+
+    public Integer getDigestCount() {
+        return digestCount;
+    }
+
+    public void setDigestCount(Integer digestCount) {
+        this.digestCount = digestCount;
+    }
 }
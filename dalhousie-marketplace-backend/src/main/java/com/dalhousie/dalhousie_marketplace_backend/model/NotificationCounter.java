@@ -0,0 +1,24 @@
+package com.dalhousie.dalhousie_marketplace_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A user's number of unread notifications. Kept in step with the notification table by the
+ * statements that insert notifications and mark them read (see NotificationRepositoryCustomImpl),
+ * so the bell badge is a primary-key lookup instead of a count over the user's notifications.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Getter
+@Setter
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+}
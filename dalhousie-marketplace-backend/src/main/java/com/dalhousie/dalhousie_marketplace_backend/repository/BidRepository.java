@@ -1,7 +1,9 @@
 package com.dalhousie.dalhousie_marketplace_backend.repository;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
 import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
 import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +16,7 @@ import java.util.Optional;
  * Repository interface for Bid entity operations.
  */
 @Repository
-public interface BidRepository extends JpaRepository<Bid, Long> {
+public interface BidRepository extends JpaRepository<Bid, Long>, BidRepositoryCustom {
 
     /**
      * Finds all bids for a specific listing.
@@ -63,6 +65,17 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     @Query("SELECT COUNT(b) FROM Bid b WHERE b.listing.id = :listingId AND b.status IN :statuses")
     int countByListingIdAndStatusIn(@Param("listingId") Long listingId, @Param("statuses") List<BidStatus> statuses);
 
+    /**
+     * Loads the bid book entries for a listing without touching the listing or buyer rows.
+     *
+     * @param listingId The ID of the listing
+     * @param statuses Statuses that count as active
+     * @return Matching bids as bid book entries
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry(b.id, b.buyer.userId, b.proposedPrice, b.status, b.maxPrice) " +
+            "FROM Bid b WHERE b.listing.id = :listingId AND b.status IN :statuses")
+    List<BidBookEntry> findBookEntries(@Param("listingId") Long listingId, @Param("statuses") List<BidStatus> statuses);
+
     /**
      * Finds bids for a listing with a specific status, ordered by price (descending).
      *
@@ -73,6 +86,37 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     @Query("SELECT b FROM Bid b WHERE b.listing.id = :listingId AND b.status = :status ORDER BY b.proposedPrice DESC")
     List<Bid> findByListingIdAndStatusOrderByProposedPriceDesc(@Param("listingId") Long listingId, @Param("status") BidStatus status);
 
+    /**
+     * Pending bids for a listing, highest price first and the earlier bid first on a tie, read
+     * along the (listing_id, status, proposed_price, id) index. Callers pass
+     * {@code PageRequest.of(0, 1)} to get the winner.
+     *
+     * @param listingId The ID of the listing
+     * @param pageable How many bids to return
+     * @return The highest pending bids
+     */
+    @Query("SELECT b FROM Bid b WHERE b.listing.id = :listingId " +
+            "AND b.status = com.dalhousie.dalhousie_marketplace_backend.model.BidStatus.PENDING " +
+            "ORDER BY b.proposedPrice DESC, b.id")
+    List<Bid> findHighestPending(@Param("listingId") Long listingId, Pageable pageable);
+
+    /**
+     * Pending bids on a listing from buyers other than the given one, strongest ceiling (proxy
+     * maximum, or price for a fixed bid) first and the earlier bid first on a tie.
+     *
+     * @param listingId The ID of the listing
+     * @param buyerId The buyer whose own bids are skipped
+     * @param pageable How many bids to return
+     * @return The strongest rival bids as bid book entries
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry(b.id, b.buyer.userId, b.proposedPrice, b.status, b.maxPrice) " +
+            "FROM Bid b WHERE b.listing.id = :listingId " +
+            "AND b.status = com.dalhousie.dalhousie_marketplace_backend.model.BidStatus.PENDING " +
+            "AND b.buyer.userId <> :buyerId " +
+            "ORDER BY COALESCE(b.maxPrice, b.proposedPrice) DESC, b.id")
+    List<BidBookEntry> findStrongestRivals(@Param("listingId") Long listingId, @Param("buyerId") Long buyerId,
+                                           Pageable pageable);
+
     /**
      * Finds the latest bid in a conversation between a buyer and a listing.
      *
@@ -83,6 +127,15 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     @Query("SELECT b FROM Bid b WHERE b.listing.id = :listingId AND b.buyer.userId = :buyerId ORDER BY b.createdAt DESC")
     List<Bid> findLatestBidByListingIdAndBuyerId(@Param("listingId") Long listingId, @Param("buyerId") Long buyerId);
 
+    /**
+     * Finds the listing a bid belongs to without loading the bid.
+     *
+     * @param bidId The ID of the bid
+     * @return The listing ID, if the bid exists
+     */
+    @Query("SELECT b.listing.id FROM Bid b WHERE b.id = :bidId")
+    Optional<Long> findListingIdById(@Param("bidId") Long bidId);
+
     /**
      * Finds a bid associated with a specific order.
      *
@@ -0,0 +1,22 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+
+import java.util.List;
+
+/**
+ * Set-based bid updates that bypass the per-entity save path.
+ */
+public interface BidRepositoryCustom {
+
+    /**
+     * Rejects every PENDING or COUNTERED bid on a listing except one, with a single UPDATE.
+     * The affected rows are locked and read first so callers know whom to notify.
+     * Rejected bids are not refreshed in the persistence context.
+     *
+     * @param listingId The listing whose bidding is closing
+     * @param keepBidId The bid that stays out of the rejection (normally the accepted one)
+     * @return The rejected bids, with status REJECTED
+     */
+    List<BidBookEntry> rejectActiveBidsExcept(Long listingId, Long keepBidId);
+}
@@ -0,0 +1,43 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class BidRepositoryCustomImpl implements BidRepositoryCustom {
+
+    // MySQL has no UPDATE ... RETURNING, so the rows are locked with FOR UPDATE first. The locks
+    // also block bids inserted for the listing until commit, so the UPDATE hits exactly these rows.
+    private static final String LOCK_ACTIVE_SQL =
+            "SELECT id, buyer_id, proposed_price FROM bids " +
+            "WHERE listing_id = ? AND status IN ('PENDING', 'COUNTERED') AND id <> ? FOR UPDATE";
+
+    private static final String REJECT_ACTIVE_SQL =
+            "UPDATE bids SET status = 'REJECTED', updated_at = ?, version = version + 1 " +
+            "WHERE listing_id = ? AND status IN ('PENDING', 'COUNTERED') AND id <> ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<BidBookEntry> rejectActiveBidsExcept(Long listingId, Long keepBidId) {
+        List<BidBookEntry> rejected = jdbcTemplate.query(LOCK_ACTIVE_SQL,
+                (rs, rowNum) -> new BidBookEntry(
+                        rs.getLong("id"),
+                        rs.getLong("buyer_id"),
+                        rs.getDouble("proposed_price"),
+                        BidStatus.REJECTED),
+                listingId, keepBidId);
+
+        if (!rejected.isEmpty()) {
+            jdbcTemplate.update(REJECT_ACTIVE_SQL, new Timestamp(System.currentTimeMillis()), listingId, keepBidId);
+        }
+        return rejected;
+    }
+}
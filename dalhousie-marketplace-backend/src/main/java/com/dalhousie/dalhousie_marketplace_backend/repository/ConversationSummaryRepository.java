@@ -0,0 +1,28 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for per-participant conversation summaries.
+ */
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long>,
+        ConversationSummaryRepositoryCustom {
+
+    /**
+     * Clears a participant's unread count for one conversation.
+     *
+     * @return Number of rows updated (0 or 1)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationSummary c SET c.unreadCount = 0 " +
+           "WHERE c.conversationId = :conversationId AND c.userId = :userId")
+    int markRead(@Param("conversationId") String conversationId, @Param("userId") Long userId);
+}
@@ -0,0 +1,47 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.ConversationSummary;
+import com.dalhousie.dalhousie_marketplace_backend.model.Message;
+import com.dalhousie.dalhousie_marketplace_backend.util.ConversationCursor;
+
+import java.util.List;
+
+/**
+ * Conversation summary writes that need MySQL upserts, and inbox reads whose shape depends on
+ * the arguments.
+ */
+public interface ConversationSummaryRepositoryCustom {
+
+    /**
+     * Records a sent message in both participants' summaries, creating them if needed: the
+     * receiver's unread count goes up by one and the sender's is cleared. The listing's title and
+     * seller are read by the same statement, so the listing itself need not be loaded.
+     *
+     * @param message The message, with sender, receiver and listing set; references are enough
+     * @param senderName The sender's username
+     * @param receiverName The receiver's username
+     * @return false if the listing does not exist, in which case nothing was written
+     */
+    boolean recordMessage(Message message, String senderName, String receiverName);
+
+    /**
+     * Builds summaries for conversations that have none, from each conversation's latest
+     * message. Unread counts start at zero.
+     *
+     * @return Number of summary rows created
+     */
+    int backfillFromMessages();
+
+    /**
+     * Keyset page of a user's conversations, most recent activity first.
+     *
+     * @param userId The participant
+     * @param sellerRepliedOnly Only conversations the listing's seller has replied to
+     * @param listingId Only conversations about this listing, or null for all
+     * @param after Position to continue after, or null for the first page
+     * @param limit Maximum number of rows
+     * @return The user's summaries
+     */
+    List<ConversationSummary> findInbox(Long userId, boolean sellerRepliedOnly, Long listingId,
+                                        ConversationCursor after, int limit);
+}
@@ -0,0 +1,113 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.ConversationSummary;
+import com.dalhousie.dalhousie_marketplace_backend.model.Message;
+import com.dalhousie.dalhousie_marketplace_backend.util.ConversationCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConversationSummaryRepositoryCustomImpl implements ConversationSummaryRepositoryCustom {
+
+    private static final int PREVIEW_LENGTH = 255;
+
+    // Rows may arrive out of order under concurrency, so the preview only moves forward in time.
+    // MySQL applies the assignments left to right, so last_message is set before last_message_at.
+    // An unread increment of 0 marks the sender's row, which is cleared instead. Selecting from
+    // listings fills in the title and seller, and inserts nothing when the listing is missing.
+    private static final String UPSERT_SQL =
+            "INSERT INTO conversation_summaries (conversation_id, user_id, other_user_id, other_username, " +
+            "listing_id, listing_title, seller_id, seller_replied, last_message, last_message_at, unread_count) " +
+            "SELECT ?, ?, ?, ?, l.id, l.title, l.seller_id, COALESCE(l.seller_id <> ?, FALSE), ?, ?, ? " +
+            "FROM listings l WHERE l.id = ? " +
+            "ON DUPLICATE KEY UPDATE " +
+            "other_username = VALUES(other_username), " +
+            "listing_title = VALUES(listing_title), " +
+            "seller_replied = seller_replied OR VALUES(seller_replied), " +
+            "last_message = IF(VALUES(last_message_at) >= last_message_at, VALUES(last_message), last_message), " +
+            "last_message_at = GREATEST(last_message_at, VALUES(last_message_at)), " +
+            "unread_count = IF(VALUES(unread_count) = 0, 0, unread_count + VALUES(unread_count))";
+
+    private static final String BACKFILL_SIDE_SQL =
+            "SELECT m.conversation_id, m.%1$s_id, m.%2$s_id, other.username, l.id, l.title, l.seller_id, " +
+            "EXISTS (SELECT 1 FROM message r WHERE r.conversation_id = m.conversation_id AND r.receiver_id <> l.seller_id), " +
+            "LEFT(m.content, " + PREVIEW_LENGTH + "), m.timestamp, 0 " +
+            "FROM message m " +
+            "JOIN (SELECT conversation_id, MAX(id) AS id FROM message GROUP BY conversation_id) latest ON latest.id = m.id " +
+            "JOIN listings l ON l.id = m.listing_id " +
+            "JOIN users other ON other.user_id = m.%2$s_id";
+
+    private static final String BACKFILL_SQL =
+            "INSERT IGNORE INTO conversation_summaries (conversation_id, user_id, other_user_id, other_username, " +
+            "listing_id, listing_title, seller_id, seller_replied, last_message, last_message_at, unread_count) " +
+            String.format(BACKFILL_SIDE_SQL, "sender", "receiver") +
+            " UNION ALL " +
+            String.format(BACKFILL_SIDE_SQL, "receiver", "sender");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean recordMessage(Message message, String senderName, String receiverName) {
+        // Only identifiers are read from the associations, so reference proxies stay uninitialized
+        Long senderId = message.getSender().getUserId();
+        Long receiverId = message.getReceiver().getUserId();
+        Long listingId = message.getListing().getId();
+        String preview = message.getContent() != null && message.getContent().length() > PREVIEW_LENGTH
+                ? message.getContent().substring(0, PREVIEW_LENGTH)
+                : message.getContent();
+        Timestamp sentAt = new Timestamp(message.getTimestamp().getTime());
+
+        int[] updated = jdbcTemplate.batchUpdate(UPSERT_SQL, List.of(
+                new Object[]{message.getConversationId(), senderId, receiverId, receiverName,
+                        receiverId, preview, sentAt, 0, listingId},
+                new Object[]{message.getConversationId(), receiverId, senderId, senderName,
+                        receiverId, preview, sentAt, 1, listingId}));
+        return updated.length > 0 && updated[0] != 0;
+    }
+
+    @Override
+    @Transactional
+    public int backfillFromMessages() {
+        return jdbcTemplate.update(BACKFILL_SQL);
+    }
+
+    @Override
+    public List<ConversationSummary> findInbox(Long userId, boolean sellerRepliedOnly, Long listingId,
+                                               ConversationCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT c FROM ConversationSummary c WHERE c.userId = :userId");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("userId", userId);
+
+        if (sellerRepliedOnly) {
+            jpql.append(" AND c.sellerReplied = true");
+        }
+        if (listingId != null) {
+            jpql.append(" AND c.listingId = :listingId");
+            parameters.put("listingId", listingId);
+        }
+        if (after != null) {
+            jpql.append(" AND (c.lastMessageAt < :cursorLastMessageAt OR (c.lastMessageAt = :cursorLastMessageAt AND c.id < :cursorId))");
+            parameters.put("cursorLastMessageAt", after.getLastMessageAt());
+            parameters.put("cursorId", after.getId());
+        }
+        jpql.append(" ORDER BY c.lastMessageAt DESC, c.id DESC");
+
+        TypedQuery<ConversationSummary> query = entityManager.createQuery(jpql.toString(), ConversationSummary.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
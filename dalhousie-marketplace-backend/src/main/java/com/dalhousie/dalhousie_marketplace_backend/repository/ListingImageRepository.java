@@ -1,15 +1,50 @@
 package com.dalhousie.dalhousie_marketplace_backend.repository;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata;
 import com.dalhousie.dalhousie_marketplace_backend.model.ListingImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ListingImageRepository extends JpaRepository<ListingImage, Long> {
     List<ListingImage> findByListingId(Long listingId);
     List<ListingImage> findBySellerId(Long sellerId);
 
-    
+    /**
+     * Image metadata for a listing, without loading image bytes.
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata(" +
+           "i.id, i.listing.id, i.imageType, i.imageSize, i.isPrimary, i.contentHash) " +
+           "FROM ListingImage i WHERE i.listing.id = :listingId ORDER BY i.id ASC")
+    List<ListingImageMetadata> findMetadataByListingId(@Param("listingId") Long listingId);
+
+    /**
+     * Metadata for a single image, without loading image bytes.
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata(" +
+           "i.id, i.listing.id, i.imageType, i.imageSize, i.isPrimary, i.contentHash) " +
+           "FROM ListingImage i WHERE i.id = :imageId")
+    Optional<ListingImageMetadata> findMetadataById(@Param("imageId") Long imageId);
+
+    /**
+     * Keyset page of IDs for images whose bytes still live in the image_data column.
+     */
+    @Query("SELECT i.id FROM ListingImage i WHERE i.contentHash IS NULL AND i.id > :afterId ORDER BY i.id ASC")
+    List<Long> findLegacyImageIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keyset page of stored images that have no variant rows yet, e.g. because the variant queue
+     * was full when they were uploaded.
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata(" +
+           "i.id, i.listing.id, i.imageType, i.imageSize, i.isPrimary, i.contentHash) " +
+           "FROM ListingImage i WHERE i.contentHash IS NOT NULL AND i.id > :afterId " +
+           "AND NOT EXISTS (SELECT v.id FROM ListingImageVariant v WHERE v.imageId = i.id) ORDER BY i.id ASC")
+    List<ListingImageMetadata> findImagesWithoutVariantsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.ListingImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ListingImageVariantRepository extends JpaRepository<ListingImageVariant, Long> {
+    List<ListingImageVariant> findByImageIdOrderByWidthAsc(Long imageId);
+    List<ListingImageVariant> findByImageIdInOrderByWidthAsc(Collection<Long> imageIds);
+}
@@ -1,13 +1,19 @@
 package com.dalhousie.dalhousie_marketplace_backend.repository;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.AuctionDeadline;
 import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
-public interface ListingRepository extends JpaRepository<Listing, Long> {
+public interface ListingRepository extends JpaRepository<Listing, Long>, ListingRepositoryCustom {
     /**
      * Find listings by status
      * @param status The listing status to filter by
@@ -27,4 +33,71 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     List<Listing> searchByKeyword(@Param("keyword") String keyword);
 
     List<Listing> findByBiddingAllowedAndStatus(Boolean biddingAllowed, Listing.ListingStatus status);
+
+    /**
+     * Find a listing with its seller loaded in the same query
+     * @param id The listing ID
+     * @return The listing, if it exists
+     */
+    @Query("SELECT l FROM Listing l LEFT JOIN FETCH l.seller WHERE l.id = :id")
+    Optional<Listing> findWithSellerById(@Param("id") Long id);
+
+    /**
+     * Find a listing's seller ID without loading the listing
+     * @param id The listing ID
+     * @return The seller's user ID, if the listing exists
+     */
+    @Query("SELECT l.seller.userId FROM Listing l WHERE l.id = :id")
+    Optional<Long> findSellerIdById(@Param("id") Long id);
+
+    /**
+     * A listing's current version without loading it.
+     * @param id The listing ID
+     * @return The version, if the listing exists
+     */
+    @Query("SELECT l.version FROM Listing l WHERE l.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Find a listing for a bid mutation. Its version is bumped when the transaction commits, so
+     * bid placement and bid closing on the same listing conflict even across application instances.
+     * @param id The listing ID
+     * @return The listing, if it exists
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT l FROM Listing l WHERE l.id = :id")
+    Optional<Listing> findForBiddingById(@Param("id") Long id);
+
+    /**
+     * Keyset page of listings with the given status, ordered by ID.
+     * @param status The listing status to filter by
+     * @param afterId Only listings with an ID greater than this are returned
+     * @param pageable Page size (page number should always be 0)
+     * @return Next page of listings
+     */
+    @Query("SELECT l FROM Listing l WHERE l.status = :status AND l.id > :afterId ORDER BY l.id ASC")
+    List<Listing> findByStatusAfterId(@Param("status") Listing.ListingStatus status,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Keyset page of running auctions that end at or before the horizon, soonest first.
+     * Served by the (status, auction_ends_at) index.
+     * @param status Listing status of running auctions (ACTIVE)
+     * @param horizon Latest end time to include
+     * @param afterEndsAt End time of the last row of the previous page
+     * @param afterId ID of the last row of the previous page
+     * @param pageable Page size (page number should always be 0)
+     * @return Next page of auction deadlines
+     */
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.AuctionDeadline(l.id, l.auctionEndsAt) " +
+            "FROM Listing l WHERE l.status = :status " +
+            "AND l.auctionEndsAt <= :horizon " +
+            "AND (l.auctionEndsAt > :afterEndsAt OR (l.auctionEndsAt = :afterEndsAt AND l.id > :afterId)) " +
+            "ORDER BY l.auctionEndsAt ASC, l.id ASC")
+    List<AuctionDeadline> findAuctionsEndingBy(@Param("status") Listing.ListingStatus status,
+                                               @Param("horizon") Date horizon,
+                                               @Param("afterEndsAt") Date afterEndsAt,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedFilter;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingSummaryDTO;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.util.ListingFeedCursor;
+
+import java.util.List;
+
+/**
+ * Listing queries whose shape depends on the arguments, so they can't be fixed @Query strings,
+ * and targeted listing updates.
+ * <p>
+ * The updates change only their own columns with a single UPDATE. They bump the listing's version
+ * without checking it, so they never fail with an optimistic lock conflict, while a bid mutation
+ * that read the old version still conflicts and retries instead of overwriting them.
+ */
+public interface ListingRepositoryCustom {
+
+    /**
+     * Keyset page of ACTIVE listings, newest first, ordered by (createdAt, id) descending.
+     * Only the predicates for filters that are set are added, so each combination can use an index.
+     *
+     * @param filter Optional filters
+     * @param after Position to continue after, or null for the first page
+     * @param limit Maximum number of rows
+     * @return Listing summaries, including the seller's username and primary image ID
+     */
+    List<ListingSummaryDTO> findActiveFeed(ListingFeedFilter filter, ListingFeedCursor after, int limit);
+
+    /**
+     * Takes purchased stock off a listing, never below zero, and marks it SOLD when none is left.
+     * The listing is refreshed to the stored state.
+     *
+     * @param listing The listing bought from
+     * @param quantity Number of units bought
+     */
+    void applyPurchase(Listing listing, int quantity);
+
+    /**
+     * Sets a listing's status. The listing is refreshed to the stored state.
+     *
+     * @param listing The listing
+     * @param status The new status
+     */
+    void updateStatus(Listing listing, Listing.ListingStatus status);
+
+    /**
+     * Sets a listing's review statistics.
+     *
+     * @param listingId The listing ID
+     * @param averageRating Average review rating
+     * @param reviewCount Number of reviews
+     * @return Number of listings updated; 0 if the listing doesn't exist
+     */
+    int updateRatingStats(Long listingId, Double averageRating, Integer reviewCount);
+}
@@ -0,0 +1,118 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedFilter;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingSummaryDTO;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.util.ListingFeedCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ListingRepositoryCustomImpl implements ListingRepositoryCustom {
+
+    private static final String FEED_SELECT =
+            "SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.ListingSummaryDTO(" +
+            "l.id, l.title, l.price, l.quantity, l.categoryId, l.biddingAllowed, l.startingBid, " +
+            "l.averageRating, l.reviewCount, l.createdAt, s.userId, s.username, " +
+            "(SELECT MIN(i.id) FROM ListingImage i WHERE i.listing.id = l.id AND i.isPrimary = true)) " +
+            "FROM Listing l LEFT JOIN l.seller s " +
+            "WHERE l.status = :status";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ListingSummaryDTO> findActiveFeed(ListingFeedFilter filter, ListingFeedCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(FEED_SELECT);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("status", Listing.ListingStatus.ACTIVE);
+
+        if (filter != null) {
+            if (filter.getCategoryId() != null) {
+                jpql.append(" AND l.categoryId = :categoryId");
+                parameters.put("categoryId", filter.getCategoryId());
+            }
+            if (filter.getMinPrice() != null) {
+                jpql.append(" AND l.price >= :minPrice");
+                parameters.put("minPrice", filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                jpql.append(" AND l.price <= :maxPrice");
+                parameters.put("maxPrice", filter.getMaxPrice());
+            }
+            if (filter.getBiddable() != null) {
+                jpql.append(" AND l.biddingAllowed = :biddable");
+                parameters.put("biddable", filter.getBiddable());
+            }
+        }
+        if (after != null) {
+            jpql.append(" AND (l.createdAt < :cursorCreatedAt OR (l.createdAt = :cursorCreatedAt AND l.id < :cursorId))");
+            parameters.put("cursorCreatedAt", after.getCreatedAt());
+            parameters.put("cursorId", after.getId());
+        }
+        jpql.append(" ORDER BY l.createdAt DESC, l.id DESC");
+
+        TypedQuery<ListingSummaryDTO> query = entityManager.createQuery(jpql.toString(), ListingSummaryDTO.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public void applyPurchase(Listing listing, int quantity) {
+        // Status comes first: MySQL applies SET assignments left to right, so it sees the old quantity
+        entityManager.createQuery("UPDATE Listing l SET " +
+                        "l.status = CASE WHEN l.quantity <= :quantity THEN :sold ELSE l.status END, " +
+                        "l.quantity = CASE WHEN l.quantity > :quantity THEN l.quantity - :quantity ELSE 0 END, " +
+                        "l.version = l.version + 1 " +
+                        "WHERE l.id = :id")
+                .setParameter("quantity", quantity)
+                .setParameter("sold", Listing.ListingStatus.SOLD)
+                .setParameter("id", listing.getId())
+                .executeUpdate();
+        refresh(listing);
+    }
+
+    @Override
+    @Transactional
+    public void updateStatus(Listing listing, Listing.ListingStatus status) {
+        entityManager.createQuery("UPDATE Listing l SET l.status = :status, l.version = l.version + 1 WHERE l.id = :id")
+                .setParameter("status", status)
+                .setParameter("id", listing.getId())
+                .executeUpdate();
+        refresh(listing);
+    }
+
+    @Override
+    @Transactional
+    public int updateRatingStats(Long listingId, Double averageRating, Integer reviewCount) {
+        return entityManager.createQuery("UPDATE Listing l SET l.averageRating = :averageRating, " +
+                        "l.reviewCount = :reviewCount, l.version = l.version + 1 WHERE l.id = :id")
+                .setParameter("averageRating", averageRating)
+                .setParameter("reviewCount", reviewCount)
+                .setParameter("id", listingId)
+                .executeUpdate();
+    }
+
+    // A bulk UPDATE bypasses the persistence context, so reload what it changed. Refreshing a
+    // managed listing also picks up the new version, so it isn't flushed back with a stale one.
+    private void refresh(Listing listing) {
+        if (entityManager.contains(listing)) {
+            entityManager.refresh(listing);
+            return;
+        }
+        Listing current = entityManager.find(Listing.class, listing.getId());
+        if (current != null) {
+            entityManager.refresh(current);
+            listing.setStatus(current.getStatus());
+            listing.setQuantity(current.getQuantity());
+            listing.setVersion(current.getVersion());
+        }
+    }
+}
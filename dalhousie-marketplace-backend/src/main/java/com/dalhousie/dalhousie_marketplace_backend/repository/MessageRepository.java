@@ -1,6 +1,8 @@
 package com.dalhousie.dalhousie_marketplace_backend.repository;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.MessageDTO;
 import com.dalhousie.dalhousie_marketplace_backend.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,19 +17,27 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByConversationId(String conversationId);
 
     /**
-     * Retrieves distinct conversation IDs where the seller is involved.
+     * Messages in a conversation older than a message ID, newest first, read backwards along the
+     * (conversation_id, id) index. IDs grow with send time, so ID order is chronological order.
      */
-    @Query("SELECT DISTINCT m.conversationId FROM Message m " +
-           "WHERE m.receiver.userId = :sellerId OR m.sender.userId = :sellerId")
-    List<String> findDistinctConversationIdsBySeller(@Param("sellerId") Long sellerId);
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.MessageDTO(" +
+           "m.id, m.conversationId, m.sender.userId, m.receiver.userId, m.listing.id, m.content, m.timestamp) " +
+           "FROM Message m WHERE m.conversationId = :conversationId AND m.id < :beforeId " +
+           "ORDER BY m.id DESC")
+    List<MessageDTO> findHistoryBefore(@Param("conversationId") String conversationId,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
 
     /**
-     * Retrieves distinct conversation IDs where the buyer is involved.
+     * Messages in a conversation newer than a message ID, oldest first.
      */
-    @Query("SELECT DISTINCT m.conversationId FROM Message m " +
-           "WHERE (m.receiver.userId = :buyerId OR m.sender.userId = :buyerId) " +
-           "AND m.receiver.userId <> m.listing.seller.userId")
-    List<String> findDistinctConversationIdsByBuyer(@Param("buyerId") Long buyerId);
+    @Query("SELECT new com.dalhousie.dalhousie_marketplace_backend.DTO.MessageDTO(" +
+           "m.id, m.conversationId, m.sender.userId, m.receiver.userId, m.listing.id, m.content, m.timestamp) " +
+           "FROM Message m WHERE m.conversationId = :conversationId AND m.id > :afterId " +
+           "ORDER BY m.id ASC")
+    List<MessageDTO> findHistoryAfter(@Param("conversationId") String conversationId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
 
     /**
      * Retrieves messages related to a specific listing and user.
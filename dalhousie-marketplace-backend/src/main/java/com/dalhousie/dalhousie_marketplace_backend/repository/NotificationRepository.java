@@ -2,11 +2,20 @@ package com.dalhousie.dalhousie_marketplace_backend.repository;
 
 import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     List<Notification> findByUser_UserId(Long userId);
     List<Notification> findByUser_UserIdAndReadStatusFalse(Long userId);
+
+    /**
+     * Looks up a notification's recipient without loading the notification.
+     */
+    @Query("SELECT n.user.userId FROM Notification n WHERE n.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
 }
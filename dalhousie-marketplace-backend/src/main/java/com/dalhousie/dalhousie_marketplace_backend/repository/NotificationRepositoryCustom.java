@@ -0,0 +1,119 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.util.NotificationCursor;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Bulk operations on notifications that bypass the per-entity persist path, and unread reads
+ * whose shape depends on the user's preferences.
+ */
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Inserts all notifications with a single JDBC batch and assigns the generated IDs
+     * back onto the given objects. The objects are not attached to the persistence context.
+     * Recipients' unread counters go up in the same transaction.
+     *
+     * @param notifications Notifications to insert; each must carry a user with an ID
+     * @return Number of rows inserted
+     */
+    int insertAll(List<Notification> notifications);
+
+    /**
+     * Keyset page of a user's unread notifications, newest first, served from the
+     * (user_id, read_status, timestamp) index. ITEM notifications tagged with keywords are only
+     * returned while at least one of those keywords is still one of the user's.
+     *
+     * @param userId The recipient
+     * @param types Types the user still receives; must not be empty
+     * @param keywords The user's current keywords, lower-cased; empty when the user has none
+     * @param after Position to continue after, or null for the first page
+     * @param limit Maximum number of rows
+     * @return The user's unread notifications
+     */
+    List<Notification> findUnread(Long userId, Collection<NotificationType> types, Collection<String> keywords,
+                                  NotificationCursor after, int limit);
+
+    /**
+     * Marks a user's unread notifications read with one UPDATE and lowers their unread counter
+     * by the number of rows changed.
+     *
+     * @param userId The recipient
+     * @param upToId Only notifications with an ID up to and including this one, or null for all
+     * @return Number of notifications marked read
+     */
+    int markAllRead(Long userId, Long upToId);
+
+    /**
+     * Marks the given notifications read if they belong to the user and are unread, and lowers
+     * the user's unread counter by the number of rows changed.
+     *
+     * @param userId The recipient
+     * @param ids Notification IDs; IDs of other users' notifications are ignored
+     * @return Number of notifications marked read
+     */
+    int markRead(Long userId, Collection<Long> ids);
+
+    /**
+     * A user's unread notification count, read from their counter row.
+     */
+    long countUnread(Long userId);
+
+    /**
+     * Recounts the unread notifications of users in an ID range and overwrites their counters,
+     * e.g. for notifications written before counters existed. Callers walk the user IDs in
+     * chunks so each call locks only a slice of the table.
+     *
+     * @param fromUserId First user ID in the range, inclusive
+     * @param toUserId Last user ID in the range, inclusive
+     * @return Number of counter rows written
+     */
+    int reconcileUnreadCounts(long fromUserId, long toUserId);
+
+    /**
+     * Next chunk of IDs of read notifications older than the cutoff, in ID order. A plain read, so
+     * it takes no row locks.
+     *
+     * @param before Only notifications older than this
+     * @param afterId Continue after this ID; 0 to start from the beginning
+     * @param limit Maximum number of IDs
+     */
+    List<Long> findReadIdsBefore(Date before, long afterId, int limit);
+
+    /**
+     * Deletes the given notifications if they are still read, copying them to the archive table
+     * first when asked. Only these rows are locked, for one short transaction.
+     *
+     * @param ids IDs from {@link #findReadIdsBefore(Date, long, int)}
+     * @param archive Copy the rows to notification_archive before deleting them
+     * @return Number of notifications deleted
+     */
+    int purgeRead(Collection<Long> ids, boolean archive);
+
+    /**
+     * Users with at least minCount unread notifications of a type older than the cutoff, in ID
+     * order.
+     *
+     * @param afterUserId Continue after this user ID; 0 to start from the beginning
+     * @param limit Maximum number of user IDs
+     */
+    List<Long> findDigestCandidates(NotificationType type, Date before, int minCount, long afterUserId, int limit);
+
+    /**
+     * Replaces up to maxRows of a user's oldest unread notifications of a type, older than the
+     * cutoff, with one unread digest notification dated at the newest of them. Existing digests are
+     * folded in by their count. The user's unread counter drops by the rows removed less one.
+     * Nothing changes if fewer than minCount rows qualify by the time the rows are locked.
+     *
+     * @param message Builds the digest text from the number of notifications it stands for
+     * @return Number of notifications replaced, or 0 if nothing was compacted
+     */
+    int compactUnread(Long userId, NotificationType type, Date before, int minCount, int maxRows,
+                      IntFunction<String> message);
+}
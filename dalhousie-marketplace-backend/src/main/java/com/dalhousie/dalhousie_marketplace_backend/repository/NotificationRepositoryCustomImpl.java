@@ -0,0 +1,288 @@
+package com.dalhousie.dalhousie_marketplace_backend.repository;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.util.NotificationCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (user_id, message, timestamp, read_status, type) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_KEYWORD_SQL =
+            "INSERT INTO notification_keywords (notification_id, keyword) VALUES (?, ?)";
+
+    private static final String INCREMENT_UNREAD_SQL =
+            "INSERT INTO notification_counters (user_id, unread_count) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + VALUES(unread_count)";
+
+    // GREATEST keeps a counter that predates reconciliation from going negative
+    private static final String DECREMENT_UNREAD_SQL =
+            "UPDATE notification_counters SET unread_count = GREATEST(unread_count - ?, 0) " +
+            "WHERE user_id = ?";
+
+    private static final String MARK_ALL_READ_SQL =
+            "UPDATE notification SET read_status = TRUE WHERE user_id = ? AND read_status = FALSE AND id <= ?";
+
+    private static final String COUNT_UNREAD_SQL =
+            "SELECT unread_count FROM notification_counters WHERE user_id = ?";
+
+    private static final String CLEAR_COUNTERS_SQL =
+            "UPDATE notification_counters c SET unread_count = 0 WHERE c.user_id BETWEEN ? AND ? AND NOT EXISTS " +
+            "(SELECT 1 FROM notification n WHERE n.user_id = c.user_id AND n.read_status = FALSE)";
+
+    // Reads along the (user_id, read_status, timestamp) index for one range of users
+    private static final String RECOUNT_SQL =
+            "INSERT INTO notification_counters (user_id, unread_count) " +
+            "SELECT user_id, COUNT(*) FROM notification " +
+            "WHERE user_id BETWEEN ? AND ? AND read_status = FALSE GROUP BY user_id " +
+            "ON DUPLICATE KEY UPDATE unread_count = VALUES(unread_count)";
+
+    private static final String FIND_READ_IDS_SQL =
+            "SELECT id FROM notification WHERE id > ? AND read_status = TRUE AND timestamp < ? ORDER BY id LIMIT ?";
+
+    private static final String FIND_DIGEST_CANDIDATES_SQL =
+            "SELECT user_id FROM notification WHERE user_id > ? AND read_status = FALSE AND type = ? AND timestamp < ? " +
+            "GROUP BY user_id HAVING COUNT(*) >= ? ORDER BY user_id LIMIT ?";
+
+    // Uses the (user_id, read_status, timestamp) index, so only this user's range is locked
+    private static final String LOCK_DIGEST_ROWS_SQL =
+            "SELECT id, COALESCE(digest_count, 1) AS represented, timestamp FROM notification " +
+            "WHERE user_id = ? AND read_status = FALSE AND type = ? AND timestamp < ? " +
+            "ORDER BY timestamp, id LIMIT ? FOR UPDATE";
+
+    private static final String INSERT_DIGEST_SQL =
+            "INSERT INTO notification (user_id, message, timestamp, read_status, type, digest_count) " +
+            "VALUES (?, ?, ?, FALSE, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Notification notification : notifications) {
+                    if (notification.getTimestamp() == null) {
+                        notification.setTimestamp(new Date());
+                    }
+                    ps.setLong(1, notification.getUser().getUserId());
+                    ps.setString(2, notification.getMessage());
+                    ps.setTimestamp(3, new Timestamp(notification.getTimestamp().getTime()));
+                    ps.setBoolean(4, Boolean.TRUE.equals(notification.getReadStatus()));
+                    ps.setString(5, notification.getType() != null ? notification.getType().name() : null);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int index = 0;
+                    while (keys.next() && index < notifications.size()) {
+                        notifications.get(index++).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return notifications.size();
+        });
+
+        List<Object[]> keywords = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (notification.getMatchedKeywords() != null) {
+                for (String keyword : notification.getMatchedKeywords()) {
+                    keywords.add(new Object[]{notification.getId(), keyword});
+                }
+            }
+        }
+        if (!keywords.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_KEYWORD_SQL, keywords);
+        }
+
+        // One row per recipient, in ID order so concurrent batches lock counters in the same order
+        Map<Long, Integer> unreadByUser = new TreeMap<>();
+        for (Notification notification : notifications) {
+            if (!Boolean.TRUE.equals(notification.getReadStatus())) {
+                unreadByUser.merge(notification.getUser().getUserId(), 1, Integer::sum);
+            }
+        }
+        List<Object[]> increments = new ArrayList<>(unreadByUser.size());
+        unreadByUser.forEach((userId, count) -> increments.add(new Object[]{userId, count}));
+        if (!increments.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_UNREAD_SQL, increments);
+        }
+
+        return inserted != null ? inserted : 0;
+    }
+
+    @Override
+    @Transactional
+    public int markAllRead(Long userId, Long upToId) {
+        int updated = jdbcTemplate.update(MARK_ALL_READ_SQL, userId, upToId != null ? upToId : Long.MAX_VALUE);
+        decrementUnread(userId, updated);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int markRead(Long userId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> parameters = new ArrayList<>(ids.size() + 1);
+        parameters.add(userId);
+        parameters.addAll(ids);
+
+        int updated = jdbcTemplate.update(
+                "UPDATE notification SET read_status = TRUE WHERE user_id = ? AND read_status = FALSE " +
+                "AND id IN (" + placeholders + ")", parameters.toArray());
+        decrementUnread(userId, updated);
+        return updated;
+    }
+
+    private void decrementUnread(Long userId, int count) {
+        if (count > 0) {
+            jdbcTemplate.update(DECREMENT_UNREAD_SQL, count, userId);
+        }
+    }
+
+    @Override
+    public long countUnread(Long userId) {
+        List<Long> counts = jdbcTemplate.queryForList(COUNT_UNREAD_SQL, Long.class, userId);
+        return counts.isEmpty() ? 0L : counts.get(0);
+    }
+
+    @Override
+    @Transactional
+    public int reconcileUnreadCounts(long fromUserId, long toUserId) {
+        jdbcTemplate.update(CLEAR_COUNTERS_SQL, fromUserId, toUserId);
+        return jdbcTemplate.update(RECOUNT_SQL, fromUserId, toUserId);
+    }
+
+    @Override
+    public List<Long> findReadIdsBefore(Date before, long afterId, int limit) {
+        return jdbcTemplate.queryForList(FIND_READ_IDS_SQL, Long.class, afterId, new Timestamp(before.getTime()), limit);
+    }
+
+    @Override
+    @Transactional
+    public int purgeRead(Collection<Long> ids, boolean archive) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] idParameters = ids.toArray();
+
+        if (archive) {
+            List<Object> parameters = new ArrayList<>(ids.size() + 1);
+            parameters.add(new Timestamp(System.currentTimeMillis()));
+            parameters.addAll(ids);
+            jdbcTemplate.update(
+                    "INSERT IGNORE INTO notification_archive (id, user_id, message, type, timestamp, archived_at) " +
+                    "SELECT id, user_id, message, type, timestamp, ? FROM notification " +
+                    "WHERE read_status = TRUE AND id IN (" + placeholders + ")", parameters.toArray());
+        }
+        // Keyword tags reference the rows, so they go first
+        jdbcTemplate.update(
+                "DELETE k FROM notification_keywords k JOIN notification n ON n.id = k.notification_id " +
+                "WHERE n.read_status = TRUE AND n.id IN (" + placeholders + ")", idParameters);
+        return jdbcTemplate.update(
+                "DELETE FROM notification WHERE read_status = TRUE AND id IN (" + placeholders + ")", idParameters);
+    }
+
+    @Override
+    public List<Long> findDigestCandidates(NotificationType type, Date before, int minCount, long afterUserId, int limit) {
+        return jdbcTemplate.queryForList(FIND_DIGEST_CANDIDATES_SQL, Long.class,
+                afterUserId, type.name(), new Timestamp(before.getTime()), minCount, limit);
+    }
+
+    @Override
+    @Transactional
+    public int compactUnread(Long userId, NotificationType type, Date before, int minCount, int maxRows,
+                             IntFunction<String> message) {
+        List<Long> ids = new ArrayList<>();
+        int[] represented = {0};
+        Timestamp[] newest = {null};
+        jdbcTemplate.query(LOCK_DIGEST_ROWS_SQL, rs -> {
+            ids.add(rs.getLong("id"));
+            represented[0] += rs.getInt("represented");
+            Timestamp timestamp = rs.getTimestamp("timestamp");
+            if (newest[0] == null || timestamp.after(newest[0])) {
+                newest[0] = timestamp;
+            }
+        }, userId, type.name(), new Timestamp(before.getTime()), maxRows);
+
+        if (ids.size() < Math.max(minCount, 2)) {
+            return 0;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update(
+                "DELETE FROM notification_keywords WHERE notification_id IN (" + placeholders + ")", ids.toArray());
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM notification WHERE id IN (" + placeholders + ")", ids.toArray());
+        jdbcTemplate.update(INSERT_DIGEST_SQL,
+                userId, message.apply(represented[0]), newest[0], type.name(), represented[0]);
+        decrementUnread(userId, deleted - 1);
+        return deleted;
+    }
+
+    @Override
+    public List<Notification> findUnread(Long userId, Collection<NotificationType> types, Collection<String> keywords,
+                                         NotificationCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT n FROM Notification n WHERE n.user.userId = :userId AND n.readStatus = false AND n.type IN :types");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("types", types);
+
+        if (types.contains(NotificationType.ITEM) && !keywords.isEmpty()) {
+            // Untagged items were sent while the user had no keywords, so they stay visible. Tagged
+            // items stay visible while any keyword they matched is still one of the user's.
+            jpql.append(" AND (n.type <> :item OR n.matchedKeywords IS EMPTY OR EXISTS (" +
+                    "SELECT m.id FROM Notification m JOIN m.matchedKeywords k WHERE m.id = n.id AND k IN :keywords))");
+            parameters.put("item", NotificationType.ITEM);
+            parameters.put("keywords", keywords);
+        }
+        if (after != null) {
+            jpql.append(" AND (n.timestamp < :cursorTimestamp OR (n.timestamp = :cursorTimestamp AND n.id < :cursorId))");
+            parameters.put("cursorTimestamp", after.getTimestamp());
+            parameters.put("cursorId", after.getId());
+        }
+        jpql.append(" ORDER BY n.timestamp DESC, n.id DESC");
+
+        TypedQuery<Notification> query = entityManager.createQuery(jpql.toString(), Notification.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -2,9 +2,26 @@ package com.dalhousie.dalhousie_marketplace_backend.repository;
 
 import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserPreferencesRepository extends JpaRepository<UserPreferences, Long> {
     UserPreferences findByUser_UserId(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Loads preferences (with keywords) for a batch of users in one round-trip.
+     */
+    @Query("SELECT DISTINCT p FROM UserPreferences p LEFT JOIN FETCH p.keywords WHERE p.user.userId IN :userIds")
+    List<UserPreferences> findByUserIdsWithKeywords(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Every (user ID, keyword) pair, for compiling the keyword matcher.
+     */
+    @Query("SELECT p.user.userId, k FROM UserPreferences p JOIN p.keywords k")
+    List<Object[]> findAllUserKeywords();
+}
@@ -1,12 +1,30 @@
 package com.dalhousie.dalhousie_marketplace_backend.repository;
 import com.dalhousie.dalhousie_marketplace_backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByBannerId(String netId);
-}
 
+    /**
+     * Username alone, for display-name lookups that should not load the whole user.
+     */
+    @Query("SELECT u.username FROM User u WHERE u.userId = :userId")
+    Optional<String> findUsernameById(@Param("userId") Long userId);
+
+    /**
+     * Keyset page of user IDs strictly after the given ID, skipping one user (typically the actor).
+     * Callers pass {@code PageRequest.of(0, size)} and feed the last returned ID back in.
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.userId > :afterId AND u.userId <> :excludedId ORDER BY u.userId ASC")
+    List<Long> findUserIdsAfter(@Param("afterId") Long afterId,
+                                @Param("excludedId") Long excludedId,
+                                Pageable pageable);
+}
@@ -0,0 +1,248 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.AuctionDeadline;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closes timed auctions when their end time passes. The persisted {@code auction_ends_at} column
+ * is the source of truth; only auctions ending within a short horizon are held in memory, in one
+ * {@link DelayQueue} drained by a single timer thread, so open auctions cost no scheduled task and
+ * no memory until they are about to end. A periodic scan tops the queue up from the database, and
+ * the first scan after startup also picks up auctions that expired while the application was down.
+ * Closing is delegated to {@link BidService#closeExpiredAuction(Long)}, which is safe to repeat.
+ */
+@Service
+public class AuctionTimer {
+    private static final Logger logger = LoggerFactory.getLogger(AuctionTimer.class);
+
+    private static final int SCAN_PAGE_SIZE = 500;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private BidService bidService;
+
+    @Value("${marketplace.auctions.horizon-ms:900000}")
+    private long horizonMillis = 900_000;
+
+    @Value("${marketplace.auctions.retry-delay-ms:30000}")
+    private long retryDelayMillis = 30_000;
+
+    @Value("${marketplace.auctions.close-workers:2}")
+    private int closeWorkers = 2;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private final Map<Long, Deadline> scheduled = new ConcurrentHashMap<>();
+
+    private Thread timerThread;
+    private ThreadPoolExecutor closer;
+    private volatile boolean running;
+
+    private final AtomicLong auctionsClosed = new AtomicLong();
+    private final AtomicLong auctionsWon = new AtomicLong();
+    private final AtomicLong closeFailures = new AtomicLong();
+    private final AtomicLong lastScanMillis = new AtomicLong();
+    private final AtomicLong maxCloseLagMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        AtomicLong threadCount = new AtomicLong();
+        closer = new ThreadPoolExecutor(closeWorkers, closeWorkers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auction-closer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        running = true;
+        timerThread = new Thread(this::runTimer, "auction-timer");
+        timerThread.setDaemon(true);
+        timerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        timerThread.interrupt();
+        timerThread.join(TimeUnit.SECONDS.toMillis(5));
+        closer.shutdown();
+        if (!closer.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Auction closing did not drain before shutdown; the next startup scan will finish it");
+            closer.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads every running auction that has ended or ends within the horizon. Runs once the
+     * application is ready, which recovers auctions that expired while it was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int loaded = scan();
+        logger.info("Auction timer started; {} auctions due within {} ms", loaded, horizonMillis);
+    }
+
+    /**
+     * Tops up the in-memory queue with auctions that now fall inside the horizon.
+     *
+     * @return Number of auctions found due within the horizon
+     */
+    @Scheduled(fixedDelayString = "${marketplace.auctions.scan-interval-ms:60000}")
+    public int scan() {
+        long started = System.currentTimeMillis();
+        Date horizon = new Date(started + horizonMillis);
+        Date afterEndsAt = new Date(0);
+        Long afterId = 0L;
+        int found = 0;
+
+        while (true) {
+            List<AuctionDeadline> page = listingRepository.findAuctionsEndingBy(
+                    Listing.ListingStatus.ACTIVE, horizon, afterEndsAt, afterId, PageRequest.of(0, SCAN_PAGE_SIZE));
+            for (AuctionDeadline deadline : page) {
+                enqueue(deadline.getListingId(), deadline.getEndsAt().getTime());
+            }
+            found += page.size();
+            if (page.size() < SCAN_PAGE_SIZE) {
+                break;
+            }
+            AuctionDeadline last = page.get(page.size() - 1);
+            afterEndsAt = last.getEndsAt();
+            afterId = last.getListingId();
+        }
+
+        lastScanMillis.set(System.currentTimeMillis() - started);
+        return found;
+    }
+
+    /**
+     * Schedules a listing's auction once the surrounding transaction commits, if it ends within
+     * the horizon. Later auctions are left to the periodic scan.
+     *
+     * @param listing A listing that was created or had its auction end time changed
+     */
+    public void schedule(Listing listing) {
+        if (listing.getId() == null || listing.getAuctionEndsAt() == null
+                || !Boolean.TRUE.equals(listing.getBiddingAllowed())) {
+            return;
+        }
+        Long listingId = listing.getId();
+        long endsAt = listing.getAuctionEndsAt().getTime();
+        TransactionHooks.afterCommit(() -> {
+            if (endsAt <= System.currentTimeMillis() + horizonMillis) {
+                enqueue(listingId, endsAt);
+            }
+        });
+    }
+
+    // One queued deadline per listing; a changed end time replaces the earlier entry.
+    private void enqueue(Long listingId, long endsAt) {
+        scheduled.compute(listingId, (id, previous) -> {
+            if (previous != null) {
+                if (previous.endsAt == endsAt) {
+                    return previous;
+                }
+                queue.remove(previous);
+            }
+            Deadline deadline = new Deadline(id, endsAt);
+            queue.put(deadline);
+            return deadline;
+        });
+    }
+
+    private void runTimer() {
+        while (running) {
+            Deadline deadline;
+            try {
+                deadline = queue.take();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            if (scheduled.remove(deadline.listingId, deadline)) {
+                closer.execute(() -> close(deadline));
+            }
+        }
+    }
+
+    void close(Deadline deadline) {
+        long lag = System.currentTimeMillis() - deadline.endsAt;
+        maxCloseLagMillis.accumulateAndGet(lag, Math::max);
+        try {
+            if (bidService.closeExpiredAuction(deadline.listingId) != null) {
+                auctionsWon.incrementAndGet();
+            }
+            auctionsClosed.incrementAndGet();
+        } catch (RuntimeException e) {
+            closeFailures.incrementAndGet();
+            logger.error("Closing auction for listing ID {} failed; retrying in {} ms",
+                    deadline.listingId, retryDelayMillis, e);
+            if (running) {
+                enqueue(deadline.listingId, System.currentTimeMillis() + retryDelayMillis);
+            }
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Snapshot of queued auctions, closes and timer lag.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Deadline next = queue.peek();
+        stats.put("queued", queue.size());
+        stats.put("nextDueInMillis", next != null ? next.getDelay(TimeUnit.MILLISECONDS) : null);
+        stats.put("closePending", closer.getQueue().size() + closer.getActiveCount());
+        stats.put("auctionsClosed", auctionsClosed.get());
+        stats.put("auctionsWon", auctionsWon.get());
+        stats.put("closeFailures", closeFailures.get());
+        stats.put("maxCloseLagMillis", maxCloseLagMillis.get());
+        stats.put("lastScanMillis", lastScanMillis.get());
+        return stats;
+    }
+
+    static class Deadline implements Delayed {
+        final Long listingId;
+        final long endsAt;
+
+        Deadline(Long listingId, long endsAt) {
+            this.listingId = listingId;
+            this.endsAt = endsAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(endsAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            Deadline that = (Deadline) other;
+            int byTime = Long.compare(endsAt, that.endsAt);
+            return byTime != 0 ? byTime : Long.compare(listingId, that.listingId);
+        }
+    }
+}
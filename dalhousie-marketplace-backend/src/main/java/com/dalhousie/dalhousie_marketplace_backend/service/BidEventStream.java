@@ -0,0 +1,210 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidEvent;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidEventFrame;
+import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes bid changes to /topic/bids/{listingId} as compact {@link BidEventFrame}s. Changes to a
+ * listing are collected for a short window and sent as one frame holding the latest state of each
+ * bid that changed, so a burst of bids or a mass rejection costs one message per window instead
+ * of one per bid. Frames are numbered with the listing's version as of the commit that made the
+ * change. Every bid mutation bumps that version, so numbers rise across all application instances
+ * publishing to a shared broker, though not always by one. A subscriber loads
+ * {@link #snapshot(Long)}, skips frames it already covers, and reloads if a frame arrives with a
+ * lower number than one it has applied. A listing's buffer is dropped once its window is sent,
+ * so only listings with unsent changes hold memory.
+ */
+@Service
+public class BidEventStream {
+    private static final Logger logger = LoggerFactory.getLogger(BidEventStream.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ListingBidBook listingBidBook;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Value("${marketplace.bid-stream.window-ms:50}")
+    private long windowMillis = 50;
+
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private final LongAdder eventsPublished = new LongAdder();
+    private final LongAdder eventsCoalesced = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        // Delayed flushes still run after shutdown(), so frames pending at stop are sent.
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "bid-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a bid's current state for its listing's stream once the surrounding transaction commits.
+     * The bid's listing must have been loaded for the mutation, so its version is the committed one.
+     *
+     * @param bid The bid after it was saved
+     */
+    public void publish(Bid bid) {
+        if (bid == null || bid.getId() == null || bid.getListing() == null || bid.getListing().getId() == null) {
+            return;
+        }
+        Listing listing = bid.getListing();
+        Long bidId = bid.getId();
+        Double price = bid.getProposedPrice();
+        BidStatus status = bid.getStatus();
+        // The version is read after commit, once the commit has bumped it
+        TransactionHooks.afterCommit(() -> enqueue(listing.getId(), new BidEvent(bidId, price, status, versionOf(listing))));
+    }
+
+    /**
+     * Queues bid book entries for a listing's stream, for callers that changed bids without
+     * loading them.
+     *
+     * @param listing The listing the bids belong to, loaded for the mutation
+     * @param entries The bids' new state
+     */
+    public void publish(Listing listing, List<BidBookEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        List<BidBookEntry> changed = new ArrayList<>(entries);
+        TransactionHooks.afterCommit(() -> {
+            long version = versionOf(listing);
+            for (BidBookEntry entry : changed) {
+                enqueue(listing.getId(), new BidEvent(entry.getBidId(), entry.getProposedPrice(), entry.getStatus(), version));
+            }
+        });
+    }
+
+    private static long versionOf(Listing listing) {
+        return listing.getVersion() != null ? listing.getVersion() : 0L;
+    }
+
+    void enqueue(Long listingId, BidEvent event) {
+        eventsPublished.increment();
+        while (true) {
+            Topic topic = topics.computeIfAbsent(listingId, id -> new Topic());
+            synchronized (topic) {
+                if (topic.flushed) {
+                    // Lost a race with the flush that dropped this buffer; use a fresh one
+                    continue;
+                }
+                BidEvent previous = topic.pending.get(event.getId());
+                if (previous != null) {
+                    eventsCoalesced.increment();
+                }
+                if (previous == null || previous.getSeq() <= event.getSeq()) {
+                    topic.pending.put(event.getId(), event);
+                }
+                if (!topic.flushScheduled) {
+                    topic.flushScheduled = true;
+                    scheduler.schedule(() -> flush(listingId, topic), windowMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+    }
+
+    private void flush(Long listingId, Topic topic) {
+        BidEventFrame frame;
+        synchronized (topic) {
+            topic.flushed = true;
+            topics.remove(listingId, topic);
+            long seq = 0;
+            for (BidEvent event : topic.pending.values()) {
+                seq = Math.max(seq, event.getSeq());
+            }
+            frame = new BidEventFrame(listingId, seq, new ArrayList<>(topic.pending.values()));
+        }
+
+        // Only the single scheduler thread sends, so frames from this instance go out in order
+        try {
+            messagingTemplate.convertAndSend("/topic/bids/" + listingId, frame);
+            framesSent.increment();
+        } catch (RuntimeException e) {
+            // The bids' next change, or a reload of the snapshot, brings subscribers up to date
+            sendFailures.increment();
+            logger.warn("Failed to send bid frame {} for listing ID: {}", frame.getSeq(), listingId, e);
+        }
+    }
+
+    /**
+     * Current active bids on a listing with the listing version they include. Frames with a
+     * higher number may repeat changes already in the snapshot; each carries full bid state, so
+     * applying them again is harmless.
+     *
+     * @param listingId The listing
+     * @return The listing's active bids, highest first
+     */
+    public BidEventFrame snapshot(Long listingId) {
+        // Read the version before the bids, so nothing committed after it is missing from later frames
+        long seq = listingRepository.findVersionById(listingId).orElse(0L);
+        List<BidEvent> bids = new ArrayList<>();
+        for (BidBookEntry entry : listingBidBook.getActiveBids(listingId)) {
+            bids.add(new BidEvent(entry.getBidId(), entry.getProposedPrice(), entry.getStatus(), seq));
+        }
+        return new BidEventFrame(listingId, seq, bids);
+    }
+
+    /**
+     * Snapshot of stream volume and how much coalescing saved.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topics", topics.size());
+        stats.put("pendingFlushes", scheduler.getQueue().size());
+        stats.put("eventsPublished", eventsPublished.sum());
+        stats.put("eventsCoalesced", eventsCoalesced.sum());
+        stats.put("framesSent", framesSent.sum());
+        stats.put("sendFailures", sendFailures.sum());
+        return stats;
+    }
+
+    /**
+     * Not-yet-sent changes for one listing, keyed by bid ID so a bid that changes twice in a
+     * window is sent once. Dropped from the map when its window is flushed.
+     */
+    private static class Topic {
+        private final Map<Long, BidEvent> pending = new LinkedHashMap<>();
+        private boolean flushScheduled;
+        private boolean flushed;
+    }
+}
@@ -0,0 +1,163 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.model.User;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Tells the losing bidders of a closed listing that their bids were rejected. Work is handed to a
+ * single background worker once the closing transaction commits, so the accept path never holds
+ * row locks while notifications are written. Notifications are persisted in JDBC batches and then
+ * pushed to each buyer; callers put the rejected bids on the listing's bid stream themselves.
+ */
+@Service
+public class BidNotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BidNotificationDispatcher.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${marketplace.bid-notifications.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${marketplace.bid-notifications.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate newTransaction;
+
+    private final AtomicLong listingsDispatched = new AtomicLong();
+    private final AtomicLong listingsFailed = new AtomicLong();
+    private final AtomicLong notificationsWritten = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        // A full queue pushes the work back onto the caller rather than dropping notifications;
+        // the caller has already committed and released the listing lock by then.
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bid-notifications");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Bid notifications did not drain before shutdown; {} listings pending", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules rejection notifications for losing bids. If called inside a transaction the work
+     * is only submitted once that transaction commits and completes, so a rolled-back accept
+     * notifies nobody and the listing lock is released before any work runs on the caller.
+     *
+     * @param listingId The listing whose bidding closed
+     * @param rejectedBids The bids that were rejected
+     * @param message Builds the notification text for one rejected bid
+     */
+    public void dispatchRejections(Long listingId, List<BidBookEntry> rejectedBids,
+                                   Function<BidBookEntry, String> message) {
+        if (rejectedBids == null || rejectedBids.isEmpty()) {
+            return;
+        }
+        List<BidBookEntry> bids = new ArrayList<>(rejectedBids);
+        long enqueuedAt = System.currentTimeMillis();
+        TransactionHooks.afterCommitCompletion(() -> executor.execute(() -> run(listingId, bids, message, enqueuedAt)));
+    }
+
+    private void run(Long listingId, List<BidBookEntry> bids, Function<BidBookEntry, String> message, long enqueuedAt) {
+        try {
+            notifyLosers(bids, message);
+            listingsDispatched.incrementAndGet();
+        } catch (RuntimeException e) {
+            listingsFailed.incrementAndGet();
+            logger.error("Rejection notifications failed for listing ID: {}", listingId, e);
+        } finally {
+            long lag = System.currentTimeMillis() - enqueuedAt;
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    void notifyLosers(List<BidBookEntry> bids, Function<BidBookEntry, String> message) {
+        for (int from = 0; from < bids.size(); from += batchSize) {
+            List<BidBookEntry> chunk = bids.subList(from, Math.min(from + batchSize, bids.size()));
+
+            List<Notification> batch = new ArrayList<>(chunk.size());
+            for (BidBookEntry bid : chunk) {
+                User buyer = new User();
+                buyer.setUserId(bid.getBuyerId());
+                batch.add(new Notification(buyer, message.apply(bid), new Date(), false, NotificationType.BID));
+            }
+            notificationsWritten.addAndGet(insert(batch));
+
+            for (Notification notification : batch) {
+                messagingTemplate.convertAndSend(
+                        "/queue/notifications/" + notification.getUser().getUserId(), notification);
+            }
+        }
+    }
+
+    private int insert(List<Notification> batch) {
+        // On the caller's thread the committed transaction is still bound; joining it would lose the rows.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Integer written = newTransaction.execute(status -> notificationRepository.insertAll(batch));
+            return written == null ? 0 : written;
+        }
+        return notificationRepository.insertAll(batch);
+    }
+
+    /**
+     * Snapshot of queue depth, throughput and lag for the rejection worker.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("inFlight", executor.getActiveCount());
+        stats.put("listingsDispatched", listingsDispatched.get());
+        stats.put("listingsFailed", listingsFailed.get());
+        stats.put("notificationsWritten", notificationsWritten.get());
+        stats.put("lastLagMillis", lastLagMillis.get());
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+}
@@ -1,5 +1,7 @@
 package com.dalhousie.dalhousie_marketplace_backend.service;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidEventFrame;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
 import com.dalhousie.dalhousie_marketplace_backend.repository.BidRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
@@ -7,19 +9,20 @@ import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.OrderRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.OrderItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 
 /**
  * Service for managing bids on listings.
+ * Bid mutations run through {@link ListingBidLocks}: one at a time per listing, each in its own transaction.
  */
 @Service
 public class BidService {
@@ -43,7 +46,25 @@ public class BidService {
     private NotificationService notificationService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private BidEventStream bidEventStream;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private ListingBidBook listingBidBook;
+
+    @Autowired
+    private BidNotificationDispatcher bidNotificationDispatcher;
+
+    @Autowired
+    private ListingBidLocks listingBidLocks;
+
+    @Value("${marketplace.bids.proxy-increment:1.0}")
+    private double proxyIncrement = 1.0;
 
     /**
      * Creates a new bid on a listing.
@@ -55,16 +76,47 @@ public class BidService {
      * @return The created bid
      * @throws RuntimeException if validation fails
      */
-    @Transactional
     public Bid createBid(Long listingId, Long buyerId, Double proposedPrice, String additionalTerms) {
-        // Validate listing exists and allows bidding
-        Listing listing = listingRepository.findById(listingId)
+        return createBid(listingId, buyerId, proposedPrice, additionalTerms, null);
+    }
+
+    /**
+     * Creates a new bid on a listing, optionally as a proxy bid. A proxy bid carries the most the
+     * buyer will pay; the bid is placed at the lowest price that beats the strongest competing bid,
+     * and a competing proxy is raised as far as its own maximum allows. Both are settled in one
+     * pass, so neither buyer has to re-bid by hand.
+     *
+     * @param listingId The ID of the listing to bid on
+     * @param buyerId The ID of the buyer making the bid
+     * @param proposedPrice The opening price proposed by the buyer
+     * @param additionalTerms Any additional terms for the bid (optional)
+     * @param maxPrice The most the buyer will pay, or null for a fixed-price bid
+     * @return The created bid, at the price it settled on
+     * @throws RuntimeException if validation fails
+     */
+    public Bid createBid(Long listingId, Long buyerId, Double proposedPrice, String additionalTerms, Double maxPrice) {
+        return listingBidLocks.execute(listingId,
+                () -> placeBid(listingId, buyerId, proposedPrice, additionalTerms, maxPrice));
+    }
+
+    private Bid placeBid(Long listingId, Long buyerId, Double proposedPrice, String additionalTerms, Double maxPrice) {
+        // Validate listing exists and allows bidding; loading it for bidding bumps its version,
+        // so a bid racing a close on another instance fails instead of landing on a closed listing
+        Listing listing = listingRepository.findForBiddingById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found"));
 
         if (!listing.getBiddingAllowed()) {
             throw new RuntimeException("This listing does not allow bidding");
         }
 
+        if (listing.getStatus() != Listing.ListingStatus.ACTIVE) {
+            throw new RuntimeException("This listing is no longer open for bidding");
+        }
+
+        if (listing.getAuctionEndsAt() != null && !listing.getAuctionEndsAt().after(new Date())) {
+            throw new RuntimeException("Bidding on this listing has ended");
+        }
+
         // Validate buyer exists and is not the seller
         User buyer = userRepository.findById(buyerId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -78,31 +130,112 @@ public class BidService {
             throw new IllegalArgumentException("Bid must be at least the starting price of $" + listing.getStartingBid());
         }
 
+        if (maxPrice != null && maxPrice < proposedPrice) {
+            throw new IllegalArgumentException("Maximum bid must be at least the proposed price");
+        }
+
+        // Settle against the strongest competing bid; only the new bid and, at most,
+        // the one rival proxy it pushes up are written
+        double ceiling = maxPrice != null ? maxPrice : proposedPrice;
+        double price = proposedPrice;
+        Double raisedRivalPrice = null;
+        boolean outbid = false;
+        BidBookEntry rival = strongestRival(listingId, buyerId);
+        if (rival != null) {
+            double rivalCeiling = ceilingOf(rival);
+            if (ceiling > rivalCeiling) {
+                price = Math.max(proposedPrice, Math.min(ceiling, rivalCeiling + proxyIncrement));
+                raisedRivalPrice = rivalCeiling;
+            } else {
+                // Ties go to the earlier bid
+                price = ceiling;
+                raisedRivalPrice = Math.min(rivalCeiling, ceiling + proxyIncrement);
+                outbid = true;
+            }
+            if (raisedRivalPrice <= rival.getProposedPrice()) {
+                raisedRivalPrice = null;
+            }
+        }
+
         // Create and save the bid
         Bid bid = new Bid();
         bid.setListing(listing);
         bid.setBuyer(buyer);
-        bid.setProposedPrice(proposedPrice);
+        bid.setProposedPrice(roundToCents(price));
+        bid.setMaxPrice(maxPrice);
         bid.setAdditionalTerms(additionalTerms);
         bid.setStatus(BidStatus.PENDING);
 
         Bid savedBid = bidRepository.save(bid);
+        listingBidBook.record(savedBid);
 
         // Notify the seller of the new bid
         notificationService.sendNotification(
                 listing.getSeller(),
                 NotificationType.BID,
-                "New bid of $" + proposedPrice + " received for your listing: " + listing.getTitle()
+                "New bid of $" + savedBid.getProposedPrice() + " received for your listing: " + listing.getTitle()
         );
 
-        // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/bids/" + listingId, savedBid);
+        // Stream the change to the listing's subscribers
+        bidEventStream.publish(savedBid);
+
+        if (raisedRivalPrice != null) {
+            raiseProxyBid(rival.getBidId(), roundToCents(raisedRivalPrice));
+        }
+
+        if (outbid) {
+            notificationService.sendNotification(
+                    buyer,
+                    NotificationType.BID,
+                    "Your bid of $" + savedBid.getProposedPrice() + " for " + listing.getTitle() +
+                            " was immediately outbid by another buyer's maximum bid."
+            );
+        }
 
         return savedBid;
     }
 
     /**
-     * Updates the status of a bid (accept, reject, etc.).
+     * Finds the pending bid from another buyer with the highest ceiling (its proxy maximum, or its
+     * price for a fixed bid). The earlier bid wins a tie. Read from the database under the listing
+     * lock, since bids placed through another instance never reach this instance's bid book.
+     */
+    private BidBookEntry strongestRival(Long listingId, Long buyerId) {
+        List<BidBookEntry> rivals = bidRepository.findStrongestRivals(listingId, buyerId, PageRequest.of(0, 1));
+        return rivals.isEmpty() ? null : rivals.get(0);
+    }
+
+    private static double ceilingOf(BidBookEntry entry) {
+        return entry.getMaxPrice() != null ? entry.getMaxPrice() : entry.getProposedPrice();
+    }
+
+    private void raiseProxyBid(Long bidId, double price) {
+        Bid rivalBid = bidRepository.findById(bidId).orElse(null);
+        if (rivalBid == null || rivalBid.getStatus() != BidStatus.PENDING) {
+            return;
+        }
+        rivalBid.setProposedPrice(price);
+        Bid savedRival = bidRepository.save(rivalBid);
+        listingBidBook.record(savedRival);
+        bidEventStream.publish(savedRival);
+    }
+
+    /**
+     * Loads a listing so its version is bumped when the bid mutation commits. Mutations through
+     * another instance then conflict, and the bid stream numbers the change with the new version.
+     */
+    private Listing loadForBidding(Long listingId) {
+        return listingRepository.findForBiddingById(listingId)
+                .orElseThrow(() -> new RuntimeException("Listing not found"));
+    }
+
+    private static double roundToCents(double price) {
+        return Math.round(price * 100) / 100.0;
+    }
+
+    /**
+     * Updates the status of a bid (accept, reject, etc.). Accepting goes through the same path as
+     * {@link #acceptSingleBid(Long, Long)}, so it closes the listing and rejects the other bids.
      *
      * @param bidId The ID of the bid to update
      * @param userId The ID of the user trying to update the bid
@@ -110,8 +243,13 @@ public class BidService {
      * @return The updated bid
      * @throws RuntimeException if validation fails
      */
-    @Transactional
     public Bid updateBidStatus(Long bidId, Long userId, BidStatus newStatus) {
+        Long listingId = bidRepository.findListingIdById(bidId)
+                .orElseThrow(() -> new RuntimeException("Bid not found"));
+        return listingBidLocks.execute(listingId, () -> applyBidStatus(bidId, userId, newStatus));
+    }
+
+    private Bid applyBidStatus(Long bidId, Long userId, BidStatus newStatus) {
         // Find the bid
         Bid bid = bidRepository.findById(bidId)
                 .orElseThrow(() -> new RuntimeException("Bid not found"));
@@ -121,16 +259,20 @@ public class BidService {
             throw new RuntimeException("Only the seller can update bid status");
         }
 
+        if (newStatus == BidStatus.ACCEPTED) {
+            return acceptBid(bidId, userId);
+        }
+        loadForBidding(bid.getListing().getId());
+
         // Update the bid status
         bid.setStatus(newStatus);
 
         Bid updatedBid = bidRepository.save(bid);
+        listingBidBook.record(updatedBid);
 
         // Prepare notification message based on the status
         String message;
-        if (newStatus == BidStatus.ACCEPTED) {
-            message = "Your bid of $" + bid.getProposedPrice() + " for " + bid.getListing().getTitle() + " was accepted!";
-        } else if (newStatus == BidStatus.REJECTED) {
+        if (newStatus == BidStatus.REJECTED) {
             message = "Your bid of $" + bid.getProposedPrice() + " for " + bid.getListing().getTitle() + " was rejected.";
         } else {
             message = "The status of your bid for " + bid.getListing().getTitle() + " has been updated to " + newStatus;
@@ -143,8 +285,8 @@ public class BidService {
                 message
         );
 
-        // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/bids/" + bid.getListing().getId(), updatedBid);
+        // Stream the change to the listing's subscribers
+        bidEventStream.publish(updatedBid);
 
         return updatedBid;
     }
@@ -158,8 +300,13 @@ public class BidService {
      * @return The accepted bid
      * @throws RuntimeException if validation fails
      */
-    @Transactional
     public Bid acceptSingleBid(Long bidId, Long sellerId) {
+        Long listingId = bidRepository.findListingIdById(bidId)
+                .orElseThrow(() -> new RuntimeException("Bid not found"));
+        return listingBidLocks.execute(listingId, () -> acceptBid(bidId, sellerId));
+    }
+
+    private Bid acceptBid(Long bidId, Long sellerId) {
         // Find the bid
         Bid bid = bidRepository.findById(bidId)
                 .orElseThrow(() -> new RuntimeException("Bid not found"));
@@ -177,45 +324,30 @@ public class BidService {
         // Get the listing ID to find other bids
         Long listingId = bid.getListing().getId();
 
+        Listing listing = loadForBidding(listingId);
+        if (listing.getStatus() != Listing.ListingStatus.ACTIVE) {
+            throw new RuntimeException("This listing is no longer open for bidding");
+        }
+
         // Accept this bid and update its status
         bid.setStatus(BidStatus.ACCEPTED);
         Bid acceptedBid = bidRepository.save(bid);
 
-        // Get all other pending bids for this listing
-        List<Bid> otherPendingBids = bidRepository.findByListingIdAndStatus(listingId, BidStatus.PENDING);
-
-        // Get all other countered bids for this listing
-        List<Bid> otherCounteredBids = bidRepository.findByListingIdAndStatus(listingId, BidStatus.COUNTERED);
-
-        // Combine the lists
-        List<Bid> allOtherActiveBids = new ArrayList<>();
-        allOtherActiveBids.addAll(otherPendingBids);
-        allOtherActiveBids.addAll(otherCounteredBids);
-
-        // Remove the accepted bid from the list if it's somehow present
-        allOtherActiveBids.removeIf(b -> b.getId().equals(bidId));
-
-        // Reject all other bids
-        for (Bid otherBid : allOtherActiveBids) {
-            otherBid.setStatus(BidStatus.REJECTED);
-            bidRepository.save(otherBid);
-
-            // Notify each rejected bidder
-            notificationService.sendNotification(
-                    otherBid.getBuyer(),
-                    NotificationType.BID,
-                    "Your bid of $" + otherBid.getProposedPrice() + " for " +
-                            bid.getListing().getTitle() + " was not selected."
-            );
-
-            // Send real-time update via WebSocket for each rejected bid
-            messagingTemplate.convertAndSend("/topic/bids/" + listingId, otherBid);
-        }
+        // Reject all other pending and countered bids in one statement; the losers are
+        // notified in batches once this transaction commits
+        String title = listing.getTitle();
+        List<BidBookEntry> rejectedBids = bidRepository.rejectActiveBidsExcept(listingId, bidId);
+        bidNotificationDispatcher.dispatchRejections(listingId, rejectedBids,
+                rejected -> "Your bid of $" + rejected.getProposedPrice() + " for " + title + " was not selected.");
+        bidEventStream.publish(listing, rejectedBids);
 
         // Update listing status to INACTIVE to prevent further bids
-        Listing listing = bid.getListing();
         listing.setStatus(Listing.ListingStatus.INACTIVE);
+        listing.setAuctionEndsAt(null);
         listingRepository.save(listing);
+        listingSearchIndex.update(listing);
+        listingDetailCache.invalidate(listing.getId());
+        listingBidBook.close(listingId);
 
         // Create order for the accepted bid
         Order order = new Order();
@@ -258,8 +390,8 @@ public class BidService {
                 "You've accepted a bid of $" + bid.getProposedPrice() + " for your listing: " + listing.getTitle()
         );
 
-        // Send real-time update via WebSocket for the accepted bid
-        messagingTemplate.convertAndSend("/topic/bids/" + listingId, acceptedBid);
+        // Stream the accepted bid to the listing's subscribers
+        bidEventStream.publish(acceptedBid);
 
         return acceptedBid;
     }
@@ -305,8 +437,14 @@ public class BidService {
      * @return The new counter bid
      * @throws RuntimeException if validation fails
      */
-    @Transactional
     public Bid counterBid(Long originalBidId, Long sellerId, Double counterPrice, String counterTerms) {
+        Long listingId = bidRepository.findListingIdById(originalBidId)
+                .orElseThrow(() -> new RuntimeException("Original bid not found"));
+        return listingBidLocks.execute(listingId,
+                () -> placeCounterBid(originalBidId, sellerId, counterPrice, counterTerms));
+    }
+
+    private Bid placeCounterBid(Long originalBidId, Long sellerId, Double counterPrice, String counterTerms) {
         // Find the original bid
         Bid originalBid = bidRepository.findById(originalBidId)
                 .orElseThrow(() -> new RuntimeException("Original bid not found"));
@@ -315,10 +453,12 @@ public class BidService {
         if (!originalBid.getListing().getSeller().getUserId().equals(sellerId)) {
             throw new RuntimeException("Only the seller can create counter offers");
         }
+        loadForBidding(originalBid.getListing().getId());
 
         // Mark the original bid as countered
         originalBid.setStatus(BidStatus.COUNTERED);
         bidRepository.save(originalBid);
+        listingBidBook.record(originalBid);
 
         // Create new counter bid with the same relationship to listing and buyer
         Bid counterBid = new Bid();
@@ -329,6 +469,7 @@ public class BidService {
         counterBid.setStatus(BidStatus.COUNTERED);
 
         Bid savedCounterBid = bidRepository.save(counterBid);
+        listingBidBook.record(savedCounterBid);
 
         // Notify the buyer
         notificationService.sendNotification(
@@ -338,8 +479,9 @@ public class BidService {
                         counterPrice + " for " + originalBid.getListing().getTitle()
         );
 
-        // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/bids/" + originalBid.getListing().getId(), savedCounterBid);
+        // Stream both changes to the listing's subscribers; they go out in the same frame
+        bidEventStream.publish(originalBid);
+        bidEventStream.publish(savedCounterBid);
 
         return savedCounterBid;
     }
@@ -351,8 +493,29 @@ public class BidService {
      * @return Count of active bids
      */
     public int getActiveBidCount(Long listingId) {
-        List<BidStatus> activeStatuses = Arrays.asList(BidStatus.PENDING, BidStatus.COUNTERED);
-        return bidRepository.countByListingIdAndStatusIn(listingId, activeStatuses);
+        return listingBidBook.getActiveCount(listingId);
+    }
+
+    /**
+     * Gets the highest active bids for a listing from the in-memory bid book.
+     *
+     * @param listingId The ID of the listing
+     * @param limit Maximum number of bids to return
+     * @return Active bids, highest first
+     */
+    public List<BidBookEntry> getTopBids(Long listingId, int limit) {
+        return listingBidBook.getTopBids(listingId, limit);
+    }
+
+    /**
+     * Gets the active bids for a listing with the bid stream sequence number they are current up to,
+     * for subscribers resyncing after a missed frame.
+     *
+     * @param listingId The ID of the listing
+     * @return Active bids, highest first
+     */
+    public BidEventFrame getBidSnapshot(Long listingId) {
+        return bidEventStream.snapshot(listingId);
     }
 
     /**
@@ -374,8 +537,11 @@ public class BidService {
      * @return The winning bid
      * @throws RuntimeException if no bids or unauthorized access
      */
-    @Transactional
     public Bid finalizeBidding(Long listingId, Long sellerId) {
+        return listingBidLocks.execute(listingId, () -> closeBidding(listingId, sellerId));
+    }
+
+    private Bid closeBidding(Long listingId, Long sellerId) {
         // Get the listing
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found"));
@@ -385,34 +551,103 @@ public class BidService {
             throw new RuntimeException("Only the seller can finalize bidding");
         }
 
-        // Get all pending bids sorted by price (highest first)
-        List<Bid> pendingBids = bidRepository.findByListingIdAndStatusOrderByProposedPriceDesc(listingId, BidStatus.PENDING);
+        if (listing.getStatus() != Listing.ListingStatus.ACTIVE) {
+            throw new RuntimeException("This listing is no longer open for bidding");
+        }
 
-        if (pendingBids.isEmpty()) {
+        Bid winningBid = awardHighestBid(listing);
+        if (winningBid == null) {
             throw new RuntimeException("No pending bids to finalize");
         }
+        return winningBid;
+    }
+
+    /**
+     * Closes a timed auction whose end time has passed. The highest pending bid wins exactly as
+     * in {@link #finalizeBidding}; with no pending bids, bidding is switched off and the listing
+     * stays for sale at its price. Auctions that already closed or are not due yet are left alone,
+     * so calling this more than once for the same auction is safe.
+     *
+     * @param listingId The ID of the listing
+     * @return The winning bid, or null if nothing was awarded
+     */
+    public Bid closeExpiredAuction(Long listingId) {
+        return listingBidLocks.execute(listingId, () -> closeAuction(listingId));
+    }
+
+    private Bid closeAuction(Long listingId) {
+        Listing listing = listingRepository.findById(listingId).orElse(null);
+        if (listing == null || listing.getStatus() != Listing.ListingStatus.ACTIVE
+                || listing.getAuctionEndsAt() == null || listing.getAuctionEndsAt().after(new Date())) {
+            return null;
+        }
+
+        Bid winningBid = awardHighestBid(listing);
+        if (winningBid != null) {
+            return winningBid;
+        }
+
+        // No pending bids: reject any open counter offers (bid IDs start at 1, so 0 keeps none)
+        String title = listing.getTitle();
+        List<BidBookEntry> rejectedBids = bidRepository.rejectActiveBidsExcept(listingId, 0L);
+        bidNotificationDispatcher.dispatchRejections(listingId, rejectedBids,
+                rejected -> "The auction for " + title + " ended without your offer of $" +
+                        rejected.getProposedPrice() + " being accepted.");
+        bidEventStream.publish(listing, rejectedBids);
+
+        listing.setBiddingAllowed(false);
+        listing.setAuctionEndsAt(null);
+        listingRepository.save(listing);
+        listingSearchIndex.update(listing);
+        listingDetailCache.invalidate(listingId);
+        listingBidBook.close(listingId);
+
+        notificationService.sendNotification(
+                listing.getSeller(),
+                NotificationType.BID,
+                "Your auction for " + title + " ended without a winning bid. It remains listed at $" +
+                        listing.getPrice() + "."
+        );
+        return null;
+    }
+
+    /**
+     * Accepts the highest pending bid on a listing, rejects the rest, closes the listing and
+     * creates the winner's order. Must run inside the listing's bid lock and a transaction.
+     *
+     * @return The winning bid, or null (with nothing changed) if there are no pending bids
+     */
+    private Bid awardHighestBid(Listing listing) {
+        Long listingId = listing.getId();
+
+        // Select the highest pending bid as winner from the database rather than the bid book,
+        // which only sees bids placed through this instance
+        List<Bid> highest = bidRepository.findHighestPending(listingId, PageRequest.of(0, 1));
+        Bid winningBid = highest.isEmpty() ? null : highest.get(0);
+
+        if (winningBid == null) {
+            return null;
+        }
 
-        // Select the highest bid as winner
-        Bid winningBid = pendingBids.get(0);
         winningBid.setStatus(BidStatus.ACCEPTED);
         bidRepository.save(winningBid);
+        bidEventStream.publish(winningBid);
 
-        // Reject all other bids - make sure we process and save EACH bid individually
-        for (int i = 1; i < pendingBids.size(); i++) {
-            Bid otherBid = pendingBids.get(i);
-            otherBid.setStatus(BidStatus.REJECTED);
-            bidRepository.save(otherBid);
-            // Notify losing bidders
-            notificationService.sendNotification(
-                    otherBid.getBuyer(),
-                    NotificationType.BID,
-                    "Your bid of $" + otherBid.getProposedPrice() + " for " +
-                            listing.getTitle() + " was not selected as the winning bid."
-            );
-        }
+        // Reject all other pending and countered bids in one statement; the losers are
+        // notified in batches once this transaction commits
+        String title = listing.getTitle();
+        List<BidBookEntry> rejectedBids = bidRepository.rejectActiveBidsExcept(listingId, winningBid.getId());
+        bidNotificationDispatcher.dispatchRejections(listingId, rejectedBids,
+                rejected -> "Your bid of $" + rejected.getProposedPrice() + " for " + title +
+                        " was not selected as the winning bid.");
+        bidEventStream.publish(listing, rejectedBids);
 
         listing.setStatus(Listing.ListingStatus.INACTIVE);
+        listing.setAuctionEndsAt(null);
         listingRepository.save(listing);
+        listingSearchIndex.update(listing);
+        listingDetailCache.invalidate(listing.getId());
+        listingBidBook.close(listingId);
 
         // Create order automatically after bid acceptance
         Order order = new Order();
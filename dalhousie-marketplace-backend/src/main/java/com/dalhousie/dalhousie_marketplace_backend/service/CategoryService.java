@@ -2,17 +2,139 @@ package com.dalhousie.dalhousie_marketplace_backend.service;
 
 import com.dalhousie.dalhousie_marketplace_backend.model.Category;
 import com.dalhousie.dalhousie_marketplace_backend.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Registry of listing categories. The table is read once into an immutable snapshot that answers
+ * every lookup; the snapshot is dropped whenever a Category is written through JPA (see
+ * {@link com.dalhousie.dalhousie_marketplace_backend.model.CategoryChangeListener}) and is
+ * re-read periodically to pick up rows changed directly in the database.
+ */
 @Service
 public class CategoryService {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
+
     @Autowired
     private CategoryRepository categoryRepository;
 
+    private volatile CategorySnapshot snapshot;
 
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return getSnapshot().getCategories();
+    }
+
+    /**
+     * Resolves a category from the registry. A miss is checked against the database once, in case
+     * the category was added since the snapshot was taken.
+     *
+     * @param id Category ID
+     * @return The category, if it exists
+     */
+    public Optional<Category> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Category category = getSnapshot().byId.get(id);
+        if (category != null) {
+            return Optional.of(category);
+        }
+
+        Optional<Category> stored = categoryRepository.findById(id);
+        if (stored.isPresent()) {
+            refresh();
+        }
+        return stored;
+    }
+
+    /**
+     * The current snapshot, loading it on first use.
+     */
+    public CategorySnapshot getSnapshot() {
+        CategorySnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Discards the snapshot; the next lookup reloads it.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Re-reads the table and swaps in a new snapshot.
+     */
+    @Scheduled(fixedDelayString = "${marketplace.categories.refresh-interval-ms:300000}",
+            initialDelayString = "${marketplace.categories.refresh-interval-ms:300000}")
+    public void refresh() {
+        CategorySnapshot loaded = load();
+        synchronized (this) {
+            CategorySnapshot previous = snapshot;
+            if (previous == null || !previous.getETag().equals(loaded.getETag())) {
+                logger.info("Loaded {} categories", loaded.getCategories().size());
+            }
+            snapshot = loaded;
+        }
+    }
+
+    private CategorySnapshot load() {
+        List<Category> categories = new ArrayList<>();
+        for (Category stored : categoryRepository.findAll()) {
+            // Detached copies, so callers can't modify the registry through a managed entity
+            Category copy = new Category();
+            copy.setId(stored.getId());
+            copy.setName(stored.getName());
+            categories.add(copy);
+        }
+        categories.sort(Comparator.comparing(Category::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new CategorySnapshot(categories);
+    }
+
+    /**
+     * Immutable view of all categories with an ETag that changes whenever any ID or name changes.
+     */
+    public static class CategorySnapshot {
+        private final List<Category> categories;
+        private final Map<Long, Category> byId;
+        private final String eTag;
+
+        CategorySnapshot(List<Category> categories) {
+            this.categories = List.copyOf(categories);
+            Map<Long, Category> index = new HashMap<>();
+            StringBuilder fingerprint = new StringBuilder();
+            for (Category category : categories) {
+                if (category.getId() != null) {
+                    index.put(category.getId(), category);
+                }
+                fingerprint.append(category.getId()).append('\u0000').append(category.getName()).append('\n');
+            }
+            this.byId = Map.copyOf(index);
+            this.eTag = "\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+
+        public List<Category> getCategories() {
+            return categories;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
     }
 }
@@ -0,0 +1,53 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content-addressed storage for listing image bytes. Content is keyed by the lower-case
+ * hex SHA-256 of its bytes, so storing the same image twice keeps a single copy.
+ */
+public interface ImageStorageService {
+
+    /**
+     * Streams content into the store.
+     *
+     * @param content Image bytes; the stream is fully consumed but not closed
+     * @return The content hash and the number of bytes stored
+     * @throws IOException if the content cannot be written
+     */
+    StoredImage store(InputStream content) throws IOException;
+
+    /**
+     * Opens stored content for reading.
+     *
+     * @param contentHash Hash returned by {@link #store(InputStream)}
+     * @return A readable resource for the content
+     * @throws IOException if no content is stored under the hash
+     */
+    Resource load(String contentHash) throws IOException;
+
+    /**
+     * @param contentHash Hash returned by {@link #store(InputStream)}
+     * @return true if content is stored under the hash
+     */
+    boolean exists(String contentHash);
+
+    /**
+     * Result of a store operation.
+     */
+    class StoredImage {
+        private final String contentHash;
+        private final long size;
+
+        public StoredImage(String contentHash, long size) {
+            this.contentHash = contentHash;
+            this.size = size;
+        }
+
+        public String getContentHash() { return contentHash; }
+        public long getSize() { return size; }
+    }
+}
@@ -0,0 +1,364 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata;
+import com.dalhousie.dalhousie_marketplace_backend.model.ListingImageVariant;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageVariantRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Generates fixed-width JPEG variants of uploaded listing images so listing grids can download
+ * thumbnails instead of originals. Work runs on a bounded worker pool. When the queue is full an
+ * upload is not slowed down: its image is left without variants, and a periodic backfill pass picks
+ * up stored images that have none yet.
+ */
+@Service
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    static final String VARIANT_TYPE = "image/jpeg";
+
+    // Guards against decompression bombs; a 10MB upload can otherwise decode to gigabytes of pixels.
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+
+    private static final int BACKFILL_PAGE_SIZE = 100;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ListingImageVariantRepository variantRepository;
+
+    @Autowired
+    private ListingImageRepository listingImageRepository;
+
+    @Value("${marketplace.images.variant-widths:160,480,1080}")
+    private int[] variantWidths = {160, 480, 1080};
+
+    @Value("${marketplace.images.variant-quality:0.8}")
+    private float variantQuality = 0.8f;
+
+    @Value("${marketplace.images.variant-workers:2}")
+    private int workers = 2;
+
+    @Value("${marketplace.images.variant-queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    private ThreadPoolExecutor executor;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Images that could not be decoded or failed; the backfill pass skips them until restart
+    private final Set<Long> unprocessable = ConcurrentHashMap.newKeySet();
+    private final AtomicLong imagesQueued = new AtomicLong();
+    private final AtomicLong imagesDeferred = new AtomicLong();
+    private final AtomicLong imagesBackfilled = new AtomicLong();
+    private final AtomicLong imagesProcessed = new AtomicLong();
+    private final AtomicLong imagesFailed = new AtomicLong();
+    private final AtomicLong variantsGenerated = new AtomicLong();
+    private final AtomicLong processingMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        ImageIO.setUseCache(false);
+        AtomicLong threadCount = new AtomicLong();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Image variant generation did not drain before shutdown; {} images pending", inFlight.size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules variant generation for a stored image. If called inside a transaction the work is
+     * only submitted once that transaction commits.
+     *
+     * @param imageId ID of the saved listing image
+     * @param contentHash Content hash of the original in the image store
+     */
+    public void scheduleVariants(Long imageId, String contentHash) {
+        if (imageId == null || contentHash == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> submit(imageId, contentHash));
+    }
+
+    private boolean submit(Long imageId, String contentHash) {
+        if (!inFlight.add(imageId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> run(imageId, contentHash));
+            imagesQueued.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageId);
+            if (executor.isShutdown()) {
+                logger.warn("Image variant generation is shut down; skipping image ID: {}", imageId);
+            } else {
+                imagesDeferred.incrementAndGet();
+                logger.debug("Image variant queue is full; leaving image ID {} to the backfill pass", imageId);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Queues variant generation for stored images that have no variants yet, until the worker
+     * queue is full. Runs on the scheduler thread but only submits work, so it returns quickly;
+     * images that don't fit are picked up by the next pass.
+     *
+     * @return Number of images queued
+     */
+    @Scheduled(fixedDelayString = "${marketplace.images.variant-backfill-interval-ms:600000}",
+            initialDelayString = "${marketplace.images.variant-backfill-interval-ms:600000}")
+    public synchronized int backfillVariants() {
+        int queued = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<ListingImageMetadata> images = listingImageRepository.findImagesWithoutVariantsAfter(
+                    afterId, PageRequest.of(0, BACKFILL_PAGE_SIZE));
+            for (ListingImageMetadata image : images) {
+                if (executor.getQueue().remainingCapacity() == 0) {
+                    imagesBackfilled.addAndGet(queued);
+                    return queued;
+                }
+                if (!unprocessable.contains(image.getId()) && submit(image.getId(), image.getContentHash())) {
+                    queued++;
+                }
+            }
+            if (images.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+            afterId = images.get(images.size() - 1).getId();
+        }
+        imagesBackfilled.addAndGet(queued);
+        return queued;
+    }
+
+    private void run(Long imageId, String contentHash) {
+        long started = System.currentTimeMillis();
+        try {
+            generateVariants(imageId, contentHash);
+            imagesProcessed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            unprocessable.add(imageId);
+            imagesFailed.incrementAndGet();
+            logger.error("Image variant generation failed for image ID: {}", imageId, e);
+        } finally {
+            inFlight.remove(imageId);
+            processingMillis.addAndGet(System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * Creates any configured variants the image does not have yet. Widths at or above the original
+     * collapse into one full-resolution re-encode, which is only kept if it is smaller than the original;
+     * otherwise a row pointing at the original is saved so later runs don't re-encode it again.
+     *
+     * @param imageId ID of the listing image
+     * @param contentHash Content hash of the original in the image store
+     * @return The variants created by this call
+     * @throws IOException if the original cannot be read or a variant cannot be stored
+     */
+    public List<ListingImageVariant> generateVariants(Long imageId, String contentHash) throws IOException {
+        Set<Integer> existingWidths = variantRepository.findByImageIdOrderByWidthAsc(imageId).stream()
+                .map(ListingImageVariant::getWidth)
+                .collect(Collectors.toSet());
+
+        Resource original = imageStorageService.load(contentHash);
+        BufferedImage source;
+        try (InputStream in = original.getInputStream()) {
+            source = readImage(in);
+        }
+        if (source == null) {
+            unprocessable.add(imageId);
+            logger.warn("Image ID {} is not in a format ImageIO can decode; no variants generated", imageId);
+            return Collections.emptyList();
+        }
+
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        SortedSet<Integer> targetWidths = new TreeSet<>();
+        for (int width : variantWidths) {
+            if (width > 0) {
+                targetWidths.add(Math.min(width, sourceWidth));
+            }
+        }
+
+        List<ListingImageVariant> created = new ArrayList<>();
+        for (int width : targetWidths) {
+            if (existingWidths.contains(width)) {
+                continue;
+            }
+            int height = Math.max(1, (int) Math.round((double) sourceHeight * width / sourceWidth));
+            byte[] encoded = encodeJpeg(scale(source, width, height));
+            if (width == sourceWidth && encoded.length >= original.contentLength()) {
+                long originalSize = original.contentLength();
+                listingImageRepository.findMetadataById(imageId).ifPresent(image -> created.add(variantRepository.save(
+                        new ListingImageVariant(imageId, width, height, contentHash, image.getImageType(), originalSize))));
+                continue;
+            }
+
+            ImageStorageService.StoredImage stored = imageStorageService.store(new ByteArrayInputStream(encoded));
+            created.add(variantRepository.save(new ListingImageVariant(
+                    imageId, width, height, stored.getContentHash(), VARIANT_TYPE, stored.getSize())));
+        }
+
+        variantsGenerated.addAndGet(created.size());
+        return created;
+    }
+
+    /**
+     * @param imageIds IDs of listing images
+     * @return Variants grouped by image ID, narrowest first
+     */
+    public Map<Long, List<ListingImageVariant>> getVariants(Collection<Long> imageIds) {
+        if (imageIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return variantRepository.findByImageIdInOrderByWidthAsc(imageIds).stream()
+                .collect(Collectors.groupingBy(ListingImageVariant::getImageId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Picks the narrowest variant at least as wide as requested.
+     *
+     * @param imageId ID of the listing image
+     * @param width Requested width in pixels
+     * @return The variant to serve, or empty if the original should be served
+     */
+    public Optional<ListingImageVariant> selectVariant(Long imageId, int width) {
+        return variantRepository.findByImageIdOrderByWidthAsc(imageId).stream()
+                .filter(variant -> variant.getWidth() >= width)
+                .findFirst();
+    }
+
+    private static BufferedImage readImage(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large to resize: " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscales in successive halvings before the final bilinear step, which avoids the aliasing
+     * a single large bilinear reduction produces.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = resize(current, currentWidth, currentHeight);
+        }
+        return resize(current, width, height);
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        // JPEG has no alpha channel, so transparent areas are flattened onto white.
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(variantQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Snapshot of queue depth and throughput for the variant worker pool.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long processed = imagesProcessed.get() + imagesFailed.get();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("imagesQueued", imagesQueued.get());
+        stats.put("imagesDeferred", imagesDeferred.get());
+        stats.put("imagesBackfilled", imagesBackfilled.get());
+        stats.put("imagesProcessed", imagesProcessed.get());
+        stats.put("imagesFailed", imagesFailed.get());
+        stats.put("variantsGenerated", variantsGenerated.get());
+        stats.put("averageProcessingMillis", processed > 0 ? processingMillis.get() / processed : 0L);
+        return stats;
+    }
+}
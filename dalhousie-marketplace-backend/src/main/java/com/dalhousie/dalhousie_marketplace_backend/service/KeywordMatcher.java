@@ -0,0 +1,342 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Matches listing text against every user's alert keywords in one pass. All distinct keywords are
+ * compiled into an Aho–Corasick automaton, so a scan costs O(text + matches) however many
+ * keywords and subscribers there are. Keywords and text are normalized the same way (see
+ * {@link #normalize(String)}) and matched as substrings, as the per-user check this replaces did.
+ * <p>
+ * Subscriptions change incrementally through {@link #setKeywords(Long, Collection)}. Adding a
+ * user to a keyword that already exists only updates its subscriber set; the automaton is
+ * recompiled, once, on the next scan after the set of distinct keywords changes. The full table
+ * is re-read periodically to pick up changes made by other instances.
+ */
+@Service
+public class KeywordMatcher {
+    private static final Logger logger = LoggerFactory.getLogger(KeywordMatcher.class);
+
+    @Autowired
+    private UserPreferencesRepository userPreferencesRepository;
+
+    // Normalized keyword -> users subscribed to it; replaced wholesale on reload
+    private volatile Map<String, Set<Long>> subscribers = new ConcurrentHashMap<>();
+    // Normalized keywords per user; guarded by this
+    private Map<Long, Set<String>> keywordsByUser = new HashMap<>();
+    private volatile Automaton automaton = Automaton.compile(List.of());
+    // The distinct keywords changed since the automaton was compiled
+    private volatile boolean stale;
+    private volatile boolean loaded;
+
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong matchedUsers = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile long lastBuildMillis;
+
+    /**
+     * Lower-cases letters and digits and collapses every run of other characters into a single
+     * space, so "USB-C" and "usb c" are the same keyword.
+     *
+     * @return The normalized text; empty if the text has no letters or digits
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Finds every user with a keyword that occurs in the text.
+     *
+     * @param text Text to scan, e.g. a listing's title and description
+     * @return For each interested user, every one of their keywords that matched (normalized)
+     */
+    public Map<Long, Set<String>> match(String text) {
+        Automaton current = compiled();
+        Map<String, Set<Long>> currentSubscribers = subscribers;
+        Map<Long, Set<String>> interested = new HashMap<>();
+        boolean[] seen = new boolean[current.patterns.length];
+
+        current.scan(normalize(text), pattern -> {
+            if (seen[pattern]) {
+                return;
+            }
+            seen[pattern] = true;
+            String keyword = current.patterns[pattern];
+            Set<Long> users = currentSubscribers.get(keyword);
+            if (users != null) {
+                for (Long userId : users) {
+                    interested.computeIfAbsent(userId, id -> new HashSet<>()).add(keyword);
+                }
+            }
+        });
+
+        scans.incrementAndGet();
+        matchedUsers.addAndGet(interested.size());
+        return interested;
+    }
+
+    /**
+     * Replaces one user's keywords. Call after the change is committed.
+     *
+     * @param userId The user
+     * @param keywords The user's complete keyword list; null or empty unsubscribes them
+     */
+    public synchronized void setKeywords(Long userId, Collection<String> keywords) {
+        Set<String> next = new HashSet<>();
+        if (keywords != null) {
+            for (String keyword : keywords) {
+                String normalized = normalize(keyword);
+                if (!normalized.isEmpty()) {
+                    next.add(normalized);
+                }
+            }
+        }
+        Set<String> previous = keywordsByUser.getOrDefault(userId, Set.of());
+
+        for (String keyword : previous) {
+            if (!next.contains(keyword)) {
+                Set<Long> users = subscribers.get(keyword);
+                if (users != null) {
+                    users.remove(userId);
+                    if (users.isEmpty()) {
+                        subscribers.remove(keyword);
+                        stale = true;
+                    }
+                }
+            }
+        }
+        for (String keyword : next) {
+            if (!previous.contains(keyword)) {
+                subscribers.computeIfAbsent(keyword, added -> {
+                    stale = true;
+                    return ConcurrentHashMap.newKeySet();
+                }).add(userId);
+            }
+        }
+
+        if (next.isEmpty()) {
+            keywordsByUser.remove(userId);
+        } else {
+            keywordsByUser.put(userId, next);
+        }
+        updates.incrementAndGet();
+    }
+
+    /**
+     * Re-reads every user's keywords and recompiles the automaton.
+     */
+    @Scheduled(fixedDelayString = "${marketplace.keywords.refresh-interval-ms:300000}",
+            initialDelayString = "${marketplace.keywords.refresh-interval-ms:300000}")
+    public synchronized void reload() {
+        Map<Long, Set<String>> byUser = new HashMap<>();
+        Map<String, Set<Long>> byKeyword = new ConcurrentHashMap<>();
+        for (Object[] row : userPreferencesRepository.findAllUserKeywords()) {
+            String keyword = normalize((String) row[1]);
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            Long userId = (Long) row[0];
+            byUser.computeIfAbsent(userId, id -> new HashSet<>()).add(keyword);
+            byKeyword.computeIfAbsent(keyword, k -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+
+        keywordsByUser = byUser;
+        subscribers = byKeyword;
+        rebuild();
+        loaded = true;
+        reloads.incrementAndGet();
+        logger.debug("Loaded {} keywords for {} users", byKeyword.size(), byUser.size());
+    }
+
+    private Automaton compiled() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    rebuild();
+                }
+            }
+        }
+        return automaton;
+    }
+
+    // Caller holds the lock
+    private void rebuild() {
+        long started = System.nanoTime();
+        automaton = Automaton.compile(subscribers.keySet());
+        stale = false;
+        lastBuildMillis = (System.nanoTime() - started) / 1_000_000;
+        rebuilds.incrementAndGet();
+    }
+
+    /**
+     * Snapshot of automaton size, rebuilds and scan throughput.
+     */
+    public Map<String, Object> getStats() {
+        Automaton current = automaton;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keywords", subscribers.size());
+        stats.put("states", current.fail.length);
+        stats.put("stale", stale);
+        stats.put("scans", scans.get());
+        stats.put("matchedUsers", matchedUsers.get());
+        stats.put("updates", updates.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("reloads", reloads.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    /**
+     * Immutable Aho–Corasick automaton over characters. Each state keeps its outgoing edges as a
+     * sorted label array searched by binary search, a failure link to the longest proper suffix
+     * that is also a state, and a dictionary link to the nearest suffix state that ends a pattern.
+     */
+    static final class Automaton {
+        final String[] patterns;
+        private final char[][] labels;
+        private final int[][] targets;
+        private final int[] fail;
+        // Index of the pattern ending at each state, or -1
+        private final int[] output;
+        // Nearest state on the failure chain that ends a pattern, or -1
+        private final int[] dictionary;
+
+        private Automaton(String[] patterns, char[][] labels, int[][] targets, int[] fail, int[] output, int[] dictionary) {
+            this.patterns = patterns;
+            this.labels = labels;
+            this.targets = targets;
+            this.fail = fail;
+            this.output = output;
+            this.dictionary = dictionary;
+        }
+
+        static Automaton compile(Collection<String> keywords) {
+            String[] patterns = keywords.stream().filter(k -> !k.isEmpty()).distinct().toArray(String[]::new);
+
+            List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            edges.add(new TreeMap<>());
+            ends.add(-1);
+            for (int p = 0; p < patterns.length; p++) {
+                int state = 0;
+                for (int i = 0; i < patterns[p].length(); i++) {
+                    Integer next = edges.get(state).get(patterns[p].charAt(i));
+                    if (next == null) {
+                        next = edges.size();
+                        edges.get(state).put(patterns[p].charAt(i), next);
+                        edges.add(new TreeMap<>());
+                        ends.add(-1);
+                    }
+                    state = next;
+                }
+                ends.set(state, p);
+            }
+
+            int size = edges.size();
+            char[][] labels = new char[size][];
+            int[][] targets = new int[size][];
+            int[] output = new int[size];
+            for (int state = 0; state < size; state++) {
+                TreeMap<Character, Integer> out = edges.get(state);
+                labels[state] = new char[out.size()];
+                targets[state] = new int[out.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : out.entrySet()) {
+                    labels[state][i] = edge.getKey();
+                    targets[state][i++] = edge.getValue();
+                }
+                output[state] = ends.get(state);
+            }
+
+            int[] fail = new int[size];
+            int[] dictionary = new int[size];
+            Automaton automaton = new Automaton(patterns, labels, targets, fail, output, dictionary);
+            dictionary[0] = -1;
+
+            // Breadth-first, so every state's failure target is finished before the state itself
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                dictionary[child] = -1;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (int i = 0; i < labels[state].length; i++) {
+                    char c = labels[state][i];
+                    int child = targets[state][i];
+                    int suffix = fail[state];
+                    while (suffix != 0 && automaton.step(suffix, c) < 0) {
+                        suffix = fail[suffix];
+                    }
+                    int next = automaton.step(suffix, c);
+                    fail[child] = next >= 0 ? next : 0;
+                    dictionary[child] = output[fail[child]] >= 0 ? fail[child] : dictionary[fail[child]];
+                    queue.add(child);
+                }
+            }
+            return automaton;
+        }
+
+        private int step(int state, char c) {
+            int i = Arrays.binarySearch(labels[state], c);
+            return i >= 0 ? targets[state][i] : -1;
+        }
+
+        /**
+         * Reports the index of every pattern occurrence in the text, in order of where it ends.
+         */
+        void scan(String text, IntConsumer onMatch) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int next = step(state, c);
+                while (next < 0 && state != 0) {
+                    state = fail[state];
+                    next = step(state, c);
+                }
+                state = next >= 0 ? next : 0;
+
+                for (int hit = output[state] >= 0 ? state : dictionary[state]; hit >= 0; hit = dictionary[hit]) {
+                    onMatch.accept(output[hit]);
+                }
+            }
+        }
+    }
+}
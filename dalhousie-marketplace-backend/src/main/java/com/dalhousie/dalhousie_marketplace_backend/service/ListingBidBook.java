@@ -0,0 +1,228 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.dalhousie.dalhousie_marketplace_backend.repository.BidRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory order book of the active (PENDING / COUNTERED) bids on each listing, kept sorted by
+ * price so the current high, the top N and the active count are answered without a query.
+ * A listing's book is loaded from the database the first time it is asked for; after that
+ * {@link #record(Bid)} applies each bid change once its transaction commits.
+ */
+@Service
+public class ListingBidBook {
+
+    static final List<BidStatus> ACTIVE_STATUSES = List.of(BidStatus.PENDING, BidStatus.COUNTERED);
+
+    // Highest price first; equal prices keep the earlier bid (lower ID) ahead.
+    static final Comparator<BidBookEntry> BY_PRICE = Comparator
+            .comparing(BidBookEntry::getProposedPrice, Comparator.reverseOrder())
+            .thenComparing(BidBookEntry::getBidId);
+
+    @Autowired
+    private BidRepository bidRepository;
+
+    @Value("${marketplace.bid-book.max-listings:10000}")
+    private int maxListings = 10000;
+
+    private final LinkedHashMap<Long, Book> books = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Book> eldest) {
+            if (size() > maxListings) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param listingId The listing
+     * @return Number of PENDING and COUNTERED bids on the listing
+     */
+    public int getActiveCount(Long listingId) {
+        return book(listingId).size();
+    }
+
+    /**
+     * @param listingId The listing
+     * @return The highest active bid, if there is one
+     */
+    public Optional<BidBookEntry> getHighest(Long listingId) {
+        List<BidBookEntry> top = book(listingId).top(1);
+        return top.isEmpty() ? Optional.empty() : Optional.of(top.get(0));
+    }
+
+    /**
+     * @param listingId The listing
+     * @param limit Maximum number of bids to return
+     * @return Active bids, highest first
+     */
+    public List<BidBookEntry> getTopBids(Long listingId, int limit) {
+        return book(listingId).top(limit);
+    }
+
+    /**
+     * @param listingId The listing
+     * @return Every active bid on the listing, highest first
+     */
+    public List<BidBookEntry> getActiveBids(Long listingId) {
+        return book(listingId).top(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reflects a created or changed bid in its listing's book once the surrounding transaction
+     * commits: active bids are inserted or repositioned, anything else is removed.
+     *
+     * @param bid The bid after it was saved
+     */
+    public void record(Bid bid) {
+        if (bid == null || bid.getId() == null || bid.getListing() == null || bid.getListing().getId() == null) {
+            return;
+        }
+        Long listingId = bid.getListing().getId();
+        BidBookEntry entry = new BidBookEntry(
+                bid.getId(),
+                bid.getBuyer() != null ? bid.getBuyer().getUserId() : null,
+                bid.getProposedPrice(),
+                bid.getStatus(),
+                bid.getMaxPrice());
+
+        TransactionHooks.afterCommit(() -> {
+            Book book;
+            synchronized (books) {
+                book = books.get(listingId);
+            }
+            if (book != null) {
+                book.apply(entry);
+                updates.increment();
+            }
+        });
+    }
+
+    /**
+     * Drops a listing's book after the current transaction commits, for listings whose bidding
+     * has closed. It is reloaded from the database if it is asked for again.
+     *
+     * @param listingId The listing
+     */
+    public void close(Long listingId) {
+        if (listingId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (books) {
+                books.remove(listingId);
+            }
+        });
+    }
+
+    private Book book(Long listingId) {
+        Book book;
+        synchronized (books) {
+            book = books.get(listingId);
+            if (book == null) {
+                book = new Book();
+                books.put(listingId, book);
+            }
+        }
+        book.ensureLoaded(listingId);
+        return book;
+    }
+
+    public int size() {
+        synchronized (books) {
+            return books.size();
+        }
+    }
+
+    /**
+     * Snapshot of book count, loads and applied updates.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("listings", size());
+        stats.put("maxListings", maxListings);
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("updates", updates.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Active bids for one listing. Changes that commit while the book is still unloaded are
+     * queued and replayed over the loaded rows; replaying a change the query already saw is
+     * harmless because each one carries the bid's full committed state.
+     */
+    private class Book {
+        private final TreeSet<BidBookEntry> byPrice = new TreeSet<>(BY_PRICE);
+        private final Map<Long, BidBookEntry> byId = new HashMap<>();
+        private final List<BidBookEntry> pending = new ArrayList<>();
+        private boolean loaded;
+
+        synchronized void ensureLoaded(Long listingId) {
+            if (loaded) {
+                hits.increment();
+                return;
+            }
+            loads.increment();
+            for (BidBookEntry entry : bidRepository.findBookEntries(listingId, ACTIVE_STATUSES)) {
+                put(entry);
+            }
+            for (BidBookEntry entry : pending) {
+                put(entry);
+            }
+            pending.clear();
+            loaded = true;
+        }
+
+        synchronized void apply(BidBookEntry entry) {
+            if (loaded) {
+                put(entry);
+            } else {
+                pending.add(entry);
+            }
+        }
+
+        private void put(BidBookEntry entry) {
+            BidBookEntry previous = byId.remove(entry.getBidId());
+            if (previous != null) {
+                byPrice.remove(previous);
+            }
+            if (ACTIVE_STATUSES.contains(entry.getStatus()) && entry.getProposedPrice() != null) {
+                byId.put(entry.getBidId(), entry);
+                byPrice.add(entry);
+            }
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+
+        synchronized List<BidBookEntry> top(int limit) {
+            List<BidBookEntry> top = new ArrayList<>(Math.max(0, Math.min(limit, byPrice.size())));
+            for (BidBookEntry entry : byPrice) {
+                if (top.size() >= limit) {
+                    break;
+                }
+                top.add(entry);
+            }
+            return top;
+        }
+    }
+}
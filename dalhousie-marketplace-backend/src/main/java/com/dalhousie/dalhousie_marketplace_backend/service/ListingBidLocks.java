@@ -0,0 +1,146 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes bid mutations per listing inside this JVM and retries them when an optimistic lock
+ * conflict shows another instance got there first. Listings hash onto a fixed set of lock
+ * stripes, so memory stays constant however many listings are open for bidding.
+ * Each attempt runs in its own transaction, and the lock is only released after it commits; work
+ * that joins a caller's transaction holds the lock until that transaction completes.
+ */
+@Service
+public class ListingBidLocks {
+    private static final Logger logger = LoggerFactory.getLogger(ListingBidLocks.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${marketplace.bid-locks.stripes:256}")
+    private int stripes = 256;
+
+    @Value("${marketplace.bid-locks.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${marketplace.bid-locks.wait-ms:5000}")
+    private long waitMillis = 5000;
+
+    private ReentrantLock[] locks;
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs a bid mutation while holding the listing's lock. Optimistic lock failures are retried
+     * with a fresh transaction up to the configured number of attempts. When a transaction is
+     * already active the work joins it and is not retried, since the outer transaction owns the
+     * commit; the lock is then held until that transaction commits or rolls back, so the next
+     * mutation on the listing reads the committed state. The version checks still catch a
+     * conflicting writer on another instance.
+     *
+     * @param listingId The listing whose bids are changing
+     * @param work The mutation; it must re-read everything it checks, since it may run more than once
+     * @return Whatever the work returns
+     * @throws RuntimeException if the lock cannot be acquired in time or every attempt conflicts
+     */
+    public <T> T execute(Long listingId, Supplier<T> work) {
+        ReentrantLock lock = lockFor(listingId);
+        executions.increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            acquire(lock, listingId);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                try {
+                    return work.get();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            // Callbacks run on this thread, which owns the lock
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            acquire(lock, listingId);
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    throw new RuntimeException("Bids on this listing changed concurrently, please try again", e);
+                }
+                logger.debug("Bid mutation on listing ID {} conflicted; retrying (attempt {})", listingId, attempt);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock, Long listingId) {
+        if (lock.tryLock()) {
+            return;
+        }
+        contended.increment();
+        try {
+            if (lock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timeouts.increment();
+        throw new RuntimeException("Listing " + listingId + " is busy, please try again");
+    }
+
+    private ReentrantLock lockFor(Long listingId) {
+        // Spread sequential IDs so neighbouring listings don't share stripes.
+        int hash = Long.hashCode(listingId) * 0x9E3779B9;
+        return locks[Math.floorMod(hash ^ (hash >>> 16), locks.length)];
+    }
+
+    /**
+     * Snapshot of lock contention and optimistic conflicts.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stripes", stripes);
+        stats.put("executions", executions.sum());
+        stats.put("contended", contended.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("timeouts", timeouts.sum());
+        return stats;
+    }
+}
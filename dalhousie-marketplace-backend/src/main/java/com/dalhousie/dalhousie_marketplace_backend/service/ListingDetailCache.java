@@ -0,0 +1,141 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingDTO;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of assembled listing detail DTOs. Entries are evicted least-recently-used
+ * once the cache is full and expire after a fixed TTL. Code that changes a listing calls
+ * {@link #invalidate(Long)}, which drops the entry once the change commits. Callers always get
+ * their own copy, so changing a returned DTO never changes what other readers see.
+ */
+@Service
+public class ListingDetailCache {
+
+    @Value("${marketplace.listing-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    @Value("${marketplace.listing-cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    private final LinkedHashMap<Long, CachedListing> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedListing> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Bumped by every invalidation. A load that overlaps an invalidation is returned but not cached,
+    // so a reader that saw the pre-commit row can't put stale data back after the entry was dropped.
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+
+    /**
+     * Returns a copy of the cached DTO for a listing, loading and caching it on a miss.
+     *
+     * @param listingId The listing
+     * @param loader Builds the DTO from the database; exceptions propagate and nothing is cached
+     * @return The listing DTO
+     */
+    public ListingDTO getOrLoad(Long listingId, Function<Long, ListingDTO> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedListing cached = entries.get(listingId);
+            if (cached != null) {
+                if (now - cached.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                    hits.increment();
+                    return cached.listing.copy();
+                }
+                entries.remove(listingId);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long sequence = invalidationSequence.get();
+        ListingDTO loaded = loader.apply(listingId);
+        if (loaded != null) {
+            synchronized (entries) {
+                if (invalidationSequence.get() == sequence) {
+                    entries.put(listingId, new CachedListing(loaded.copy(), now));
+                } else {
+                    discardedLoads.increment();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a listing's entry after the current transaction commits, or immediately outside one.
+     *
+     * @param listingId The listing that changed
+     */
+    public void invalidate(Long listingId) {
+        if (listingId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (entries) {
+                invalidationSequence.incrementAndGet();
+                entries.remove(listingId);
+            }
+            invalidations.increment();
+        });
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Snapshot of hit rate, evictions and invalidations.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? (double) hitCount / requests : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("discardedLoads", discardedLoads.sum());
+        return stats;
+    }
+
+    private static class CachedListing {
+        final ListingDTO listing;
+        final long loadedAt;
+
+        CachedListing(ListingDTO listing, long loadedAt) {
+            this.listing = listing;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
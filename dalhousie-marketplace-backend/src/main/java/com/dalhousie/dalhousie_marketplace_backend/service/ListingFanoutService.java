@@ -0,0 +1,274 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.model.User;
+import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans a newly created listing out to every other user as ITEM / BID notifications.
+ * Work runs on a single background worker so the seller's request returns as soon as
+ * the listing is saved. Users are streamed in keyset pages, preferences are applied
+ * before anything is written, and each page is persisted with one JDBC batch. Keyword
+ * subscribers are found with a single {@link KeywordMatcher} scan of the listing's title and
+ * description rather than a per-user check.
+ */
+@Service
+public class ListingFanoutService {
+    private static final Logger logger = LoggerFactory.getLogger(ListingFanoutService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserPreferencesRepository userPreferencesRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private KeywordMatcher keywordMatcher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${marketplace.fanout.page-size:500}")
+    private int pageSize = 500;
+
+    @Value("${marketplace.fanout.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate newTransaction;
+
+    private final Queue<FanoutTask> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong listingsEnqueued = new AtomicLong();
+    private final AtomicLong listingsCompleted = new AtomicLong();
+    private final AtomicLong listingsFailed = new AtomicLong();
+    private final AtomicLong usersScanned = new AtomicLong();
+    private final AtomicLong notificationsWritten = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        // A full queue pushes the work back onto the caller rather than dropping notifications;
+        // the caller's transaction has committed by then, so its writes get a transaction of their own.
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "listing-fanout");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Listing fan-out did not drain before shutdown; {} listings pending", pending.size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules notifications for a newly created listing. If called inside a transaction the
+     * task is only submitted once that transaction commits and completes.
+     *
+     * @param listing The saved listing
+     * @param seller The seller, who is excluded from the fan-out
+     */
+    public void publishNewListing(Listing listing, User seller) {
+        FanoutTask task = new FanoutTask(
+                listing.getId(),
+                listing.getTitle(),
+                listing.getDescription(),
+                Boolean.TRUE.equals(listing.getBiddingAllowed()),
+                seller.getUserId(),
+                System.currentTimeMillis()
+        );
+
+        TransactionHooks.afterCommitCompletion(() -> submit(task));
+    }
+
+    private void submit(FanoutTask task) {
+        listingsEnqueued.incrementAndGet();
+        pending.add(task);
+        executor.execute(() -> run(task));
+    }
+
+    private void run(FanoutTask task) {
+        try {
+            fanOut(task);
+            listingsCompleted.incrementAndGet();
+        } catch (RuntimeException e) {
+            listingsFailed.incrementAndGet();
+            logger.error("Listing fan-out failed for listing ID: {}", task.listingId, e);
+        } finally {
+            pending.remove(task);
+            long lag = System.currentTimeMillis() - task.enqueuedAt;
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    void fanOut(FanoutTask task) {
+        String itemMessage = Notification.fitMessage("New post: " + task.title);
+        String bidMessage = Notification.fitMessage("New Bidding: " + task.title);
+        // One scan finds every user whose keywords appear in the listing
+        Map<Long, Set<String>> interested = keywordMatcher.match(
+                task.title + " " + (task.description != null ? task.description : ""));
+        Long afterId = 0L;
+
+        while (true) {
+            List<Long> userIds = userRepository.findUserIdsAfter(afterId, task.sellerId, PageRequest.of(0, pageSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            usersScanned.addAndGet(userIds.size());
+
+            Map<Long, UserPreferences> preferencesByUser = new HashMap<>();
+            for (UserPreferences preferences : userPreferencesRepository.findByUserIdsWithKeywords(userIds)) {
+                preferencesByUser.put(preferences.getUser().getUserId(), preferences);
+            }
+
+            List<Notification> batch = new ArrayList<>();
+            for (Long userId : userIds) {
+                UserPreferences preferences = preferencesByUser.get(userId);
+                Notification item = itemNotification(userId, preferences, itemMessage, interested);
+                if (item != null) {
+                    batch.add(item);
+                }
+                if (task.biddingAllowed && wantsBids(preferences)) {
+                    batch.add(buildNotification(userId, NotificationType.BID, bidMessage));
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                notificationsWritten.addAndGet(insert(batch));
+                for (Notification notification : batch) {
+                    messagingTemplate.convertAndSend(
+                            "/queue/notifications/" + notification.getUser().getUserId(), notification);
+                }
+            }
+
+            afterId = userIds.get(userIds.size() - 1);
+            if (userIds.size() < pageSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Builds the ITEM notification for a user who wants it. Users with keywords only get it when
+     * the listing matched one, and it is tagged with every keyword that matched so reads can drop
+     * it once the user has removed all of them. Returns null if the user doesn't want it.
+     */
+    private Notification itemNotification(Long userId, UserPreferences preferences, String message,
+                                          Map<Long, Set<String>> interested) {
+        if (preferences != null && !preferences.isReceiveItems()) return null;
+
+        List<String> keywords = preferences != null ? preferences.getKeywords() : null;
+        if (keywords == null || keywords.isEmpty()) {
+            return buildNotification(userId, NotificationType.ITEM, message);
+        }
+
+        Set<String> matched = interested.get(userId);
+        if (matched == null) return null;
+        Notification notification = buildNotification(userId, NotificationType.ITEM, message);
+        notification.setMatchedKeywords(matched);
+        return notification;
+    }
+
+    private boolean wantsBids(UserPreferences preferences) {
+        return preferences == null || preferences.isReceiveBids();
+    }
+
+    private Notification buildNotification(Long userId, NotificationType type, String message) {
+        User recipient = new User();
+        recipient.setUserId(userId);
+        return new Notification(recipient, message, new Date(), false, type);
+    }
+
+    /**
+     * Snapshot of queue depth, throughput and lag for the fan-out worker.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        FanoutTask oldest = pending.peek();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("inFlight", executor.getActiveCount());
+        stats.put("listingsEnqueued", listingsEnqueued.get());
+        stats.put("listingsCompleted", listingsCompleted.get());
+        stats.put("listingsFailed", listingsFailed.get());
+        stats.put("usersScanned", usersScanned.get());
+        stats.put("notificationsWritten", notificationsWritten.get());
+        stats.put("currentLagMillis", oldest != null ? System.currentTimeMillis() - oldest.enqueuedAt : 0L);
+        stats.put("lastLagMillis", lastLagMillis.get());
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+
+    private int insert(List<Notification> batch) {
+        // On the caller's thread the committed transaction is still bound; joining it would lose the rows.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Integer written = newTransaction.execute(status -> notificationRepository.insertAll(batch));
+            return written == null ? 0 : written;
+        }
+        return notificationRepository.insertAll(batch);
+    }
+
+    /**
+     * Immutable copy of the listing fields the worker needs, so it never touches the entity.
+     */
+    static class FanoutTask {
+        final Long listingId;
+        final String title;
+        final String description;
+        final boolean biddingAllowed;
+        final Long sellerId;
+        final long enqueuedAt;
+
+        FanoutTask(Long listingId, String title, String description, boolean biddingAllowed, Long sellerId,
+                   long enqueuedAt) {
+            this.listingId = listingId;
+            this.title = title;
+            this.description = description;
+            this.biddingAllowed = biddingAllowed;
+            this.sellerId = sellerId;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
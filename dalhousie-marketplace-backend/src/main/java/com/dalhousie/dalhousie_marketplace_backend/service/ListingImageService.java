@@ -4,14 +4,25 @@ import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
 import com.dalhousie.dalhousie_marketplace_backend.model.ListingImage;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @Service
 public class ListingImageService {
+    private static final Logger logger = LoggerFactory.getLogger(ListingImageService.class);
+    private static final int MIGRATION_PAGE_SIZE = 100;
 
     @Autowired
     private ListingImageRepository listingImageRepository;
@@ -19,18 +30,93 @@ public class ListingImageService {
     @Autowired
     private ListingRepository listingRepository;
 
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Value("${marketplace.images.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
     public ListingImage saveImage(Long listingId, MultipartFile imageFile, Long sellerId, boolean isPrimary) throws IOException {
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found"));
 
+        ImageStorageService.StoredImage stored;
+        try (InputStream content = imageFile.getInputStream()) {
+            stored = imageStorageService.store(content);
+        }
+
         ListingImage image = new ListingImage();
         image.setListing(listing);
         image.setSellerId(sellerId);
-        image.setImageData(imageFile.getBytes());
+        image.setContentHash(stored.getContentHash());
+        image.setImageData(new byte[0]);
         image.setImageType(imageFile.getContentType());
         image.setImageSize(imageFile.getSize());
         image.setIsPrimary(isPrimary);
 
-        return listingImageRepository.save(image);
+        ListingImage savedImage = listingImageRepository.save(image);
+        imageVariantService.scheduleVariants(savedImage.getId(), savedImage.getContentHash());
+        return savedImage;
+    }
+
+    /**
+     * Runs {@link #migrateLegacyImages()} once the application has started, when enabled with
+     * {@code marketplace.images.migrate-on-startup}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        Thread migrator = new Thread(this::migrateLegacyImages, "listing-image-migration");
+        migrator.setDaemon(true);
+        migrator.start();
+    }
+
+    /**
+     * Moves images still stored in the image_data column into the image store, one row at a
+     * time so only a single blob is held in memory. Rows that fail are logged and skipped.
+     *
+     * @return Number of images migrated
+     */
+    public int migrateLegacyImages() {
+        int migrated = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = listingImageRepository.findLegacyImageIdsAfter(afterId, PageRequest.of(0, MIGRATION_PAGE_SIZE));
+            for (Long id : ids) {
+                try {
+                    if (migrateImage(id)) {
+                        migrated++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Failed to migrate listing image ID: {}", id, e);
+                }
+            }
+            if (ids.size() < MIGRATION_PAGE_SIZE) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        logger.info("Migrated {} listing images to the image store", migrated);
+        return migrated;
+    }
+
+    private boolean migrateImage(Long imageId) throws IOException {
+        ListingImage image = listingImageRepository.findById(imageId).orElse(null);
+        if (image == null || image.getContentHash() != null || image.getImageData() == null) {
+            return false;
+        }
+
+        ImageStorageService.StoredImage stored = imageStorageService.store(new ByteArrayInputStream(image.getImageData()));
+        image.setContentHash(stored.getContentHash());
+        image.setImageSize(stored.getSize());
+        image.setImageData(new byte[0]);
+        listingImageRepository.save(image);
+        imageVariantService.scheduleVariants(image.getId(), image.getContentHash());
+        return true;
     }
 }
@@ -0,0 +1,376 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the title and description of ACTIVE listings.
+ * Queries are tokenized, every query term is matched as a prefix, all terms must match,
+ * and results are ranked with BM25F (title weighted above description).
+ * The index is built once at startup and then kept current by {@link #update(Listing)}.
+ */
+@Service
+public class ListingSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ListingSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double PREFIX_MATCH_WEIGHT = 0.8;
+    // A short prefix like "ca" is scored against at most this many indexed terms: the exact term
+    // if indexed, then the terms with the most listings, so rare terms drop out before common ones
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+    private final Map<Long, IndexedListing> listings = new HashMap<>();
+    private long totalTitleLength;
+    private long totalDescriptionLength;
+
+    private volatile boolean ready;
+    private volatile boolean building;
+    private final Set<Long> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Builds the index in the background once the application has started.
+     * Until it finishes, {@link #isReady()} is false and callers should fall back to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "listing-search-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Loads every ACTIVE listing in keyset pages. Listings changed through {@link #update(Listing)}
+     * while the build runs are skipped, since their incremental state is newer than the page read.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        building = true;
+        touchedDuringBuild.clear();
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<Listing> page = listingRepository.findByStatusAfterId(
+                        Listing.ListingStatus.ACTIVE, afterId, PageRequest.of(0, BUILD_PAGE_SIZE));
+                for (Listing listing : page) {
+                    if (!touchedDuringBuild.contains(listing.getId())) {
+                        put(listing.getId(), listing.getTitle(), listing.getDescription());
+                    }
+                }
+                if (page.size() < BUILD_PAGE_SIZE) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            ready = true;
+            logger.info("Listing search index built: {} listings, {} terms in {} ms",
+                    size(), termCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build listing search index; falling back to database search", e);
+        } finally {
+            building = false;
+            touchedDuringBuild.clear();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reflects a listing's current state in the index once the surrounding transaction commits:
+     * ACTIVE listings are (re)indexed, anything else is removed.
+     *
+     * @param listing The listing that was created or changed
+     */
+    public void update(Listing listing) {
+        Long id = listing.getId();
+        if (id == null) {
+            return;
+        }
+        boolean active = listing.getStatus() == Listing.ListingStatus.ACTIVE;
+        String title = listing.getTitle();
+        String description = listing.getDescription();
+
+        TransactionHooks.afterCommit(() -> {
+            if (building) {
+                touchedDuringBuild.add(id);
+            }
+            if (active) {
+                put(id, title, description);
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    /**
+     * Searches ACTIVE listings.
+     *
+     * @param query Free-text query
+     * @param limit Maximum number of results
+     * @return Listing IDs, best match first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = listings.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgTitleLength = Math.max(1.0, (double) totalTitleLength / documentCount);
+            double avgDescriptionLength = Math.max(1.0, (double) totalDescriptionLength / documentCount);
+
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term, documentCount, avgTitleLength, avgDescriptionLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> intersection = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            return topResults(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String queryTerm, int documentCount,
+                                        double avgTitleLength, double avgDescriptionLength) {
+        Map<Long, Double> termScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Posting>> match : prefixExpansions(queryTerm)) {
+            Map<Long, Posting> postingList = match.getValue();
+            double documentFrequency = postingList.size();
+            double idf = Math.log(1.0 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            double matchWeight = match.getKey().equals(queryTerm) ? 1.0 : PREFIX_MATCH_WEIGHT;
+
+            for (Map.Entry<Long, Posting> entry : postingList.entrySet()) {
+                IndexedListing listing = listings.get(entry.getKey());
+                Posting posting = entry.getValue();
+                double weightedTf =
+                        TITLE_WEIGHT * posting.titleFrequency
+                                / (1 - B + B * listing.titleLength / avgTitleLength)
+                        + DESCRIPTION_WEIGHT * posting.descriptionFrequency
+                                / (1 - B + B * listing.descriptionLength / avgDescriptionLength);
+                double score = matchWeight * idf * weightedTf * (K1 + 1) / (weightedTf + K1);
+                termScores.merge(entry.getKey(), score, Math::max);
+            }
+        }
+        return termScores;
+    }
+
+    private Collection<Map.Entry<String, Map<Long, Posting>>> prefixExpansions(String queryTerm) {
+        SortedMap<String, Map<Long, Posting>> matches = postings.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+        if (matches.size() <= MAX_PREFIX_EXPANSIONS) {
+            return matches.entrySet();
+        }
+
+        // Keep the terms with the most postings; the weakest, then the alphabetically last, is evicted first
+        Comparator<Map.Entry<String, Map<Long, Posting>>> byReach =
+                Comparator.<Map.Entry<String, Map<Long, Posting>>>comparingInt(match -> match.getValue().size())
+                        .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<String, Map<Long, Posting>>> kept = new PriorityQueue<>(byReach);
+        Map.Entry<String, Map<Long, Posting>> exact = null;
+        for (Map.Entry<String, Map<Long, Posting>> match : matches.entrySet()) {
+            if (match.getKey().equals(queryTerm)) {
+                exact = match;
+                continue;
+            }
+            kept.offer(match);
+            if (kept.size() > MAX_PREFIX_EXPANSIONS - (exact != null ? 1 : 0)) {
+                kept.poll();
+            }
+        }
+
+        List<Map.Entry<String, Map<Long, Posting>>> expansions = new ArrayList<>(kept);
+        if (exact != null) {
+            expansions.add(exact);
+        }
+        return expansions;
+    }
+
+    private List<Long> topResults(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> byRank = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(byRank);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Long> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(top.poll().getKey());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private void put(Long id, String title, String description) {
+        Map<String, Integer> titleTerms = termFrequencies(title);
+        Map<String, Integer> descriptionTerms = termFrequencies(description);
+        int titleLength = titleTerms.values().stream().mapToInt(Integer::intValue).sum();
+        int descriptionLength = descriptionTerms.values().stream().mapToInt(Integer::intValue).sum();
+
+        Set<String> allTerms = new HashSet<>(titleTerms.keySet());
+        allTerms.addAll(descriptionTerms.keySet());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            for (String term : allTerms) {
+                Posting posting = new Posting(
+                        titleTerms.getOrDefault(term, 0),
+                        descriptionTerms.getOrDefault(term, 0));
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, posting);
+            }
+            listings.put(id, new IndexedListing(allTerms, titleLength, descriptionLength));
+            totalTitleLength += titleLength;
+            totalDescriptionLength += descriptionLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        IndexedListing existing = listings.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms) {
+            Map<Long, Posting> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(id);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalTitleLength -= existing.titleLength;
+        totalDescriptionLength -= existing.descriptionLength;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return listings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    /**
+     * Splits text into lower-case runs of letters and digits.
+     *
+     * @param text Text to tokenize; may be null
+     * @return Tokens in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static class Posting {
+        final int titleFrequency;
+        final int descriptionFrequency;
+
+        Posting(int titleFrequency, int descriptionFrequency) {
+            this.titleFrequency = titleFrequency;
+            this.descriptionFrequency = descriptionFrequency;
+        }
+    }
+
+    private static class IndexedListing {
+        final Set<String> terms;
+        final int titleLength;
+        final int descriptionLength;
+
+        IndexedListing(Set<String> terms, int titleLength, int descriptionLength) {
+            this.terms = terms;
+            this.titleLength = titleLength;
+            this.descriptionLength = descriptionLength;
+        }
+    }
+}
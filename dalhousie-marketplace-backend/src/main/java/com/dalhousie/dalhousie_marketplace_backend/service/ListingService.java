@@ -1,20 +1,28 @@
 package com.dalhousie.dalhousie_marketplace_backend.service;
 
 import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedFilter;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedPage;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingSummaryDTO;
 import com.dalhousie.dalhousie_marketplace_backend.DTO.SellerDTO;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
-import com.dalhousie.dalhousie_marketplace_backend.repository.CategoryRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.ListingFeedCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +35,7 @@ public class ListingService {
     private UserRepository userRepository;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
 
     @Autowired
     private ListingImageService listingImageService;
@@ -36,7 +44,28 @@ public class ListingService {
     private ListingImageRepository listingImageRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private ListingFanoutService listingFanoutService;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingViewCounter listingViewCounter;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private AuctionTimer auctionTimer;
+
+    @Value("${marketplace.search.result-limit:100}")
+    private int searchResultLimit = 100;
+
+    @Value("${marketplace.feed.default-limit:20}")
+    private int feedDefaultLimit = 20;
+
+    @Value("${marketplace.feed.max-limit:100}")
+    private int feedMaxLimit = 100;
 
     /**
      * Get all listings regardless of status
@@ -55,14 +84,64 @@ public class ListingService {
     }
 
     /**
-     * Search listings by keyword
+     * Get one page of active listings, newest first.
+     * Pages are seeked by (createdAt, id), so a cursor keeps its position when listings are added or removed.
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit Page size; defaults to marketplace.feed.default-limit and is capped at marketplace.feed.max-limit
+     * @param filter Optional category, price range and biddable filters
+     * @return The page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed or the price range is inverted
+     */
+    @Transactional(readOnly = true)
+    public ListingFeedPage getListingFeed(String cursor, Integer limit, ListingFeedFilter filter) {
+        if (filter != null && filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        ListingFeedCursor after = (cursor == null || cursor.isBlank()) ? null : ListingFeedCursor.decode(cursor);
+        int pageSize = limit == null ? feedDefaultLimit : Math.max(1, Math.min(limit, feedMaxLimit));
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<ListingSummaryDTO> rows = listingRepository.findActiveFeed(filter, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ListingSummaryDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ListingSummaryDTO last = items.get(items.size() - 1);
+            nextCursor = new ListingFeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new ListingFeedPage(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Search active listings by keyword, best match first.
+     * Answered from the in-memory index; falls back to a database scan while the index is building.
      */
     @Transactional(readOnly = true)
     public List<Listing> searchListings(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return listingRepository.findByStatus(Listing.ListingStatus.ACTIVE);
         }
-        return listingRepository.searchByKeyword(keyword.trim());
+        if (!listingSearchIndex.isReady()) {
+            return listingRepository.searchByKeyword(keyword.trim());
+        }
+
+        List<Long> rankedIds = listingSearchIndex.search(keyword, searchResultLimit);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Listing> listingsById = listingRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+
+        return rankedIds.stream()
+                .map(listingsById::get)
+                .filter(Objects::nonNull)
+                .filter(listing -> listing.getStatus() == Listing.ListingStatus.ACTIVE)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -74,7 +153,7 @@ public class ListingService {
         }
 
         Long categoryId = listing.getCategoryId();
-        Category category = categoryRepository.findById(categoryId)
+        Category category = categoryService.findById(categoryId)
                 .orElseThrow(() -> {
                     String msg = "Category with ID " + categoryId + " does not exist.";
                     return new RuntimeException(msg);
@@ -90,11 +169,20 @@ public class ListingService {
             throw new RuntimeException("User is not verified. Please verify your email before posting.");
         }
 
+        if (!Boolean.TRUE.equals(listing.getBiddingAllowed())) {
+            listing.setAuctionEndsAt(null);
+        } else if (listing.getAuctionEndsAt() != null && !listing.getAuctionEndsAt().after(new Date())) {
+            throw new IllegalArgumentException("Auction end time must be in the future");
+        }
+
         listing.setPurchaseDate(listing.getPurchaseDate());
         listing.setSeller(seller);
+        listing.setVersion(null);
 
         Listing savedListing = listingRepository.save(listing);
-        notifyUsers(savedListing, seller);
+        listingSearchIndex.update(savedListing);
+        auctionTimer.schedule(savedListing);
+        listingFanoutService.publishNewListing(savedListing, seller);
 
         if (images != null && images.length > 0) {
             boolean isFirstImage = true;
@@ -112,38 +200,21 @@ public class ListingService {
         return savedListing;
     }
 
-    private void notifyUsers(Listing listing, User seller) {
-        List<User> users = userRepository.findAll();
-        for (User user : users) {
-            if (!user.equals(seller)) {
-                notificationService.sendNotification(
-                        user,
-                        NotificationType.ITEM,
-                        "New post: " + listing.getTitle()
-                );
-                if (listing.getBiddingAllowed()) {
-                    notificationService.sendNotification(
-                            user,
-                            NotificationType.BID,
-                            "New Bidding: " + listing.getTitle()
-                    );
-                }
-            }
-        }
-    }
-
     /**
-     * Get a listing by ID and increment its view count
+     * Get a listing by ID and count a view. The view is buffered by ListingViewCounter,
+     * so this method does not write to the database, and repeat lookups are served from ListingDetailCache.
      */
-    @Transactional
     public ListingDTO getListingById(Long id) {
-        Listing listing = listingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Listing not found"));
+        ListingDTO dto = listingDetailCache.getOrLoad(id, this::loadListingDTO);
+        listingViewCounter.recordView(id);
+        return dto;
+    }
 
-        listing.setViews(listing.getViews() + 1);
-        listingRepository.save(listing);
+    private ListingDTO loadListingDTO(Long id) {
+        Listing listing = listingRepository.findWithSellerById(id)
+                .orElseThrow(() -> new RuntimeException("Listing not found"));
 
-        Category category = categoryRepository.findById(listing.getCategoryId()).orElse(null);
+        Category category = categoryService.findById(listing.getCategoryId()).orElse(null);
 
         ListingDTO dto = new ListingDTO();
         dto.setId(listing.getId());
@@ -156,6 +227,7 @@ public class ListingService {
         dto.setCategoryId(listing.getCategoryId());
         dto.setCategoryName(category != null ? category.getName() : "Not specified");
         dto.setBiddingAllowed(listing.getBiddingAllowed());
+        dto.setAuctionEndsAt(listing.getAuctionEndsAt());
 
         User seller = listing.getSeller();
         if (seller != null) {
@@ -167,15 +239,11 @@ public class ListingService {
 
     @Transactional
     public void updateListingRatingStats(Long listingId, Double averageRating, Integer reviewCount) {
-        Optional<Listing> optionalListing = listingRepository.findById(listingId);
-        String errorMsg = "Listing not found with id: " + listingId;
-
-        Listing listing = optionalListing.orElseThrow(() -> new RuntimeException(errorMsg));
-
-        listing.setAverageRating(averageRating);
-        listing.setReviewCount(reviewCount);
-
-        listingRepository.save(listing);
+        // Targeted update, so a concurrent bid's version bump can't make a review fail
+        if (listingRepository.updateRatingStats(listingId, averageRating, reviewCount) == 0) {
+            throw new RuntimeException("Listing not found with id: " + listingId);
+        }
+        listingDetailCache.invalidate(listingId);
     }
 
     /**
@@ -0,0 +1,133 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers listing detail-page views in memory and writes them to {@code listings.views} in batches.
+ * Recording a view is a lock-free increment, so the read path never writes to the database;
+ * the flush folds all views for a listing into one {@code views = views + ?} statement.
+ */
+@Service
+public class ListingViewCounter {
+    private static final Logger logger = LoggerFactory.getLogger(ListingViewCounter.class);
+
+    private static final String FLUSH_SQL = "UPDATE listings SET views = views + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Entries are kept once created: removing one could drop an increment that raced the removal.
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+    private final AtomicLong viewsRecorded = new AtomicLong();
+    private final AtomicLong viewsFlushed = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private volatile long lastFlushAt;
+    private volatile long lastFlushMillis;
+
+    /**
+     * Counts one view of a listing. The database is updated on the next flush.
+     *
+     * @param listingId The viewed listing
+     */
+    public void recordView(Long listingId) {
+        if (listingId == null) {
+            return;
+        }
+        pending.computeIfAbsent(listingId, id -> new LongAdder()).increment();
+        viewsRecorded.incrementAndGet();
+    }
+
+    /**
+     * Writes all buffered views with one JDBC batch. If the batch fails the deltas are added back
+     * and retried on the next flush.
+     *
+     * @return Number of listings updated
+     */
+    @Scheduled(fixedDelayString = "${marketplace.views.flush-interval-ms:5000}")
+    public int flush() {
+        synchronized (flushLock) {
+            long started = System.currentTimeMillis();
+
+            // Sorted by ID so concurrent flushes from other instances lock rows in the same order
+            SortedMap<Long, Long> deltas = new TreeMap<>();
+            for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+                long delta = entry.getValue().sumThenReset();
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                }
+            }
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            List<Object[]> batch = new ArrayList<>(deltas.size());
+            for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+                batch.add(new Object[]{delta.getValue(), delta.getKey()});
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException e) {
+                flushFailures.incrementAndGet();
+                deltas.forEach((listingId, delta) -> pending.computeIfAbsent(listingId, id -> new LongAdder()).add(delta));
+                logger.error("Failed to flush views for {} listings; will retry", deltas.size(), e);
+                return 0;
+            }
+
+            long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+            viewsFlushed.addAndGet(total);
+            flushCount.incrementAndGet();
+            lastFlushAt = System.currentTimeMillis();
+            lastFlushMillis = lastFlushAt - started;
+            return deltas.size();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        int flushed = flush();
+        logger.info("Flushed buffered views for {} listings at shutdown", flushed);
+    }
+
+    /**
+     * Views recorded for a listing that have not been written yet.
+     *
+     * @param listingId The listing
+     * @return Pending view count
+     */
+    public long getPendingViews(Long listingId) {
+        LongAdder adder = pending.get(listingId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * Snapshot of buffered and flushed view counts.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long pendingViews = pending.values().stream().mapToLong(LongAdder::sum).sum();
+        stats.put("trackedListings", pending.size());
+        stats.put("pendingViews", pendingViews);
+        stats.put("viewsRecorded", viewsRecorded.get());
+        stats.put("viewsFlushed", viewsFlushed.get());
+        stats.put("flushCount", flushCount.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        stats.put("lastFlushMillis", lastFlushMillis);
+        return stats;
+    }
+}
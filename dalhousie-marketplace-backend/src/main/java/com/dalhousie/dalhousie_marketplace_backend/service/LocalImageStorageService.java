@@ -0,0 +1,96 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * {@link ImageStorageService} backed by the local filesystem. Content lives at
+ * {@code <root>/<hash[0..2]>/<hash[2..4]>/<hash>} and is written through a temp file
+ * that is atomically moved into place, so readers never see partial content.
+ */
+@Service
+public class LocalImageStorageService implements ImageStorageService {
+
+    @Value("${marketplace.images.storage-root:./data/listing-images}")
+    private String storageRoot = "./data/listing-images";
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(storageRoot).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("tmp"));
+    }
+
+    @Override
+    public StoredImage store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = content.transferTo(out);
+            }
+
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(contentHash);
+            if (Files.exists(target)) {
+                return new StoredImage(contentHash, size);
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another upload of the same content won the race; its copy is identical.
+            }
+            return new StoredImage(contentHash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource load(String contentHash) throws IOException {
+        Path path = pathFor(contentHash);
+        if (!Files.isReadable(path)) {
+            throw new FileNotFoundException("No image stored for hash " + contentHash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(pathFor(contentHash));
+    }
+
+    private Path pathFor(String contentHash) {
+        if (contentHash == null || !contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return root.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.dalhousie.dalhousie_marketplace_backend.service;
 
 import com.dalhousie.dalhousie_marketplace_backend.DTO.ConversationDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ConversationPage;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.MessageDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.MessageHistoryPage;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
 import com.dalhousie.dalhousie_marketplace_backend.repository.*;
+import com.dalhousie.dalhousie_marketplace_backend.util.ConversationCursor;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class MessageService {
+    private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
 
     @Autowired
     private MessageRepository messageRepository;
@@ -31,50 +43,94 @@ public class MessageService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private UserDisplayNameCache userDisplayNameCache;
+
+    @Value("${marketplace.inbox.default-limit:20}")
+    private int inboxDefaultLimit = 20;
+
+    @Value("${marketplace.inbox.max-limit:100}")
+    private int inboxMaxLimit = 100;
+
+    @Value("${marketplace.inbox.backfill-on-startup:true}")
+    private boolean backfillOnStartup = true;
+
+    @Value("${marketplace.messages.history-default-limit:50}")
+    private int historyDefaultLimit = 50;
+
+    @Value("${marketplace.messages.history-max-limit:200}")
+    private int historyMaxLimit = 200;
+
     /**
      * Overloaded method for backward compatibility (Supports old method calls).
      * This is required to fix failing tests.
      */
     public Message sendMessage(Long senderId, Long listingId, String content) {
-        Listing listing = listingRepository.findById(listingId)
+        Long receiverId = listingRepository.findSellerIdById(listingId)
                 .orElseThrow(() -> new RuntimeException("Listing not found"));
-
-        Long receiverId = listing.getSeller().getUserId();
         String conversationId = generateConversationId(senderId, receiverId, listingId);
 
         return sendMessage(senderId, receiverId, listingId, content, conversationId);
     }
 
     /**
-     * Sends a message between users for a listing.
+     * Sends a message between users for a listing. Both participants' conversation summaries are
+     * updated in the same transaction, so an inbox never lists a message that was rolled back.
+     * Sender, receiver and listing are attached as references; only usernames are looked up,
+     * through the display-name cache. Once the transaction commits the message is broadcast
+     * once on the conversation topic, which both participants subscribe to, and the receiver's
+     * notification is written in the background.
      */
+    @Transactional
     public Message sendMessage(Long senderId, Long receiverId, Long listingId, String content, String conversationId) {
         if (senderId.equals(receiverId)) {
             throw new RuntimeException("You cannot message yourself.");
         }
 
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
-        User receiver = userRepository.findById(receiverId)
-                .orElseThrow(() -> new RuntimeException("Receiver not found"));
-        Listing listing = listingRepository.findById(listingId)
-                .orElseThrow(() -> new RuntimeException("Listing not found"));
+        String senderName = userDisplayNameCache.getUsername(senderId);
+        if (senderName == null) {
+            throw new RuntimeException("Sender not found");
+        }
+        String receiverName = userDisplayNameCache.getUsername(receiverId);
+        if (receiverName == null) {
+            throw new RuntimeException("Receiver not found");
+        }
 
         Message message = new Message();
-        message.setSender(sender);
-        message.setReceiver(receiver);
+        message.setSender(userRepository.getReferenceById(senderId));
+        message.setReceiver(userRepository.getReferenceById(receiverId));
         message.setContent(content);
-        message.setListing(listing);
+        message.setListing(listingRepository.getReferenceById(listingId));
         message.setConversationId(conversationId);
         message.setTimestamp(new Date());
 
+        // The summary upsert reads the listing, so it doubles as the existence check
+        if (!conversationSummaryRepository.recordMessage(message, senderName, receiverName)) {
+            throw new RuntimeException("Listing not found");
+        }
         messageRepository.save(message);
 
-        notifyUserAboutNewMSG(receiverId, sender.getUsername() + " sent you a message: " + content);
+        MessageDTO broadcast = new MessageDTO(message.getId(), conversationId, senderId, receiverId, listingId,
+                content, message.getTimestamp());
+        TransactionHooks.afterCommit(() -> messagingTemplate.convertAndSend("/topic/messages/" + conversationId, broadcast));
+        notificationService.sendNotification(message.getReceiver(), NotificationType.MESSAGE,
+                senderName + " sent you a message: " + content);
 
         return message;
     }
 
+    /**
+     * The message as sent to clients, with participants and listing as IDs.
+     */
+    public MessageDTO toMessageDTO(Message message) {
+        return new MessageDTO(message.getId(), message.getConversationId(), message.getSender().getUserId(),
+                message.getReceiver().getUserId(), message.getListing().getId(), message.getContent(),
+                message.getTimestamp());
+    }
+
     /**
      * Generates a unique and standardized conversation ID.
      */
@@ -96,161 +152,131 @@ public class MessageService {
     }
 
     /**
-     * Creates a notification for a user.
+     * Retrieves a window of a conversation's history in chronological order. With no cursor the
+     * window holds the most recent messages.
+     *
+     * @param conversationId The conversation
+     * @param before Return messages older than this message ID, or null
+     * @param after Return messages newer than this message ID, or null
+     * @param limit Page size; defaults and caps come from configuration
+     * @return The messages and the cursor for the next window in the same direction
+     * @throws IllegalArgumentException if both cursors are given
      */
-    private void notifyUserAboutNewMSG(Long receiverId, String messageContent) {
-        User receiver = userRepository.findById(receiverId)
-                .orElseThrow(() -> new RuntimeException("Receiver not found"));
-
-        notificationService.sendNotification(
-                receiver,
-                NotificationType.MESSAGE,
-                messageContent
-        );
+    public MessageHistoryPage getMessageHistory(String conversationId, Long before, Long after, Integer limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        int pageSize = limit == null ? historyDefaultLimit : Math.max(1, Math.min(limit, historyMaxLimit));
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<MessageDTO> rows = after != null
+                ? messageRepository.findHistoryAfter(conversationId, after, window)
+                : messageRepository.findHistoryBefore(conversationId, before != null ? before : Long.MAX_VALUE, window);
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageDTO> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+
+        Long nextCursor = null;
+        if (hasMore) {
+            nextCursor = page.get(page.size() - 1).getId();
+        }
+        if (after == null) {
+            // Read newest first from the index; return oldest first like a chat window
+            Collections.reverse(page);
+        }
+        return new MessageHistoryPage(page, nextCursor, hasMore);
     }
 
     /**
-     * Retrieves message history for a specific conversation.
+     * Retrieves the buyer-seller conversations for a specific listing, most recent first, up to
+     * the inbox max-limit. Use {@link #getInbox} to page through the rest.
      */
-    public List<Message> getMessageHistory(String conversationId) {
-        return messageRepository.findByConversationId(conversationId);
+    public List<ConversationDTO> getMessagesForListing(Long listingId, Long userId) {
+        return toConversationDTOs(conversationSummaryRepository.findInbox(userId, false, listingId, null, inboxMaxLimit));
     }
 
     /**
-     * Retrieves all conversations for a seller.
+     * Retrieves a seller's conversations, most recent first, up to the inbox max-limit.
      */
     public List<ConversationDTO> getSellerConversations(Long sellerId) {
-        List<String> conversationIds = messageRepository.findDistinctConversationIdsBySeller(sellerId);
-        return buildConversationDTOList(conversationIds, sellerId);
+        return toConversationDTOs(conversationSummaryRepository.findInbox(sellerId, false, null, null, inboxMaxLimit));
     }
 
-    private List<ConversationDTO> buildConversationDTOList(List<String> conversationIds, Long sellerId) {
-        List<ConversationDTO> conversations = new ArrayList<>();
-        for (String conversationId : conversationIds) {
-            ConversationDTO dto = buildSellerConversationDTO(conversationId, sellerId);
-            if (dto != null) {
-                conversations.add(dto);
-            }
-        }
-        return conversations;
+    /**
+     * Retrieves a buyer's conversations that the seller has replied to, most recent first, up to
+     * the inbox max-limit.
+     */
+    public List<ConversationDTO> getBuyerConversations(Long buyerId) {
+        return toConversationDTOs(conversationSummaryRepository.findInbox(buyerId, true, null, null, inboxMaxLimit));
     }
 
-    private ConversationDTO buildSellerConversationDTO(String conversationId, Long sellerId) {
-        List<Message> messages = fetchMessages(conversationId);
-        if (messages.isEmpty()) {
-            return null;
+    /**
+     * Retrieves one page of a user's inbox from the conversation summaries.
+     *
+     * @param userId The user whose inbox to read
+     * @param buyerView Only conversations the seller has replied to, as in {@link #getBuyerConversations}
+     * @param listingId Only conversations about this listing, or null for all
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Page size; defaults and caps come from configuration
+     * @return The page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public ConversationPage getInbox(Long userId, boolean buyerView, Long listingId, String cursor, Integer limit) {
+        ConversationCursor after = (cursor == null || cursor.isBlank()) ? null : ConversationCursor.decode(cursor);
+        int pageSize = limit == null ? inboxDefaultLimit : Math.max(1, Math.min(limit, inboxMaxLimit));
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<ConversationSummary> rows = conversationSummaryRepository.findInbox(userId, buyerView, listingId, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ConversationSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ConversationSummary last = page.get(page.size() - 1);
+            nextCursor = new ConversationCursor(last.getLastMessageAt(), last.getId()).encode();
         }
-
-        Message lastMessage = getLastMessage(messages);
-        User otherParty = determineOtherParty(lastMessage, sellerId);
-        Listing listing = lastMessage.getListing();
-
-        return createConversationDTO(conversationId, otherParty, lastMessage, listing);
-    }
-
-    private List<Message> fetchMessages(String conversationId) {
-        return messageRepository.findByConversationId(conversationId);
-    }
-
-    private Message getLastMessage(List<Message> messages) {
-        return messages.get(messages.size() - 1);
-    }
-
-    private User determineOtherParty(Message message, Long sellerId) {
-        return message.getSender().getUserId().equals(sellerId)
-                ? message.getReceiver()
-                : message.getSender();
+        return new ConversationPage(toConversationDTOs(page), nextCursor, hasMore);
     }
 
-    private ConversationDTO createConversationDTO(String conversationId, User otherParty,
-                                                  Message lastMessage, Listing listing) {
-        return new ConversationDTO(
-                conversationId,
-                otherParty.getUserId(),
-                otherParty.getUsername(),
-                lastMessage.getContent(),
-                lastMessage.getTimestamp().toString(),
-                listing.getId(),
-                listing.getTitle()
-        );
+    /**
+     * Clears a user's unread count for a conversation.
+     *
+     * @return true if the user takes part in the conversation
+     */
+    public boolean markConversationRead(String conversationId, Long userId) {
+        return conversationSummaryRepository.markRead(conversationId, userId) > 0;
     }
 
     /**
-     * Retrieves all buyer-seller conversations for a specific listing.
+     * Creates summaries for conversations that predate the summary table. Conversations that
+     * already have one are left alone, so this is safe to run on every start.
      */
-    public List<ConversationDTO> getMessagesForListing(Long listingId, Long userId) {
-        List<Message> messages = messageRepository.findByListingAndUser(listingId, userId);
-        Map<String, Message> latestMessages = new HashMap<>();
-
-        for (Message msg : messages) {
-            String conversationId = msg.getConversationId();
-            boolean isNewer = !latestMessages.containsKey(conversationId) ||
-                    msg.getTimestamp().after(latestMessages.get(conversationId).getTimestamp());
-
-            if (isNewer) {
-                latestMessages.put(conversationId, msg);
-            }
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationSummaries() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        int created = conversationSummaryRepository.backfillFromMessages();
+        if (created > 0) {
+            logger.info("Backfilled {} conversation summaries", created);
         }
-
-        return latestMessages.values().stream()
-                .map(msg -> {
-                    boolean isSender = msg.getSender().getUserId().equals(userId);
-                    User otherParty = isSender ? msg.getReceiver() : msg.getSender();
-
-                    String conversationId = msg.getConversationId();
-                    Long otherUserId = otherParty.getUserId();
-                    String otherUsername = otherParty.getUsername();
-                    String content = msg.getContent();
-                    String timestamp = msg.getTimestamp().toString();
-                    Long msgListingId = msg.getListing().getId();
-                    String listingTitle = msg.getListing().getTitle();
-
-                    return new ConversationDTO(
-                            conversationId,
-                            otherUserId,
-                            otherUsername,
-                            content,
-                            timestamp,
-                            msgListingId,
-                            listingTitle
-                    );
-                })
-                .collect(Collectors.toList());
     }
 
-    /**
-     * Retrieves all conversations for a buyer.
-     */
-    public List<ConversationDTO> getBuyerConversations(Long buyerId) {
-        List<String> conversationIds = messageRepository.findDistinctConversationIdsByBuyer(buyerId);
-
-        return conversationIds.stream()
-                .map(conversationId -> {
-                    List<Message> messages = messageRepository.findByConversationId(conversationId);
-                    if (messages.isEmpty()) return null;
-
-                    Message lastMessage = messages.get(messages.size() - 1);
-                    Listing listing = lastMessage.getListing();
-                    User seller = listing.getSeller();
-
-                    Long sellerId = seller.getUserId();
-                    String sellerUsername = seller.getUsername();
-                    String content = lastMessage.getContent();
-                    String timestamp = lastMessage.getTimestamp().toString();
-                    Long listingId = listing.getId();
-                    String listingTitle = listing.getTitle();
-
-                    return new ConversationDTO(
-                            conversationId,
-                            sellerId,
-                            sellerUsername,
-                            content,
-                            timestamp,
-                            listingId,
-                            listingTitle
-                    );
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    private List<ConversationDTO> toConversationDTOs(List<ConversationSummary> summaries) {
+        List<ConversationDTO> conversations = new ArrayList<>(summaries.size());
+        for (ConversationSummary summary : summaries) {
+            ConversationDTO dto = new ConversationDTO(
+                    summary.getConversationId(),
+                    summary.getOtherUserId(),
+                    summary.getOtherUsername(),
+                    summary.getLastMessage(),
+                    summary.getLastMessageAt().toString(),
+                    summary.getListingId(),
+                    summary.getListingTitle()
+            );
+            dto.setUnreadCount(summary.getUnreadCount());
+            conversations.add(dto);
+        }
+        return conversations;
     }
 }
@@ -0,0 +1,438 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.model.User;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind outbox for single notifications. Callers enqueue inside their transaction; the
+ * notification enters a bounded ring buffer only once that transaction commits, and a single
+ * writer thread drains the buffer into JDBC batch inserts, then pushes each saved notification to
+ * /queue/notifications/{userId}. A full buffer makes the committing caller wait briefly and then
+ * write its notification itself, so nothing is dropped; that write runs in a transaction of its
+ * own, since the caller's has already committed. Message text is cut to the column length
+ * before it is queued.
+ * <p>
+ * A failed batch is retried up to max-attempts times and then written row by row. A row the
+ * database rejects outright (a constraint violation, say) goes to the dead-letter file, which is
+ * never replayed automatically. Rows that still fail for any other reason, and whatever cannot be
+ * flushed on shutdown, are appended to the spill file. The spill file is replayed on startup and
+ * after the next successful batch, and rows rejected during a replay are dead-lettered too, so no
+ * row is retried forever.
+ * <p>
+ * The buffer itself lives only in memory: a notification is acknowledged once it is queued, not
+ * once it is saved, so a crash or kill -9 loses whatever was buffered and not yet written.
+ */
+@Service
+public class NotificationOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${marketplace.notifications.outbox-capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${marketplace.notifications.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${marketplace.notifications.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMillis = 50;
+
+    @Value("${marketplace.notifications.retry-delay-ms:1000}")
+    private long retryDelayMillis = 1000;
+
+    @Value("${marketplace.notifications.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${marketplace.notifications.spill-file:./data/notification-outbox.jsonl}")
+    private String spillFile = "./data/notification-outbox.jsonl";
+
+    @Value("${marketplace.notifications.dead-letter-file:./data/notification-dead-letter.jsonl}")
+    private String deadLetterFile = "./data/notification-dead-letter.jsonl";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ArrayBlockingQueue<Notification> buffer;
+    private TransactionTemplate newTransaction;
+    private Thread writerThread;
+    private volatile boolean running;
+    // Batch the writer was holding when it stopped; read by stop() after join()
+    private List<Notification> unflushed = List.of();
+    // Guards the spill and dead-letter files
+    private final Object fileLock = new Object();
+    // Rows were spilled while running; replay them once a batch gets through again
+    private volatile boolean replayPending;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong callerWrites = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong pushFailures = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        running = true;
+        writerThread = new Thread(this::runWriter, "notification-outbox");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+
+        List<Notification> remaining = new ArrayList<>(unflushed);
+        buffer.drainTo(remaining);
+        if (remaining.isEmpty()) {
+            return;
+        }
+        int flushed = 0;
+        try {
+            for (; flushed < remaining.size(); flushed += batchSize) {
+                write(remaining.subList(flushed, Math.min(flushed + batchSize, remaining.size())));
+            }
+        } catch (RuntimeException e) {
+            List<Notification> rest = remaining.subList(flushed, remaining.size());
+            logger.error("Could not flush {} notifications at shutdown", rest.size(), e);
+            salvage(rest);
+        }
+    }
+
+    /**
+     * Queues a notification once the current transaction commits, or immediately outside one.
+     * A rolled-back transaction queues nothing.
+     *
+     * @param userId The user to notify
+     * @param type The notification type
+     * @param content The notification text; cut to {@link Notification#MESSAGE_LENGTH} characters
+     */
+    public void enqueue(Long userId, NotificationType type, String content) {
+        Notification notification = newNotification(userId, type, content, new Date());
+        TransactionHooks.afterCommit(() -> offer(notification));
+    }
+
+    private void offer(Notification notification) {
+        enqueued.incrementAndGet();
+        try {
+            if (running && buffer.offer(notification, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Buffer full or shutting down: write on the caller's thread instead of dropping it
+        callerWrites.incrementAndGet();
+        try {
+            write(List.of(notification));
+        } catch (RuntimeException e) {
+            writeFailures.incrementAndGet();
+            logger.error("Notification for user ID {} could not be written", notification.getUser().getUserId(), e);
+            salvage(List.of(notification));
+        }
+    }
+
+    private void runWriter() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(buffer.take());
+                    buffer.drainTo(batch, batchSize - 1);
+                    attempts = 0;
+                }
+                write(batch);
+                long now = System.currentTimeMillis();
+                for (Notification notification : batch) {
+                    maxLagMillis.accumulateAndGet(now - notification.getTimestamp().getTime(), Math::max);
+                }
+                batch.clear();
+                if (replayPending) {
+                    replayPending = false;
+                    replay();
+                }
+            } catch (InterruptedException e) {
+                // Woken by stop(); the loop condition decides whether to exit
+            } catch (RuntimeException e) {
+                writeFailures.incrementAndGet();
+                if (++attempts >= maxAttempts) {
+                    logger.warn("Writing {} notifications failed {} times; writing them one by one",
+                            batch.size(), attempts, e);
+                    salvage(batch);
+                    batch.clear();
+                    continue;
+                }
+                logger.warn("Writing {} notifications failed; retrying in {} ms", batch.size(), retryDelayMillis, e);
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    // Woken by stop()
+                }
+            }
+        }
+        unflushed = batch;
+    }
+
+    /**
+     * Inserts a batch and pushes each notification. Push failures are only counted, since the
+     * notification is already saved and will be listed on the next fetch.
+     */
+    void write(List<Notification> batch) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Called from an afterCommit callback: the committed transaction is still bound to the
+            // thread, and an insert that joined it would never be committed
+            Integer inserted = newTransaction.execute(status -> notificationRepository.insertAll(batch));
+            written.addAndGet(inserted != null ? inserted : 0);
+        } else {
+            written.addAndGet(notificationRepository.insertAll(batch));
+        }
+        batches.incrementAndGet();
+
+        for (Notification notification : batch) {
+            try {
+                messagingTemplate.convertAndSend(
+                        "/queue/notifications/" + notification.getUser().getUserId(), notification);
+            } catch (RuntimeException e) {
+                pushFailures.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Writes a failed batch row by row. Rows the database rejects are dead-lettered; from the
+     * first row that fails for another reason, the rest of the batch is spilled.
+     */
+    private void salvage(List<Notification> batch) {
+        int done = writeEach(batch);
+        if (done < batch.size()) {
+            spill(batch.subList(done, batch.size()));
+            replayPending = running;
+        }
+    }
+
+    /**
+     * Writes rows one at a time, dead-lettering those the database rejects.
+     *
+     * @return Number of rows written or dead-lettered; less than the batch size if a row failed
+     *         for another reason
+     */
+    private int writeEach(List<Notification> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            try {
+                write(List.of(notification));
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Notification for user ID {} was rejected; dead-lettering it to {}",
+                        notification.getUser().getUserId(), deadLetterFile, e);
+                if (append(deadLetterFile, List.of(notification), e.getMostSpecificCause().getMessage())) {
+                    deadLettered.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                return i;
+            }
+        }
+        return batch.size();
+    }
+
+    private void spill(List<Notification> notifications) {
+        if (append(spillFile, notifications, null)) {
+            spilled.addAndGet(notifications.size());
+        }
+    }
+
+    private boolean append(String file, List<Notification> notifications, String error) {
+        Path path = Paths.get(file);
+        synchronized (fileLock) {
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Notification notification : notifications) {
+                        Map<String, Object> record = new LinkedHashMap<>();
+                        record.put("userId", notification.getUser().getUserId());
+                        record.put("type", notification.getType() != null ? notification.getType().name() : null);
+                        record.put("message", notification.getMessage());
+                        record.put("timestamp", notification.getTimestamp().getTime());
+                        if (error != null) {
+                            record.put("error", error);
+                        }
+                        writer.write(objectMapper.writeValueAsString(record));
+                        writer.newLine();
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                logger.error("Failed to append {} notifications to {}; they are lost", notifications.size(), file, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes spilled notifications. Runs once the application is ready, and again after the writer
+     * recovers from spilling. A batch that fails is written row by row: rows the database rejects
+     * are dead-lettered, and from the first row that fails for another reason the rest is kept in
+     * the file for the next attempt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        synchronized (fileLock) {
+            replaySpillFile();
+        }
+    }
+
+    // Caller holds fileLock
+    private void replaySpillFile() {
+        Path path = Paths.get(spillFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.error("Could not read notification spill file {}", spillFile, e);
+            return;
+        }
+
+        List<String> records = new ArrayList<>(lines.size());
+        List<Notification> notifications = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                notifications.add(parse(line));
+                records.add(line);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping malformed notification spill record: {}", line, e);
+            }
+        }
+
+        long rejectedBefore = deadLettered.get();
+        int done = 0;
+        while (done < notifications.size()) {
+            List<Notification> chunk = notifications.subList(done, Math.min(done + batchSize, notifications.size()));
+            try {
+                write(chunk);
+                done += chunk.size();
+            } catch (RuntimeException e) {
+                int salvaged = writeEach(chunk);
+                done += salvaged;
+                if (salvaged < chunk.size()) {
+                    logger.error("Replaying spilled notifications stopped after {} of {}", done, notifications.size(), e);
+                    break;
+                }
+            }
+        }
+
+        try {
+            if (done == records.size()) {
+                Files.delete(path);
+            } else {
+                // Keep only what was neither written nor dead-lettered, so the next replay doesn't
+                // duplicate notifications or retry rows the database rejected
+                Files.write(path, records.subList(done, records.size()), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            logger.error("Could not rewrite notification spill file {}", spillFile, e);
+        }
+        long rejected = deadLettered.get() - rejectedBefore;
+        replayed.addAndGet(done - rejected);
+        logger.info("Replayed {} spilled notifications; {} dead-lettered", done - rejected, rejected);
+    }
+
+    private Notification parse(String line) {
+        try {
+            Map<?, ?> record = objectMapper.readValue(line, Map.class);
+            Object type = record.get("type");
+            return newNotification(((Number) record.get("userId")).longValue(),
+                    type != null ? NotificationType.valueOf(type.toString()) : null,
+                    (String) record.get("message"),
+                    new Date(((Number) record.get("timestamp")).longValue()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed notification spill record", e);
+        }
+    }
+
+    private Notification newNotification(Long userId, NotificationType type, String content, Date timestamp) {
+        // Only the ID is needed to insert and route the notification
+        User user = new User();
+        user.setUserId(userId);
+        return new Notification(user, Notification.fitMessage(content), timestamp, false, type);
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Snapshot of buffer depth, throughput, failures and replay.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buffered", buffer.size());
+        stats.put("capacity", capacity);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("callerWrites", callerWrites.get());
+        stats.put("writeFailures", writeFailures.get());
+        stats.put("pushFailures", pushFailures.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("spilled", spilled.get());
+        stats.put("replayed", replayed.get());
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+}
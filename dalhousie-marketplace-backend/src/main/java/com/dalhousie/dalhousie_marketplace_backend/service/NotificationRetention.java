@@ -0,0 +1,198 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the notification table from growing without bound. Each run:
+ * <ol>
+ *   <li>removes read notifications older than read-max-age-days, either deleting them or moving
+ *   them to notification_archive;</li>
+ *   <li>collapses a user's old unread notifications of a digest type into one digest row, such as
+ *   "12 new listings", once there are at least digest-min-count of them.</li>
+ * </ol>
+ * Work is done in chunks of at most chunk-size rows, each in its own short transaction. Candidate
+ * rows are found with plain reads, so only the rows being changed are ever locked, and the job
+ * pauses between chunks so it never monopolizes the database. A run stops after max-rows-per-run.
+ */
+@Service
+public class NotificationRetention {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetention.class);
+
+    private static final Map<NotificationType, String> DIGEST_MESSAGES = Map.of(
+            NotificationType.ITEM, "%d new listings",
+            NotificationType.BID, "%d bid updates",
+            NotificationType.MESSAGE, "%d new messages");
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${marketplace.notifications.retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${marketplace.notifications.retention.read-max-age-days:30}")
+    private int readMaxAgeDays = 30;
+
+    @Value("${marketplace.notifications.retention.mode:delete}")
+    private String mode = "delete";
+
+    @Value("${marketplace.notifications.retention.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${marketplace.notifications.retention.chunk-pause-ms:50}")
+    private long chunkPauseMillis = 50;
+
+    @Value("${marketplace.notifications.retention.max-rows-per-run:100000}")
+    private int maxRowsPerRun = 100000;
+
+    @Value("${marketplace.notifications.retention.digest-types:ITEM}")
+    private List<NotificationType> digestTypes = List.of(NotificationType.ITEM);
+
+    @Value("${marketplace.notifications.retention.digest-min-count:10}")
+    private int digestMinCount = 10;
+
+    @Value("${marketplace.notifications.retention.digest-after-hours:24}")
+    private int digestAfterHours = 24;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rowsPurged = new AtomicLong();
+    private final AtomicLong rowsCompacted = new AtomicLong();
+    private final AtomicLong digestsCreated = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong busyMillis = new AtomicLong();
+    private volatile long lastRunAt;
+    private volatile long lastRunMillis;
+    private volatile long lastRunRows;
+
+    /**
+     * Runs one retention pass: purge, then compaction.
+     *
+     * @return Number of notification rows removed or collapsed
+     */
+    @Scheduled(fixedDelayString = "${marketplace.notifications.retention.interval-ms:3600000}",
+            initialDelayString = "${marketplace.notifications.retention.interval-ms:3600000}")
+    public synchronized long run() {
+        if (!enabled) {
+            return 0;
+        }
+        if (!"delete".equalsIgnoreCase(mode) && !"archive".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown marketplace.notifications.retention.mode: " + mode
+                    + " (expected delete or archive)");
+        }
+
+        long started = System.currentTimeMillis();
+        long processed = 0;
+        try {
+            processed += purge(maxRowsPerRun);
+            processed += compact(maxRowsPerRun - processed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            logger.error("Notification retention run failed after {} rows", processed, e);
+        } finally {
+            long elapsed = System.currentTimeMillis() - started;
+            runs.incrementAndGet();
+            busyMillis.addAndGet(elapsed);
+            lastRunAt = started;
+            lastRunMillis = elapsed;
+            lastRunRows = processed;
+        }
+        if (processed > 0) {
+            logger.info("Notification retention processed {} rows in {} ms", processed, lastRunMillis);
+        }
+        return processed;
+    }
+
+    private long purge(long budget) throws InterruptedException {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(readMaxAgeDays));
+        boolean archive = "archive".equalsIgnoreCase(mode);
+        long purged = 0;
+        long afterId = 0;
+
+        while (purged < budget) {
+            List<Long> ids = notificationRepository.findReadIdsBefore(cutoff, afterId, (int) Math.min(chunkSize, budget - purged));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int deleted = notificationRepository.purgeRead(ids, archive);
+            purged += deleted;
+            rowsPurged.addAndGet(deleted);
+            chunks.incrementAndGet();
+            afterId = ids.get(ids.size() - 1);
+            pause();
+        }
+        return purged;
+    }
+
+    private long compact(long budget) throws InterruptedException {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(digestAfterHours));
+        long compacted = 0;
+
+        for (NotificationType type : digestTypes) {
+            String format = DIGEST_MESSAGES.get(type);
+            long afterUserId = 0;
+            while (compacted < budget) {
+                List<Long> userIds = notificationRepository.findDigestCandidates(type, cutoff, digestMinCount, afterUserId, chunkSize);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                for (Long userId : userIds) {
+                    if (compacted >= budget) {
+                        break;
+                    }
+                    int replaced = notificationRepository.compactUnread(userId, type, cutoff, digestMinCount,
+                            (int) Math.min(chunkSize, budget - compacted), count -> String.format(format, count));
+                    if (replaced > 0) {
+                        compacted += replaced;
+                        rowsCompacted.addAndGet(replaced);
+                        digestsCreated.incrementAndGet();
+                        chunks.incrementAndGet();
+                        pause();
+                    }
+                }
+                afterUserId = userIds.get(userIds.size() - 1);
+            }
+        }
+        return compacted;
+    }
+
+    private void pause() throws InterruptedException {
+        if (chunkPauseMillis > 0) {
+            Thread.sleep(chunkPauseMillis);
+        }
+    }
+
+    /**
+     * Snapshot of rows removed and collapsed, and throughput of the last and all runs.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long totalRows = rowsPurged.get() + rowsCompacted.get();
+        stats.put("enabled", enabled);
+        stats.put("mode", mode);
+        stats.put("runs", runs.get());
+        stats.put("failures", failures.get());
+        stats.put("rowsPurged", rowsPurged.get());
+        stats.put("rowsCompacted", rowsCompacted.get());
+        stats.put("digestsCreated", digestsCreated.get());
+        stats.put("chunks", chunks.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunRows", lastRunRows);
+        stats.put("lastRunRowsPerSecond", lastRunMillis > 0 ? lastRunRows * 1000.0 / lastRunMillis : 0.0);
+        stats.put("rowsPerSecond", busyMillis.get() > 0 ? totalRows * 1000.0 / busyMillis.get() : 0.0);
+        return stats;
+    }
+}
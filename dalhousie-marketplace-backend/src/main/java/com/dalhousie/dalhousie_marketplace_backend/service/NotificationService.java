@@ -1,20 +1,28 @@
 package com.dalhousie.dalhousie_marketplace_backend.service;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.NotificationPage;
 import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
 import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
 import com.dalhousie.dalhousie_marketplace_backend.model.User;
 import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
 import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.NotificationCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
     @Autowired
     private NotificationRepository notificationRepository;
@@ -23,22 +31,34 @@ public class NotificationService {
     private UserPreferencesRepository userPreferencesRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationOutbox notificationOutbox;
 
-    public void sendNotification(User user, NotificationType type, String content) {
-        Notification notification = buildNotification(user, type, content);
-        notificationRepository.save(notification);
-        messagingTemplate.convertAndSend("/queue/notifications/" + user.getUserId(), notification);
-    }
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${marketplace.notifications.default-limit:50}")
+    private int defaultLimit = 50;
+
+    @Value("${marketplace.notifications.max-limit:200}")
+    private int maxLimit = 200;
+
+    @Value("${marketplace.notifications.max-mark-ids:500}")
+    private int maxMarkIds = 500;
+
+    @Value("${marketplace.notifications.reconcile-counts-on-startup:false}")
+    private boolean reconcileCountsOnStartup = false;
 
-    private Notification buildNotification(User user, NotificationType type, String content) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(type);
-        notification.setMessage(content);
-        notification.setReadStatus(false);
-        notification.setTimestamp(new Date());
-        return notification;
+    @Value("${marketplace.notifications.reconcile-chunk-size:500}")
+    private int reconcileChunkSize = 500;
+
+    /**
+     * Notifies a user once the current transaction commits. The notification is written and
+     * pushed in the background by {@link NotificationOutbox}, so the caller's transaction pays for
+     * neither the insert nor the WebSocket send.
+     */
+    public void sendNotification(User user, NotificationType type, String content) {
+        // Only the ID is read, so a reference proxy is not initialized
+        notificationOutbox.enqueue(user.getUserId(), type, content);
     }
 
     public List<Notification> getUnreadNotifications(Long userId) {
@@ -46,49 +66,61 @@ public class NotificationService {
     }
 
     public void markAsRead(Long notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(notification -> {
-            notification.setReadStatus(true);
-            notificationRepository.save(notification);
-        });
+        notificationRepository.findUserIdById(notificationId)
+                .ifPresent(userId -> notificationRepository.markRead(userId, List.of(notificationId)));
     }
 
+    /**
+     * First page of a user's unread notifications that their preferences still allow.
+     */
     public List<Notification> getNotificationsForUser(Long userId) {
-        UserPreferences preferences = getUserPreferences(userId);
-        List<Notification> notifications = getUnreadNotifications(userId);
-
-        NotificationFilter filter = new NotificationFilter(
-                preferences.isReceiveMessages(),
-                preferences.isReceiveItems(),
-                preferences.isReceiveBids(),
-                preferences.getKeywords()
-        );
-
-        return notifications.stream()
-                .filter(notification -> isNotificationRelevant(notification, filter))
-                .collect(Collectors.toList());
+        return getUnreadPage(userId, null, null).getItems();
     }
 
-    private boolean isNotificationRelevant(Notification notif, NotificationFilter filter) {
-        if (notif.getType() == null) return false;
-
-        switch (notif.getType()) {
-            case MESSAGE:
-                return filter.receiveMessages;
-            case ITEM:
-                return isItemNotificationRelevant(notif.getMessage(), filter.receiveItems, filter.keywords);
-            case BID:
-                return filter.receiveBids;
-            default:
-                return false;
+    /**
+     * One page of a user's unread notifications, newest first. Preferences are applied in the
+     * query: disabled types are excluded, and ITEM notifications tagged with a keyword the user
+     * has since removed are skipped. Keyword matching itself happened when the notification was
+     * written.
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit Page size, clamped to the configured maximum
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public NotificationPage getUnreadPage(Long userId, String cursor, Integer limit) {
+        NotificationCursor after = (cursor == null || cursor.isBlank()) ? null : NotificationCursor.decode(cursor);
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+
+        UserPreferences preferences = getUserPreferences(userId);
+        List<NotificationType> types = new ArrayList<>();
+        if (preferences.isReceiveMessages()) types.add(NotificationType.MESSAGE);
+        if (preferences.isReceiveItems()) types.add(NotificationType.ITEM);
+        if (preferences.isReceiveBids()) types.add(NotificationType.BID);
+        if (types.isEmpty()) {
+            return new NotificationPage(new ArrayList<>(), null, false);
         }
-    }
 
-    private boolean isItemNotificationRelevant(String message, boolean receiveItems, List<String> keywords) {
-        if (!receiveItems || message == null) return false;
-        if (keywords == null || keywords.isEmpty()) return true;
+        Set<String> keywords = new HashSet<>();
+        if (preferences.getKeywords() != null) {
+            for (String keyword : preferences.getKeywords()) {
+                String normalized = KeywordMatcher.normalize(keyword);
+                if (!normalized.isEmpty()) {
+                    keywords.add(normalized);
+                }
+            }
+        }
 
-        return keywords.stream()
-                .anyMatch(keyword -> message.toLowerCase().contains(keyword.toLowerCase()));
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Notification> rows = notificationRepository.findUnread(userId, types, keywords, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = page.get(page.size() - 1);
+            nextCursor = new NotificationCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new NotificationPage(page, nextCursor, hasMore);
     }
 
     private UserPreferences getUserPreferences(Long userId) {
@@ -104,26 +136,80 @@ public class NotificationService {
     }
 
     public void markNotificationAsRead(Long notificationId) {
-        Optional<Notification> optionalNotification = notificationRepository.findById(notificationId);
-        if (optionalNotification.isEmpty()) {
+        Optional<Long> userId = notificationRepository.findUserIdById(notificationId);
+        if (userId.isEmpty()) {
             throw new RuntimeException("Notification not found");
         }
-        Notification notification = optionalNotification.get();
-        notification.setReadStatus(true);
-        notificationRepository.save(notification);
+        notificationRepository.markRead(userId.get(), List.of(notificationId));
+    }
+
+    /**
+     * Marks a user's unread notifications read with a single UPDATE.
+     *
+     * @param upToId Only notifications up to and including this ID, so ones that arrived after
+     *               the client last looked stay unread; null marks every notification
+     * @return Number of notifications marked read
+     */
+    public int markAllAsRead(Long userId, Long upToId) {
+        return notificationRepository.markAllRead(userId, upToId);
+    }
+
+    /**
+     * Marks the listed notifications read with a single UPDATE. IDs that belong to other users or
+     * are already read are skipped.
+     *
+     * @return Number of notifications marked read
+     * @throws IllegalArgumentException if more IDs are given than one request may mark
+     */
+    public int markAsRead(Long userId, List<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        if (notificationIds.size() > maxMarkIds) {
+            throw new IllegalArgumentException("At most " + maxMarkIds + " notifications can be marked per request");
+        }
+        return notificationRepository.markRead(userId, new LinkedHashSet<>(notificationIds));
+    }
+
+    /**
+     * A user's unread notification count, maintained as notifications are written and read. It
+     * includes notifications hidden by the user's current preferences.
+     */
+    public long getUnreadCount(Long userId) {
+        return notificationRepository.countUnread(userId);
+    }
+
+    /**
+     * One-off backfill of unread counters for notifications written before counters existed.
+     * Off by default; enable it for the first start after the upgrade and turn it off again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileUnreadCountsOnStartup() {
+        if (reconcileCountsOnStartup) {
+            reconcileUnreadCounts();
+        }
     }
 
-    private static class NotificationFilter {
-        boolean receiveMessages;
-        boolean receiveItems;
-        boolean receiveBids;
-        List<String> keywords;
-
-        NotificationFilter(boolean receiveMessages, boolean receiveItems, boolean receiveBids, List<String> keywords) {
-            this.receiveMessages = receiveMessages;
-            this.receiveItems = receiveItems;
-            this.receiveBids = receiveBids;
-            this.keywords = keywords;
+    /**
+     * Rebuilds unread counters from the notification table, walking user IDs in keyset chunks so
+     * each statement only locks one slice of users.
+     *
+     * @return Number of counter rows written
+     */
+    public int reconcileUnreadCounts() {
+        int reconciled = 0;
+        long afterId = 0L;
+        while (true) {
+            // User IDs start at 1, so excluding 0 skips nobody
+            List<Long> userIds = userRepository.findUserIdsAfter(afterId, 0L, PageRequest.of(0, reconcileChunkSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            long lastId = userIds.get(userIds.size() - 1);
+            reconciled += notificationRepository.reconcileUnreadCounts(afterId + 1, lastId);
+            afterId = lastId;
         }
+        logger.info("Reconciled unread notification counts for {} users", reconciled);
+        return reconciled;
     }
-}
\ No newline at end of file
+}
@@ -46,6 +46,12 @@ public class PaymentService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
     private static final BigDecimal STRIPE_AMOUNT_DIVISOR = BigDecimal.valueOf(100);
 
     public String createCheckoutSession(Order order) throws StripeException {
@@ -513,8 +519,14 @@ public class PaymentService {
         for (OrderItem orderItem : order.getItems()) {
             Listing listing = orderItem.getListing();
             if (listing != null && !isBidPurchase(order.getOrderId())) {
-                updateListingQuantity(listing, orderItem.getQuantity());
-                listingRepository.save(listing);
+                // Targeted update: the charge has already been captured, so this must not fail
+                // on a concurrent bid's version bump
+                listingRepository.applyPurchase(listing, orderItem.getQuantity());
+                if (listing.getStatus() == Listing.ListingStatus.SOLD) {
+                    logger.info("Listing ID: {} is now SOLD (out of stock)", listing.getId());
+                }
+                listingSearchIndex.update(listing);
+                listingDetailCache.invalidate(listing.getId());
                 logger.info("Updated inventory for listing ID: {}, new quantity: {}",
                         listing.getId(), listing.getQuantity());
             }
@@ -525,15 +537,6 @@ public class PaymentService {
         return bidRepository.findByOrderId(orderId).isPresent();
     }
 
-    private void updateListingQuantity(Listing listing, int purchasedQuantity) {
-        int newQuantity = Math.max(listing.getQuantity() - purchasedQuantity, 0);
-        listing.setQuantity(newQuantity);
-        if (newQuantity <= 0) {
-            listing.setStatus(Listing.ListingStatus.SOLD);
-            logger.info("Listing ID: {} is now SOLD (out of stock)", listing.getId());
-        }
-    }
-
     @Transactional
     public void handleBidPaymentCompletion(Long orderId) {
         Order order = orderService.getOrderById(orderId);
@@ -549,8 +552,9 @@ public class PaymentService {
         bid.setStatus(BidStatus.PAID);
         bidRepository.save(bid);
 
-        listing.setStatus(Listing.ListingStatus.SOLD);
-        listingRepository.save(listing);
+        listingRepository.updateStatus(listing, Listing.ListingStatus.SOLD);
+        listingSearchIndex.update(listing);
+        listingDetailCache.invalidate(listing.getId());
 
         sendBidCompletionNotifications(bid, listing);
 
@@ -583,8 +587,9 @@ public class PaymentService {
 
     private void processBidFailure(Bid bid) {
         Listing listing = bid.getListing();
-        listing.setStatus(Listing.ListingStatus.ACTIVE);
-        listingRepository.save(listing);
+        listingRepository.updateStatus(listing, Listing.ListingStatus.ACTIVE);
+        listingSearchIndex.update(listing);
+        listingDetailCache.invalidate(listing.getId());
         sendBidFailureNotifications(bid, listing);
 
         Long bidId = bid.getId();
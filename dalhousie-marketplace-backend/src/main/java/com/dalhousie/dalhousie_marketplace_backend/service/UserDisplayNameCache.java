@@ -0,0 +1,110 @@
+package com.dalhousie.dalhousie_marketplace_backend.service;
+
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of usernames by user ID for hot paths that only need a display name, such
+ * as sending a chat message. Misses select the username column alone instead of loading the user.
+ * Usernames are not changed after registration, so entries are only evicted least-recently-used
+ * and by TTL. Unknown users are not cached.
+ */
+@Service
+public class UserDisplayNameCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${marketplace.display-names.max-size:50000}")
+    private int maxSize = 50000;
+
+    @Value("${marketplace.display-names.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    private final LinkedHashMap<Long, CachedName> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedName> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Returns a user's username, loading it on a miss.
+     *
+     * @param userId The user
+     * @return The username, or null if the user does not exist
+     */
+    public String getUsername(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedName cached = entries.get(userId);
+            if (cached != null) {
+                if (now - cached.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                    hits.increment();
+                    return cached.username;
+                }
+                entries.remove(userId);
+            }
+        }
+
+        misses.increment();
+        String username = userRepository.findUsernameById(userId).orElse(null);
+        if (username != null) {
+            synchronized (entries) {
+                entries.put(userId, new CachedName(username, now));
+            }
+        }
+        return username;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Snapshot of size and hit rate.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? (double) hitCount / requests : 0.0);
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private static class CachedName {
+        final String username;
+        final long loadedAt;
+
+        CachedName(String username, long loadedAt) {
+            this.username = username;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
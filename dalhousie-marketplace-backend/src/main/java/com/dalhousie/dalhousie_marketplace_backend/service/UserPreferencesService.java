@@ -4,10 +4,12 @@ import com.dalhousie.dalhousie_marketplace_backend.model.User;
 import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class UserPreferencesService {
@@ -18,6 +20,9 @@ public class UserPreferencesService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private KeywordMatcher keywordMatcher;
+
     /**
      * Retrieves user preferences by user ID.
      */
@@ -45,6 +50,7 @@ public class UserPreferencesService {
         }
 
         userPreferencesRepository.save(preferences);
+        publishKeywords(userId, preferences);
     }
 
     /**
@@ -57,6 +63,7 @@ public class UserPreferencesService {
         if (preferences != null) {
             preferences.getKeywords().add(keyword.trim());
             userPreferencesRepository.save(preferences);
+            publishKeywords(userId, preferences);
         }
     }
 
@@ -70,9 +77,20 @@ public class UserPreferencesService {
         if (preferences != null) {
             preferences.getKeywords().removeIf(k -> k.equalsIgnoreCase(keyword));
             userPreferencesRepository.save(preferences);
+            publishKeywords(userId, preferences);
         }
     }
 
+    /**
+     * Hands the saved keyword list to the matcher once the change is committed.
+     */
+    private void publishKeywords(Long userId, UserPreferences preferences) {
+        List<String> keywords = preferences.getKeywords() != null
+                ? new ArrayList<>(preferences.getKeywords())
+                : new ArrayList<>();
+        TransactionHooks.afterCommit(() -> keywordMatcher.setKeywords(userId, keywords));
+    }
+
     /**
      * Helper method to fetch a user by ID or throw exception.
      */
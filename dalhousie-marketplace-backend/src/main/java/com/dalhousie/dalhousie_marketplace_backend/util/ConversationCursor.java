@@ -0,0 +1,53 @@
+package com.dalhousie.dalhousie_marketplace_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position in an inbox: the (lastMessageAt, id) of the last conversation summary on a page.
+ * Encoded as an opaque URL-safe token so clients don't depend on its shape.
+ */
+public final class ConversationCursor {
+    private final Date lastMessageAt;
+    private final Long id;
+
+    public ConversationCursor(Date lastMessageAt, Long id) {
+        this.lastMessageAt = lastMessageAt;
+        this.id = id;
+    }
+
+    public Date getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = lastMessageAt.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A value previously produced by {@link #encode()}
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ConversationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            long lastMessageAtMillis = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new ConversationCursor(new Date(lastMessageAtMillis), id);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 decoding errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
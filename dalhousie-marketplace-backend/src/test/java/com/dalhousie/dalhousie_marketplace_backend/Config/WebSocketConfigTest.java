@@ -0,0 +1,69 @@
+package com.dalhousie.dalhousie_marketplace_backend.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for choosing the STOMP broker with marketplace.websocket.broker.
+ */
+class WebSocketConfigTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(WebSocketConfig.class);
+
+    @Test
+    void simpleBroker_IsTheDefault() {
+        contextRunner.run(context -> {
+            assertNull(context.getStartupFailure());
+            assertNotNull(context.getBean(SimpleBrokerMessageHandler.class));
+            assertTrue(context.getBeansOfType(StompBrokerRelayMessageHandler.class).isEmpty());
+        });
+    }
+
+    @Test
+    void relayBroker_UsesConfiguredHostPortAndCredentials() {
+        contextRunner
+                .withPropertyValues(
+                        "marketplace.websocket.broker=relay",
+                        "marketplace.websocket.relay.host=broker.internal",
+                        "marketplace.websocket.relay.port=61614",
+                        "marketplace.websocket.relay.virtual-host=marketplace",
+                        "marketplace.websocket.relay.client-login=client",
+                        "marketplace.websocket.relay.client-passcode=client-secret",
+                        "marketplace.websocket.relay.system-login=system",
+                        "marketplace.websocket.relay.system-passcode=system-secret")
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+                    assertEquals("broker.internal", relay.getRelayHost());
+                    assertEquals(61614, relay.getRelayPort());
+                    assertEquals("marketplace", relay.getVirtualHost());
+                    assertEquals("client", relay.getClientLogin());
+                    assertEquals("client-secret", relay.getClientPasscode());
+                    assertEquals("system", relay.getSystemLogin());
+                    assertEquals("system-secret", relay.getSystemPasscode());
+                    assertTrue(context.getBeansOfType(SimpleBrokerMessageHandler.class).isEmpty());
+                });
+    }
+
+    @Test
+    void unknownBroker_FailsStartup() {
+        contextRunner
+                .withPropertyValues("marketplace.websocket.broker=kafka")
+                .run(context -> {
+                    Throwable failure = context.getStartupFailure();
+                    assertNotNull(failure);
+                    Throwable cause = failure;
+                    while (cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                    assertInstanceOf(IllegalArgumentException.class, cause);
+                    assertEquals("Unknown marketplace.websocket.broker: kafka (expected simple or relay)",
+                            cause.getMessage());
+                });
+    }
+}
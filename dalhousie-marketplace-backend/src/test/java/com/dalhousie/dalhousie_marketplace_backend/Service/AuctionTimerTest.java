@@ -0,0 +1,130 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.AuctionDeadline;
+import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.AuctionTimer;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for loading auction deadlines from the database and closing them when they fall due.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuctionTimerTest {
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    @Mock
+    private BidService bidService;
+
+    @InjectMocks
+    private AuctionTimer auctionTimer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(auctionTimer, "retryDelayMillis", 50L);
+        ReflectionTestUtils.invokeMethod(auctionTimer, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(auctionTimer, "stop");
+    }
+
+    @Test
+    void recover_ClosesAuctionsThatExpiredWhileDown() {
+        when(listingRepository.findAuctionsEndingBy(eq(Listing.ListingStatus.ACTIVE), any(), any(), any(), any()))
+                .thenReturn(List.of(new AuctionDeadline(1L, new Date(System.currentTimeMillis() - 60_000))));
+        when(bidService.closeExpiredAuction(1L)).thenReturn(new Bid());
+
+        auctionTimer.recover();
+
+        verify(bidService, timeout(2000)).closeExpiredAuction(1L);
+        assertEquals(0, auctionTimer.size());
+    }
+
+    @Test
+    void scan_PagesThroughDeadlinesInEndTimeOrder() {
+        long now = System.currentTimeMillis();
+        List<AuctionDeadline> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            firstPage.add(new AuctionDeadline(id, new Date(now + 600_000)));
+        }
+        AuctionDeadline last = firstPage.get(499);
+        when(listingRepository.findAuctionsEndingBy(eq(Listing.ListingStatus.ACTIVE), any(), eq(new Date(0)), eq(0L), any(Pageable.class)))
+                .thenReturn(firstPage);
+        when(listingRepository.findAuctionsEndingBy(eq(Listing.ListingStatus.ACTIVE), any(), eq(last.getEndsAt()), eq(500L), any(Pageable.class)))
+                .thenReturn(List.of(new AuctionDeadline(501L, new Date(now + 700_000))));
+
+        assertEquals(501, auctionTimer.scan());
+        assertEquals(501, auctionTimer.size());
+
+        // A second scan finds the same deadlines and does not queue them twice
+        auctionTimer.scan();
+        assertEquals(501, auctionTimer.size());
+        verifyNoInteractions(bidService);
+    }
+
+    @Test
+    void schedule_ReplacesDeadlineWhenEndTimeChanges() throws Exception {
+        Listing listing = new Listing();
+        listing.setId(7L);
+        listing.setBiddingAllowed(true);
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() + 600_000));
+        auctionTimer.schedule(listing);
+        assertEquals(1, auctionTimer.size());
+
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() + 100));
+        auctionTimer.schedule(listing);
+
+        verify(bidService, timeout(2000)).closeExpiredAuction(7L);
+        Thread.sleep(100);
+        verify(bidService, times(1)).closeExpiredAuction(7L);
+    }
+
+    @Test
+    void schedule_IgnoresAuctionsBeyondHorizon() {
+        Listing listing = new Listing();
+        listing.setId(8L);
+        listing.setBiddingAllowed(true);
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() + 86_400_000));
+
+        auctionTimer.schedule(listing);
+
+        assertEquals(0, auctionTimer.size());
+    }
+
+    @Test
+    void close_RetriesAfterFailure() {
+        when(listingRepository.findAuctionsEndingBy(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(new AuctionDeadline(3L, new Date(System.currentTimeMillis() - 1000))));
+        when(bidService.closeExpiredAuction(3L))
+                .thenThrow(new RuntimeException("Listing 3 is busy, please try again"))
+                .thenReturn(null);
+
+        auctionTimer.scan();
+
+        verify(bidService, timeout(2000).times(2)).closeExpiredAuction(3L);
+        assertEquals(1L, auctionTimer.getStats().get("closeFailures"));
+    }
+}
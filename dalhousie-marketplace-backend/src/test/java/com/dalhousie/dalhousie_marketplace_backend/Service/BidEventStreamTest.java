@@ -0,0 +1,148 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidEvent;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidEventFrame;
+import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidEventStream;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for coalescing bid changes into frames numbered by listing version and for the resync
+ * snapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+class BidEventStreamTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private ListingBidBook listingBidBook;
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    @InjectMocks
+    private BidEventStream bidEventStream;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bidEventStream, "windowMillis", 200L);
+        ReflectionTestUtils.invokeMethod(bidEventStream, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(bidEventStream, "stop");
+    }
+
+    private Listing listing(long version) {
+        Listing listing = new Listing();
+        listing.setId(7L);
+        listing.setVersion(version);
+        return listing;
+    }
+
+    private Bid bid(Long id, Double price, BidStatus status) {
+        return bid(id, price, status, 1L);
+    }
+
+    private Bid bid(Long id, Double price, BidStatus status, long version) {
+        Listing listing = listing(version);
+        Bid bid = new Bid();
+        bid.setId(id);
+        bid.setListing(listing);
+        bid.setProposedPrice(price);
+        bid.setStatus(status);
+        return bid;
+    }
+
+    @Test
+    void publish_CoalescesBurstIntoOneFrameWithLatestState() {
+        bidEventStream.publish(bid(1L, 50.0, BidStatus.PENDING));
+        bidEventStream.publish(bid(2L, 60.0, BidStatus.PENDING));
+        bidEventStream.publish(bid(1L, 50.0, BidStatus.REJECTED));
+
+        ArgumentCaptor<BidEventFrame> frame = ArgumentCaptor.forClass(BidEventFrame.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/bids/7"), frame.capture());
+
+        List<BidEvent> bids = frame.getValue().getBids();
+        assertEquals(1L, frame.getValue().getSeq());
+        assertEquals(2, bids.size());
+        assertEquals(BidStatus.REJECTED, bids.get(0).getStatus());
+        assertEquals(1L, bids.get(0).getSeq());
+        assertEquals(1L, bidEventStream.getStats().get("eventsCoalesced"));
+    }
+
+    @Test
+    void publish_NumbersFramesWithListingVersion() throws Exception {
+        bidEventStream.publish(bid(1L, 50.0, BidStatus.PENDING, 3L));
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/bids/7"), any(BidEventFrame.class));
+
+        // Another instance's commits took versions 4 and 5
+        bidEventStream.publish(listing(6L), List.of(new BidBookEntry(2L, 3L, 40.0, BidStatus.REJECTED)));
+
+        ArgumentCaptor<BidEventFrame> frames = ArgumentCaptor.forClass(BidEventFrame.class);
+        verify(messagingTemplate, timeout(2000).times(2)).convertAndSend(eq("/topic/bids/7"), frames.capture());
+        assertEquals(List.of(3L, 6L), frames.getAllValues().stream().map(BidEventFrame::getSeq).toList());
+        assertEquals(6L, frames.getAllValues().get(1).getBids().get(0).getSeq());
+    }
+
+    @Test
+    void publish_KeepsNewerStateWhenOlderChangeArrivesInSameWindow() {
+        bidEventStream.publish(bid(1L, 60.0, BidStatus.PENDING, 5L));
+        bidEventStream.publish(bid(1L, 50.0, BidStatus.PENDING, 4L));
+
+        ArgumentCaptor<BidEventFrame> frame = ArgumentCaptor.forClass(BidEventFrame.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/bids/7"), frame.capture());
+        assertEquals(5L, frame.getValue().getSeq());
+        assertEquals(60.0, frame.getValue().getBids().get(0).getPrice());
+    }
+
+    @Test
+    void flush_DropsTheListingBuffer() {
+        bidEventStream.publish(bid(1L, 50.0, BidStatus.PENDING));
+        assertEquals(1, bidEventStream.getStats().get("topics"));
+
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/bids/7"), any(BidEventFrame.class));
+        assertEquals(0, bidEventStream.getStats().get("topics"));
+
+        // A later change starts a new buffer and is still sent
+        bidEventStream.publish(bid(1L, 55.0, BidStatus.PENDING, 2L));
+        verify(messagingTemplate, timeout(2000).times(2)).convertAndSend(eq("/topic/bids/7"), any(BidEventFrame.class));
+    }
+
+    @Test
+    void snapshot_ReturnsActiveBidsWithListingVersion() {
+        when(listingRepository.findVersionById(7L)).thenReturn(Optional.of(4L));
+        when(listingBidBook.getActiveBids(7L))
+                .thenReturn(List.of(new BidBookEntry(1L, 3L, 50.0, BidStatus.PENDING)));
+
+        BidEventFrame snapshot = bidEventStream.snapshot(7L);
+
+        assertEquals(4L, snapshot.getSeq());
+        assertEquals(1, snapshot.getBids().size());
+        assertEquals(50.0, snapshot.getBids().get(0).getPrice());
+    }
+}
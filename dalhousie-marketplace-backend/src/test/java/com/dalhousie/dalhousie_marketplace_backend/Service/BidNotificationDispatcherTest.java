@@ -0,0 +1,188 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidNotificationDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the post-commit losing-bid notification dispatcher.
+ */
+@ExtendWith(MockitoExtension.class)
+class BidNotificationDispatcherTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private BidNotificationDispatcher bidNotificationDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bidNotificationDispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(bidNotificationDispatcher, "queueCapacity", 10);
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "stop");
+    }
+
+    private List<BidBookEntry> rejected(int count) {
+        List<BidBookEntry> bids = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            bids.add(new BidBookEntry(i, 100L + i, 10.0 * i, BidStatus.REJECTED));
+        }
+        return bids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Notification> dispatchAndCollectInserted(List<BidBookEntry> bids) {
+        List<Notification> inserted = new ArrayList<>();
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+
+        bidNotificationDispatcher.dispatchRejections(7L, bids, bid -> "Bid " + bid.getBidId() + " was not selected");
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "stop");
+        return inserted;
+    }
+
+    @Test
+    void dispatchRejections_WritesNotificationsInBatches() {
+        List<Notification> inserted = dispatchAndCollectInserted(rejected(3));
+
+        assertEquals(3, inserted.size());
+        verify(notificationRepository, times(2)).insertAll(anyList());
+        assertEquals(Arrays.asList(101L, 102L, 103L),
+                inserted.stream().map(n -> n.getUser().getUserId()).toList());
+        assertEquals("Bid 1 was not selected", inserted.get(0).getMessage());
+        assertEquals(NotificationType.BID, inserted.get(0).getType());
+    }
+
+    @Test
+    void dispatchRejections_PushesToBuyers() {
+        dispatchAndCollectInserted(rejected(2));
+
+        verify(messagingTemplate).convertAndSend(eq("/queue/notifications/101"), any(Notification.class));
+        verify(messagingTemplate).convertAndSend(eq("/queue/notifications/102"), any(Notification.class));
+    }
+
+    @Test
+    void dispatchRejections_NoLosersDoesNothing() {
+        bidNotificationDispatcher.dispatchRejections(7L, Collections.emptyList(), bid -> "unused");
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "stop");
+
+        verifyNoInteractions(notificationRepository, messagingTemplate);
+        assertEquals(0L, bidNotificationDispatcher.getStats().get("listingsDispatched"));
+    }
+
+    @Test
+    void getStats_ReportsCompletedWork() {
+        dispatchAndCollectInserted(rejected(3));
+
+        assertEquals(1L, bidNotificationDispatcher.getStats().get("listingsDispatched"));
+        assertEquals(3L, bidNotificationDispatcher.getStats().get("notificationsWritten"));
+    }
+
+    @Test
+    void dispatchRejections_FullQueueWritesAfterLockReleaseInItsOwnTransaction() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:bid_notifications;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notification (user_id BIGINT, message VARCHAR(255))");
+        jdbcTemplate.execute("DELETE FROM notification");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        // Restart with a one-slot queue and a real transaction manager
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "stop");
+        ReflectionTestUtils.setField(bidNotificationDispatcher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(bidNotificationDispatcher, "transactionManager", transactionManager);
+        ReflectionTestUtils.invokeMethod(bidNotificationDispatcher, "start");
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean lockReleased = new AtomicBoolean();
+        AtomicBoolean writtenAfterRelease = new AtomicBoolean();
+        AtomicInteger committedInserts = new AtomicInteger();
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            if (Thread.currentThread().getName().equals("bid-notifications")) {
+                // Keep the worker busy so the queue stays full
+                release.await(5, TimeUnit.SECONDS);
+                return batch.size();
+            }
+            writtenAfterRelease.set(lockReleased.get());
+            for (Notification notification : batch) {
+                jdbcTemplate.update("INSERT INTO notification (user_id, message) VALUES (?, ?)",
+                        notification.getUser().getUserId(), notification.getMessage());
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedInserts.incrementAndGet();
+                }
+            });
+            return batch.size();
+        });
+
+        try {
+            bidNotificationDispatcher.dispatchRejections(7L, rejected(1), bid -> "Taken by the worker");
+            verify(notificationRepository, timeout(2000)).insertAll(anyList());
+            bidNotificationDispatcher.dispatchRejections(8L, rejected(1), bid -> "Fills the queue");
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Stands in for the listing lock, which is released when the bid transaction completes
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        lockReleased.set(true);
+                    }
+                });
+                bidNotificationDispatcher.dispatchRejections(9L, rejected(1), bid -> "Written by the caller");
+            });
+
+            assertTrue(writtenAfterRelease.get());
+            assertEquals(1, committedInserts.get());
+            assertEquals(List.of("Written by the caller"),
+                    jdbcTemplate.queryForList("SELECT message FROM notification", String.class));
+            verify(messagingTemplate).convertAndSend(eq("/queue/notifications/101"), any(Notification.class));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.dalhousie.dalhousie_marketplace_backend.Service;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
 import com.dalhousie.dalhousie_marketplace_backend.repository.BidRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.OrderRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.OrderItemRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidEventStream;
+import com.dalhousie.dalhousie_marketplace_backend.service.BidNotificationDispatcher;
 import com.dalhousie.dalhousie_marketplace_backend.service.BidService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidBook;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidLocks;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingDetailCache;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingSearchIndex;
 import com.dalhousie.dalhousie_marketplace_backend.service.NotificationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +22,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -50,7 +63,22 @@ public class BidServiceTest {
     private NotificationService notificationService;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private BidEventStream bidEventStream;
+
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
+    @Mock
+    private ListingDetailCache listingDetailCache;
+
+    @Mock
+    private ListingBidBook listingBidBook;
+
+    @Mock
+    private BidNotificationDispatcher bidNotificationDispatcher;
+
+    @Mock
+    private ListingBidLocks listingBidLocks;
 
     @InjectMocks
     private BidService bidService;
@@ -66,6 +94,11 @@ public class BidServiceTest {
      */
     @BeforeEach
     void setUp() {
+        // Run bid mutations inline; locking and retries are covered by ListingBidLocksTest
+        lenient().when(listingBidLocks.execute(any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        lenient().when(bidRepository.findListingIdById(any())).thenReturn(Optional.of(1L));
+
         buyer = new User();
         buyer.setUserId(1L);
         buyer.setEmail("buyer@example.com");
@@ -104,7 +137,7 @@ public class BidServiceTest {
         Double proposedPrice = 80.0;
         String additionalTerms = "I can pick it up today";
 
-        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
         when(userRepository.findById(buyer.getUserId())).thenReturn(Optional.of(buyer));
         when(bidRepository.save(any(Bid.class))).thenReturn(bid);
 
@@ -114,6 +147,7 @@ public class BidServiceTest {
         assertEquals(proposedPrice, result.getProposedPrice());
         assertEquals(additionalTerms, result.getAdditionalTerms());
         assertEquals(BidStatus.PENDING, result.getStatus());
+        verify(listingBidBook).record(bid);
 
         verify(notificationService).sendNotification(
                 eq(seller),
@@ -122,12 +156,75 @@ public class BidServiceTest {
         );
     }
 
+    /**
+     * Tests that a proxy bid beats a weaker rival proxy by one increment and pushes the rival to its maximum.
+     */
+    @Test
+    void proxyBidOutbidsRivalProxyByOneIncrement() {
+        Bid rivalBid = rivalBid(60.0, 70.0);
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(userRepository.findById(buyer.getUserId())).thenReturn(Optional.of(buyer));
+        when(bidRepository.findStrongestRivals(eq(listing.getId()), eq(buyer.getUserId()), any(Pageable.class)))
+                .thenReturn(List.of(new BidBookEntry(5L, 3L, 60.0, BidStatus.PENDING, 70.0)));
+        when(bidRepository.findById(5L)).thenReturn(Optional.of(rivalBid));
+        when(bidRepository.save(any(Bid.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Bid result = bidService.createBid(listing.getId(), buyer.getUserId(), 60.0, null, 100.0);
+
+        assertEquals(71.0, result.getProposedPrice());
+        assertEquals(100.0, result.getMaxPrice());
+        assertEquals(70.0, rivalBid.getProposedPrice());
+        verify(bidRepository, times(2)).save(any(Bid.class));
+        verify(listingBidBook).record(rivalBid);
+        verify(bidEventStream).publish(rivalBid);
+    }
+
+    /**
+     * Tests that a fixed bid below a rival proxy's maximum is outbid straight away.
+     */
+    @Test
+    void fixedBidBelowRivalProxyIsOutbid() {
+        Bid rivalBid = rivalBid(60.0, 150.0);
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(userRepository.findById(buyer.getUserId())).thenReturn(Optional.of(buyer));
+        when(bidRepository.findStrongestRivals(eq(listing.getId()), eq(buyer.getUserId()), any(Pageable.class)))
+                .thenReturn(List.of(new BidBookEntry(5L, 3L, 60.0, BidStatus.PENDING, 150.0)));
+        when(bidRepository.findById(5L)).thenReturn(Optional.of(rivalBid));
+        when(bidRepository.save(any(Bid.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Bid result = bidService.createBid(listing.getId(), buyer.getUserId(), 80.0, null);
+
+        assertEquals(80.0, result.getProposedPrice());
+        assertEquals(81.0, rivalBid.getProposedPrice());
+        verify(notificationService).sendNotification(
+                eq(buyer),
+                eq(NotificationType.BID),
+                contains("was immediately outbid")
+        );
+    }
+
+    /**
+     * Tests that a proxy maximum below the opening price is rejected.
+     */
+    @Test
+    void proxyBidMaximumBelowProposedPrice() {
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(userRepository.findById(buyer.getUserId())).thenReturn(Optional.of(buyer));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            bidService.createBid(listing.getId(), buyer.getUserId(), 80.0, null, 70.0);
+        });
+
+        assertEquals("Maximum bid must be at least the proposed price", exception.getMessage());
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
     /**
      * Tests that bidding on a non-existent listing throws an exception.
      */
     @Test
     void bidOnNonExistentListing() {
-        when(listingRepository.findById(99L)).thenReturn(Optional.empty());
+        when(listingRepository.findForBiddingById(99L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             bidService.createBid(99L, buyer.getUserId(), 80.0, "Terms");
@@ -137,7 +234,7 @@ public class BidServiceTest {
     }
     @Test
     void createBid_BelowStartingBid() {
-        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
         when(userRepository.findById(buyer.getUserId())).thenReturn(Optional.of(buyer));
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -154,7 +251,7 @@ public class BidServiceTest {
     @Test
     void bidWhenNotAllowed() {
         listing.setBiddingAllowed(false);
-        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             bidService.createBid(listing.getId(), buyer.getUserId(), 80.0, "Terms");
@@ -163,12 +260,74 @@ public class BidServiceTest {
         assertEquals("This listing does not allow bidding", exception.getMessage());
     }
 
+    /**
+     * Tests that bids are refused once bidding on a listing has closed.
+     */
+    @Test
+    void bidOnClosedListing() {
+        listing.setStatus(Listing.ListingStatus.INACTIVE);
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            bidService.createBid(listing.getId(), buyer.getUserId(), 80.0, "Terms");
+        });
+
+        assertEquals("This listing is no longer open for bidding", exception.getMessage());
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
+    /**
+     * Tests that bids are refused once a timed auction's end time has passed.
+     */
+    @Test
+    void bidAfterAuctionEnded() {
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() - 1000));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            bidService.createBid(listing.getId(), buyer.getUserId(), 80.0, "Terms");
+        });
+
+        assertEquals("Bidding on this listing has ended", exception.getMessage());
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
+    /**
+     * Tests that bid mutations run under the listing's lock.
+     */
+    @Test
+    void bidMutationsRunUnderListingLock() {
+        when(bidRepository.findListingIdById(bid.getId())).thenReturn(Optional.of(listing.getId()));
+        when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(bidRepository.save(any(Bid.class))).thenReturn(bid);
+
+        bidService.updateBidStatus(bid.getId(), seller.getUserId(), BidStatus.REJECTED);
+
+        verify(listingBidLocks).execute(eq(listing.getId()), any());
+    }
+
+    /**
+     * Tests that accepting an unknown bid fails before any lock is taken.
+     */
+    @Test
+    void acceptSingleBid_UnknownBid() {
+        when(bidRepository.findListingIdById(99L)).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            bidService.acceptSingleBid(99L, seller.getUserId());
+        });
+
+        assertEquals("Bid not found", exception.getMessage());
+        verifyNoInteractions(listingBidLocks);
+    }
+
     /**
      * Tests that sellers cannot bid on their own listings.
      */
     @Test
     void sellerBidOnOwnListing() {
-        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
         when(userRepository.findById(seller.getUserId())).thenReturn(Optional.of(seller));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
@@ -184,26 +343,104 @@ public class BidServiceTest {
     @Test
     void sellerAcceptsBid() {
         when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(orderRepository.save(any(Order.class))).thenReturn(new Order());
         when(bidRepository.save(any(Bid.class))).thenReturn(bid);
 
         Bid result = bidService.updateBidStatus(bid.getId(), seller.getUserId(), BidStatus.ACCEPTED);
 
         assertNotNull(result);
         assertEquals(BidStatus.ACCEPTED, result.getStatus());
+        assertEquals(Listing.ListingStatus.INACTIVE, listing.getStatus());
+        verify(bidRepository).rejectActiveBidsExcept(listing.getId(), bid.getId());
 
         verify(notificationService).sendNotification(
                 eq(buyer),
                 eq(NotificationType.BID),
-                contains("was accepted")
+                contains("has been accepted")
         );
     }
 
+    /**
+     * Tests that a bid cannot be accepted through a status update once the listing has closed.
+     */
+    @Test
+    void updateBidStatus_AcceptOnClosedListing() {
+        listing.setStatus(Listing.ListingStatus.INACTIVE);
+        when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            bidService.updateBidStatus(bid.getId(), seller.getUserId(), BidStatus.ACCEPTED);
+        });
+
+        assertEquals("This listing is no longer open for bidding", exception.getMessage());
+        assertEquals(BidStatus.PENDING, bid.getStatus());
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
+    /**
+     * Tests that a status-update accept racing a finalize under the real listing lock lets only
+     * one bid win.
+     */
+    @Test
+    void updateBidStatus_AcceptRacingFinalizeAcceptsOneBid() throws Exception {
+        ListingBidLocks locks = new ListingBidLocks();
+        ReflectionTestUtils.setField(locks, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.invokeMethod(locks, "start");
+        ReflectionTestUtils.setField(bidService, "listingBidLocks", locks);
+
+        Bid rivalBid = rivalBid(90.0, null);
+        lenient().when(bidRepository.findById(rivalBid.getId())).thenReturn(Optional.of(rivalBid));
+        lenient().when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        lenient().when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        lenient().when(bidRepository.findHighestPending(listing.getId(), PageRequest.of(0, 1))).thenReturn(List.of(bid));
+        lenient().when(bidRepository.save(any(Bid.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                listing.setStatus(Listing.ListingStatus.ACTIVE);
+                bid.setStatus(BidStatus.PENDING);
+                rivalBid.setStatus(BidStatus.PENDING);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Bid> finalized = pool.submit(() -> {
+                    start.await();
+                    return bidService.finalizeBidding(listing.getId(), seller.getUserId());
+                });
+                Future<Bid> accepted = pool.submit(() -> {
+                    start.await();
+                    return bidService.updateBidStatus(rivalBid.getId(), seller.getUserId(), BidStatus.ACCEPTED);
+                });
+                start.countDown();
+
+                int winners = 0;
+                for (Future<Bid> outcome : List.of(finalized, accepted)) {
+                    try {
+                        outcome.get(10, TimeUnit.SECONDS);
+                        winners++;
+                    } catch (ExecutionException e) {
+                        assertEquals("This listing is no longer open for bidding", e.getCause().getMessage());
+                    }
+                }
+                assertEquals(1, winners);
+                assertEquals(1, (bid.getStatus() == BidStatus.ACCEPTED ? 1 : 0)
+                        + (rivalBid.getStatus() == BidStatus.ACCEPTED ? 1 : 0));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * Tests that a seller can reject a bid and proper notifications are sent.
      */
     @Test
     void sellerRejectsBid() {
         when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
         when(bidRepository.save(any(Bid.class))).thenReturn(bid);
 
         Bid result = bidService.updateBidStatus(bid.getId(), seller.getUserId(), BidStatus.REJECTED);
@@ -283,6 +520,7 @@ public class BidServiceTest {
         String counterTerms = "I can do 90$ if you pick it up";
 
         when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
 
         Bid counterBid = new Bid();
         counterBid.setId(2L);
@@ -318,14 +556,12 @@ public class BidServiceTest {
      */
     @Test
     void countActiveBids() {
-        when(bidRepository.countByListingIdAndStatusIn(
-                eq(listing.getId()),
-                anyList()
-        )).thenReturn(5);
+        when(listingBidBook.getActiveCount(listing.getId())).thenReturn(5);
 
         int count = bidService.getActiveBidCount(listing.getId());
 
         assertEquals(5, count);
+        verifyNoInteractions(bidRepository);
     }
 
     @Test
@@ -350,6 +586,7 @@ public class BidServiceTest {
     void acceptSingleBid_Success() {
         bid.setStatus(BidStatus.PENDING);
         when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
         when(listingRepository.save(any(Listing.class))).thenReturn(listing);
         when(orderRepository.save(any(Order.class))).thenReturn(new Order());
         when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
@@ -374,13 +611,9 @@ public class BidServiceTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void acceptSingleBid_WithOtherBids() {
-        Bid otherBid = new Bid();
-        otherBid.setId(2L);
-        otherBid.setListing(listing);
-        otherBid.setBuyer(buyer);
-        otherBid.setProposedPrice(85.0);
-        otherBid.setStatus(BidStatus.PENDING);
+        BidBookEntry otherBid = new BidBookEntry(2L, 3L, 85.0, BidStatus.REJECTED);
 
         Order order = new Order();
         order.setOrderId(1L);
@@ -388,18 +621,26 @@ public class BidServiceTest {
         order.setTotalPrice(BigDecimal.valueOf(80.0));
 
         when(bidRepository.findById(bid.getId())).thenReturn(Optional.of(bid));
-        when(bidRepository.findByListingIdAndStatus(listing.getId(), BidStatus.PENDING)).thenReturn(Arrays.asList(otherBid));
-        when(bidRepository.findByListingIdAndStatus(listing.getId(), BidStatus.COUNTERED)).thenReturn(Collections.emptyList());
+        when(listingRepository.findForBiddingById(listing.getId())).thenReturn(Optional.of(listing));
+        when(bidRepository.rejectActiveBidsExcept(listing.getId(), bid.getId())).thenReturn(List.of(otherBid));
         when(listingRepository.save(any(Listing.class))).thenReturn(listing);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(bidRepository.save(any(Bid.class))).thenReturn(bid).thenReturn(otherBid);
+        when(bidRepository.save(any(Bid.class))).thenReturn(bid);
 
         Bid result = bidService.acceptSingleBid(bid.getId(), seller.getUserId());
 
         assertEquals(BidStatus.ACCEPTED, result.getStatus());
-        verify(bidRepository, times(3)).save(any(Bid.class)); // Accepted bid + rejected bid + order link
-        verify(notificationService, times(3)).sendNotification(any(), eq(NotificationType.BID), anyString());
+        verify(bidRepository, times(2)).save(any(Bid.class)); // Accepted bid + order link
+        verify(bidRepository, never()).findByListingIdAndStatus(any(), any());
+        // Winner and seller are notified inline; the loser goes through the dispatcher
+        verify(notificationService, times(2)).sendNotification(any(), eq(NotificationType.BID), anyString());
+
+        ArgumentCaptor<Function<BidBookEntry, String>> message =
+                ArgumentCaptor.forClass(Function.class);
+        verify(bidNotificationDispatcher).dispatchRejections(eq(listing.getId()), eq(List.of(otherBid)), message.capture());
+        assertEquals("Your bid of $85.0 for Test Listing was not selected.", message.getValue().apply(otherBid));
+        verify(bidEventStream).publish(listing, List.of(otherBid));
     }
 
     @Test
@@ -417,26 +658,30 @@ public class BidServiceTest {
         order.setTotalPrice(BigDecimal.valueOf(90.0));
 
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
-        when(bidRepository.findByListingIdAndStatusOrderByProposedPriceDesc(listing.getId(), BidStatus.PENDING))
-                .thenReturn(Arrays.asList(highestBid, bid));
+        when(bidRepository.findHighestPending(listing.getId(), PageRequest.of(0, 1))).thenReturn(List.of(highestBid));
+        when(bidRepository.rejectActiveBidsExcept(listing.getId(), 2L))
+                .thenReturn(List.of(new BidBookEntry(1L, buyer.getUserId(), 80.0, BidStatus.REJECTED)));
         when(listingRepository.save(any(Listing.class))).thenReturn(listing);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(bidRepository.save(any(Bid.class))).thenReturn(highestBid).thenReturn(bid);
+        when(bidRepository.save(any(Bid.class))).thenReturn(highestBid);
 
         Bid result = bidService.finalizeBidding(listing.getId(), seller.getUserId());
 
         assertEquals(BidStatus.ACCEPTED, result.getStatus());
-        verify(bidRepository, times(3)).save(any(Bid.class)); // Winner + rejected + order link
+        assertEquals(2L, result.getId());
+        verify(bidRepository, times(2)).save(any(Bid.class)); // Winner + order link
+        verify(listingBidBook, never()).getActiveBids(any());
+        verify(listingBidBook).close(listing.getId());
         verify(listingRepository).save(any(Listing.class));
         verify(orderRepository, times(2)).save(any(Order.class));
-        verify(notificationService, times(2)).sendNotification(any(), eq(NotificationType.BID), anyString());
+        verify(notificationService, times(1)).sendNotification(any(), eq(NotificationType.BID), anyString());
+        verify(bidNotificationDispatcher).dispatchRejections(eq(listing.getId()), anyList(), any());
     }
     @Test
     void finalizeBidding_NoPendingBids() {
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
-        when(bidRepository.findByListingIdAndStatusOrderByProposedPriceDesc(listing.getId(), BidStatus.PENDING))
-                .thenReturn(Collections.emptyList());
+        when(bidRepository.findHighestPending(listing.getId(), PageRequest.of(0, 1))).thenReturn(List.of());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             bidService.finalizeBidding(listing.getId(), seller.getUserId());
@@ -456,6 +701,69 @@ public class BidServiceTest {
         assertEquals("Only the seller can finalize bidding", exception.getMessage());
     }
 
+    @Test
+    void closeExpiredAuction_AwardsHighestPendingBid() {
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() - 1000));
+        Order order = new Order();
+        order.setOrderId(1L);
+
+        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(bidRepository.findHighestPending(listing.getId(), PageRequest.of(0, 1))).thenReturn(List.of(bid));
+        when(bidRepository.rejectActiveBidsExcept(listing.getId(), 1L)).thenReturn(List.of());
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
 
+        Bid result = bidService.closeExpiredAuction(listing.getId());
 
-}
\ No newline at end of file
+        assertEquals(BidStatus.ACCEPTED, result.getStatus());
+        assertEquals(Listing.ListingStatus.INACTIVE, listing.getStatus());
+        assertNull(listing.getAuctionEndsAt());
+        verify(listingBidLocks).execute(eq(listing.getId()), any());
+        verify(orderItemRepository).save(any(OrderItem.class));
+    }
+
+    @Test
+    void closeExpiredAuction_NoPendingBidsEndsBidding() {
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() - 1000));
+        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+        when(bidRepository.findHighestPending(listing.getId(), PageRequest.of(0, 1))).thenReturn(List.of());
+        when(bidRepository.rejectActiveBidsExcept(listing.getId(), 0L))
+                .thenReturn(List.of(new BidBookEntry(3L, buyer.getUserId(), 95.0, BidStatus.REJECTED)));
+
+        Bid result = bidService.closeExpiredAuction(listing.getId());
+
+        assertNull(result);
+        assertFalse(listing.getBiddingAllowed());
+        assertNull(listing.getAuctionEndsAt());
+        assertEquals(Listing.ListingStatus.ACTIVE, listing.getStatus());
+        verify(listingRepository).save(listing);
+        verify(listingBidBook).close(listing.getId());
+        verify(bidNotificationDispatcher).dispatchRejections(eq(listing.getId()), anyList(), any());
+        verify(notificationService).sendNotification(eq(seller), eq(NotificationType.BID), anyString());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void closeExpiredAuction_NotDueIsNoOp() {
+        listing.setAuctionEndsAt(new Date(System.currentTimeMillis() + 60_000));
+        when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
+
+        assertNull(bidService.closeExpiredAuction(listing.getId()));
+
+        verify(listingRepository, never()).save(any(Listing.class));
+        verifyNoInteractions(listingBidBook, notificationService);
+    }
+
+    private Bid rivalBid(Double price, Double maxPrice) {
+        User rival = new User();
+        rival.setUserId(3L);
+
+        Bid rivalBid = new Bid();
+        rivalBid.setId(5L);
+        rivalBid.setListing(listing);
+        rivalBid.setBuyer(rival);
+        rivalBid.setProposedPrice(price);
+        rivalBid.setMaxPrice(maxPrice);
+        rivalBid.setStatus(BidStatus.PENDING);
+        return rivalBid;
+    }
+}
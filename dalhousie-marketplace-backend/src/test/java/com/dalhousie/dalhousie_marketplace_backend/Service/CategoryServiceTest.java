@@ -13,12 +13,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-        import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 
 /**
- * Test class for CategoryService to ensure full coverage of getAllCategories method
+ * Test class for CategoryService covering the in-memory category registry
  */
 @ExtendWith(MockitoExtension.class)
 public class CategoryServiceTest {
@@ -73,4 +75,80 @@ public class CategoryServiceTest {
         assertTrue(result.isEmpty());
         verify(categoryRepository, times(1)).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllCategories_LoadsOnceAndServesFromRegistry() {
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category1, category2));
+
+        categoryService.getAllCategories();
+        categoryService.getAllCategories();
+        Optional<Category> found = categoryService.findById(2L);
+
+        assertTrue(found.isPresent());
+        assertEquals("Books", found.get().getName());
+        verify(categoryRepository, times(1)).findAll();
+        verify(categoryRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getAllCategories_IsImmutable() {
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category1, category2));
+
+        List<Category> result = categoryService.getAllCategories();
+
+        assertThrows(UnsupportedOperationException.class, () -> result.add(new Category()));
+    }
+
+    @Test
+    void invalidate_NextLookupReloads() {
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category1));
+
+        categoryService.getAllCategories();
+        categoryService.invalidate();
+        categoryService.getAllCategories();
+
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void findById_MissFallsBackToDatabaseAndRefreshes() {
+        when(categoryRepository.findAll())
+                .thenReturn(Arrays.asList(category1))
+                .thenReturn(Arrays.asList(category1, category2));
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category2));
+
+        Optional<Category> found = categoryService.findById(2L);
+
+        assertTrue(found.isPresent());
+        assertEquals(2, categoryService.getAllCategories().size());
+    }
+
+    @Test
+    void findById_UnknownCategoryIsEmpty() {
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category1));
+        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertFalse(categoryService.findById(99L).isPresent());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void getSnapshot_ETagChangesOnlyWhenContentChanges() {
+        Category renamed = new Category();
+        renamed.setId(2L);
+        renamed.setName("Textbooks");
+        when(categoryRepository.findAll())
+                .thenReturn(Arrays.asList(category1, category2))
+                .thenReturn(Arrays.asList(category2, category1))
+                .thenReturn(Arrays.asList(category1, renamed));
+
+        String original = categoryService.getSnapshot().getETag();
+        categoryService.refresh();
+        String reordered = categoryService.getSnapshot().getETag();
+        categoryService.refresh();
+        String changed = categoryService.getSnapshot().getETag();
+
+        assertEquals(original, reordered);
+        assertNotEquals(original, changed);
+    }
+}
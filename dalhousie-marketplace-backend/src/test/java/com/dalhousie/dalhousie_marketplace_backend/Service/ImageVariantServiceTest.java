@@ -0,0 +1,244 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata;
+import com.dalhousie.dalhousie_marketplace_backend.model.ListingImageVariant;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageVariantRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageStorageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageVariantService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for listing image variant generation and selection.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    private static final String ORIGINAL_HASH = "a".repeat(64);
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ListingImageVariantRepository variantRepository;
+
+    @Mock
+    private ListingImageRepository listingImageRepository;
+
+    @InjectMocks
+    private ImageVariantService imageVariantService;
+
+    private final List<byte[]> storedContent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageVariantService, "variantWidths", new int[]{160, 480, 1080});
+        ReflectionTestUtils.invokeMethod(imageVariantService, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(imageVariantService, "stop");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] solidPng(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static ListingImageMetadata metadata(long imageId) {
+        return new ListingImageMetadata(imageId, 5L, "image/png", 100L, true, String.format("%064d", imageId));
+    }
+
+    private void stubStore() throws IOException {
+        when(imageStorageService.store(any(InputStream.class))).thenAnswer(invocation -> {
+            byte[] bytes = invocation.<InputStream>getArgument(0).readAllBytes();
+            storedContent.add(bytes);
+            return new ImageStorageService.StoredImage(String.format("%064d", storedContent.size()), bytes.length);
+        });
+        when(variantRepository.save(any(ListingImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static ListingImageVariant variant(int width) {
+        return new ListingImageVariant(1L, width, width / 2, String.format("%064d", width), "image/jpeg", 100L);
+    }
+
+    @Test
+    void generateVariants_CreatesNarrowerJpegVariants() throws IOException {
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(Collections.emptyList());
+        when(imageStorageService.load(ORIGINAL_HASH)).thenReturn(new ByteArrayResource(png(600, 300)));
+        stubStore();
+
+        List<ListingImageVariant> created = imageVariantService.generateVariants(1L, ORIGINAL_HASH);
+
+        List<Integer> widths = created.stream().map(ListingImageVariant::getWidth).toList();
+        assertTrue(widths.containsAll(List.of(160, 480)));
+        assertTrue(widths.stream().allMatch(width -> width <= 600));
+        ListingImageVariant thumbnail = created.get(0);
+        assertEquals(80, thumbnail.getHeight());
+        assertEquals("image/jpeg", thumbnail.getImageType());
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(storedContent.get(0)));
+        assertEquals(160, decoded.getWidth());
+    }
+
+    @Test
+    void generateVariants_SkipsWidthsThatAlreadyExist() throws IOException {
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(List.of(variant(160), variant(480), variant(600)));
+        when(imageStorageService.load(ORIGINAL_HASH)).thenReturn(new ByteArrayResource(png(600, 300)));
+
+        List<ListingImageVariant> created = imageVariantService.generateVariants(1L, ORIGINAL_HASH);
+
+        assertTrue(created.isEmpty());
+        verify(imageStorageService, never()).store(any(InputStream.class));
+    }
+
+    @Test
+    void generateVariants_UndecodableImageProducesNothing() throws IOException {
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(Collections.emptyList());
+        when(imageStorageService.load(ORIGINAL_HASH)).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+
+        assertTrue(imageVariantService.generateVariants(1L, ORIGINAL_HASH).isEmpty());
+        verify(variantRepository, never()).save(any());
+    }
+
+    @Test
+    void generateVariants_KeepsOriginalWhenReencodeIsNotSmaller() throws IOException {
+        ReflectionTestUtils.setField(imageVariantService, "variantWidths", new int[]{160});
+        byte[] original = solidPng(100, 50);
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(Collections.emptyList());
+        when(imageStorageService.load(ORIGINAL_HASH)).thenReturn(new ByteArrayResource(original));
+        when(listingImageRepository.findMetadataById(1L)).thenReturn(Optional.of(metadata(1L)));
+        when(variantRepository.save(any(ListingImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ListingImageVariant> created = imageVariantService.generateVariants(1L, ORIGINAL_HASH);
+
+        assertEquals(1, created.size());
+        ListingImageVariant marker = created.get(0);
+        assertEquals(100, marker.getWidth());
+        assertEquals(ORIGINAL_HASH, marker.getContentHash());
+        assertEquals("image/png", marker.getImageType());
+        assertEquals(original.length, marker.getImageSize());
+        verify(imageStorageService, never()).store(any(InputStream.class));
+
+        // The next run finds the row and does not re-encode the original again
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(created);
+        assertTrue(imageVariantService.generateVariants(1L, ORIGINAL_HASH).isEmpty());
+        verify(variantRepository, times(1)).save(any(ListingImageVariant.class));
+    }
+
+    @Test
+    void selectVariant_PicksNarrowestWideEnough() {
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(List.of(variant(160), variant(480), variant(1080)));
+
+        assertEquals(160, imageVariantService.selectVariant(1L, 100).get().getWidth());
+        assertEquals(480, imageVariantService.selectVariant(1L, 161).get().getWidth());
+        assertFalse(imageVariantService.selectVariant(1L, 2000).isPresent());
+    }
+
+    @Test
+    void scheduleVariants_RunsOnWorkerPool() throws IOException {
+        when(variantRepository.findByImageIdOrderByWidthAsc(1L)).thenReturn(Collections.emptyList());
+        when(imageStorageService.load(ORIGINAL_HASH)).thenReturn(new ByteArrayResource(png(200, 100)));
+        stubStore();
+
+        imageVariantService.scheduleVariants(1L, ORIGINAL_HASH);
+        ReflectionTestUtils.invokeMethod(imageVariantService, "stop");
+
+        Map<String, Object> stats = imageVariantService.getStats();
+        assertEquals(1L, stats.get("imagesProcessed"));
+        assertEquals(0L, stats.get("imagesFailed"));
+        verify(variantRepository, atLeastOnce()).save(any(ListingImageVariant.class));
+    }
+
+    @Test
+    void scheduleVariants_FullQueueLeavesImageToBackfill() throws Exception {
+        ReflectionTestUtils.invokeMethod(imageVariantService, "stop");
+        ReflectionTestUtils.setField(imageVariantService, "workers", 1);
+        ReflectionTestUtils.setField(imageVariantService, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(imageVariantService, "start");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> loadingThreads = ConcurrentHashMap.newKeySet();
+        when(variantRepository.findByImageIdOrderByWidthAsc(anyLong())).thenReturn(Collections.emptyList());
+        when(imageStorageService.load(anyString())).thenAnswer(invocation -> {
+            loadingThreads.add(Thread.currentThread().getName());
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ByteArrayResource(new byte[]{1, 2, 3});
+        });
+        when(listingImageRepository.findImagesWithoutVariantsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(metadata(3L)), List.of(metadata(1L), metadata(2L), metadata(3L)));
+
+        try {
+            imageVariantService.scheduleVariants(1L, metadata(1L).getContentHash());
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            imageVariantService.scheduleVariants(2L, metadata(2L).getContentHash());
+            imageVariantService.scheduleVariants(3L, metadata(3L).getContentHash());
+
+            // The third upload is dropped instead of being decoded on the uploading thread
+            assertEquals(2L, imageVariantService.getStats().get("imagesQueued"));
+            assertEquals(1L, imageVariantService.getStats().get("imagesDeferred"));
+            assertEquals(0, imageVariantService.backfillVariants());
+        } finally {
+            release.countDown();
+        }
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!Long.valueOf(2L).equals(imageVariantService.getStats().get("imagesProcessed"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the worker");
+            Thread.sleep(10);
+        }
+
+        // Undecodable images are not retried; the deferred one is picked up
+        assertEquals(1, imageVariantService.backfillVariants());
+        ReflectionTestUtils.invokeMethod(imageVariantService, "stop");
+
+        assertEquals(3L, imageVariantService.getStats().get("imagesProcessed"));
+        assertEquals(1L, imageVariantService.getStats().get("imagesBackfilled"));
+        verify(imageStorageService).load(metadata(3L).getContentHash());
+        assertTrue(loadingThreads.stream().allMatch(name -> name.startsWith("image-variants-")));
+    }
+}
@@ -0,0 +1,90 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.KeywordMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for compiling all users' keywords into one matcher and updating it per user.
+ */
+@ExtendWith(MockitoExtension.class)
+class KeywordMatcherTest {
+
+    @Mock
+    private UserPreferencesRepository userPreferencesRepository;
+
+    @InjectMocks
+    private KeywordMatcher keywordMatcher;
+
+    @Test
+    void match_FindsEveryUserWhoseKeywordOccurs() {
+        when(userPreferencesRepository.findAllUserKeywords()).thenReturn(List.of(
+                new Object[]{1L, "laptop"},
+                new Object[]{2L, "Lap"},
+                new Object[]{3L, "bicycle"},
+                new Object[]{4L, "USB-C"}));
+
+        Map<Long, Set<String>> interested = keywordMatcher.match("Used Laptop with usb c charger");
+
+        assertEquals(Map.of(1L, Set.of("laptop"), 2L, Set.of("lap"), 4L, Set.of("usb c")), interested);
+    }
+
+    @Test
+    void match_ReportsOverlappingKeywords() {
+        when(userPreferencesRepository.findAllUserKeywords()).thenReturn(List.of(
+                new Object[]{1L, "he"},
+                new Object[]{2L, "she"},
+                new Object[]{3L, "hers"},
+                new Object[]{4L, "his"}));
+
+        assertEquals(Map.of(1L, Set.of("he"), 2L, Set.of("she"), 3L, Set.of("hers")), keywordMatcher.match("ushers"));
+    }
+
+    @Test
+    void match_ReportsEveryKeywordOfAUser() {
+        when(userPreferencesRepository.findAllUserKeywords()).thenReturn(List.of(
+                new Object[]{1L, "laptop"},
+                new Object[]{1L, "charger"},
+                new Object[]{1L, "desk"}));
+
+        assertEquals(Map.of(1L, Set.of("laptop", "charger")), keywordMatcher.match("Laptop with charger"));
+    }
+
+    @Test
+    void setKeywords_UpdatesSubscriptionsIncrementally() {
+        when(userPreferencesRepository.findAllUserKeywords()).thenReturn(List.<Object[]>of(new Object[]{1L, "desk"}));
+        keywordMatcher.match("");
+
+        keywordMatcher.setKeywords(2L, List.of("desk"));
+        assertEquals(Map.of(1L, Set.of("desk"), 2L, Set.of("desk")), keywordMatcher.match("Standing desk"));
+        // A new subscriber to an existing keyword doesn't need a new automaton
+        assertEquals(1L, keywordMatcher.getStats().get("rebuilds"));
+
+        keywordMatcher.setKeywords(1L, List.of("chair"));
+        assertEquals(Map.of(1L, Set.of("chair")), keywordMatcher.match("Office chair"));
+        assertEquals(Map.of(2L, Set.of("desk")), keywordMatcher.match("Standing desk"));
+        assertEquals(2L, keywordMatcher.getStats().get("rebuilds"));
+
+        keywordMatcher.setKeywords(2L, List.of());
+        assertTrue(keywordMatcher.match("Standing desk").isEmpty());
+        verify(userPreferencesRepository, times(1)).findAllUserKeywords();
+    }
+
+    @Test
+    void normalize_CollapsesPunctuationAndCase() {
+        assertEquals("usb c cable", KeywordMatcher.normalize("  USB-C   Cable!! "));
+        assertEquals("", KeywordMatcher.normalize("--"));
+        assertEquals("", KeywordMatcher.normalize(null));
+    }
+}
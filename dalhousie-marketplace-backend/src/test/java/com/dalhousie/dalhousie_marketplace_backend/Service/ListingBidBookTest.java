@@ -0,0 +1,138 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.BidBookEntry;
+import com.dalhousie.dalhousie_marketplace_backend.model.Bid;
+import com.dalhousie.dalhousie_marketplace_backend.model.BidStatus;
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.model.User;
+import com.dalhousie.dalhousie_marketplace_backend.repository.BidRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidBook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the in-memory per-listing bid book.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingBidBookTest {
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @InjectMocks
+    private ListingBidBook listingBidBook;
+
+    private Listing listing;
+
+    @BeforeEach
+    void setUp() {
+        listing = new Listing();
+        listing.setId(1L);
+    }
+
+    private Bid bid(Long id, double price, BidStatus status) {
+        User buyer = new User();
+        buyer.setUserId(100L + id);
+        Bid bid = new Bid();
+        bid.setId(id);
+        bid.setListing(listing);
+        bid.setBuyer(buyer);
+        bid.setProposedPrice(price);
+        bid.setStatus(status);
+        return bid;
+    }
+
+    private List<Long> topIds(int limit) {
+        return listingBidBook.getTopBids(1L, limit).stream()
+                .map(BidBookEntry::getBidId)
+                .collect(Collectors.toList());
+    }
+
+    private void loadBook(BidBookEntry... entries) {
+        when(bidRepository.findBookEntries(eq(1L), anyList())).thenReturn(Arrays.asList(entries));
+    }
+
+    @Test
+    void loadsLazilyOnceAndOrdersByPriceThenAge() {
+        loadBook(
+                new BidBookEntry(1L, 101L, 50.0, BidStatus.PENDING),
+                new BidBookEntry(2L, 102L, 75.0, BidStatus.COUNTERED),
+                new BidBookEntry(3L, 103L, 50.0, BidStatus.PENDING));
+
+        assertEquals(Arrays.asList(2L, 1L, 3L), topIds(10));
+        assertEquals(3, listingBidBook.getActiveCount(1L));
+        assertEquals(75.0, listingBidBook.getHighest(1L).orElseThrow().getProposedPrice());
+
+        verify(bidRepository, times(1)).findBookEntries(eq(1L), anyList());
+    }
+
+    @Test
+    void getTopBids_RespectsLimit() {
+        loadBook(
+                new BidBookEntry(1L, 101L, 50.0, BidStatus.PENDING),
+                new BidBookEntry(2L, 102L, 75.0, BidStatus.PENDING));
+
+        assertEquals(List.of(2L), topIds(1));
+        assertTrue(listingBidBook.getTopBids(1L, 0).isEmpty());
+    }
+
+    @Test
+    void record_InsertsRepositionsAndRemovesBids() {
+        loadBook(new BidBookEntry(1L, 101L, 50.0, BidStatus.PENDING));
+        listingBidBook.getActiveCount(1L);
+
+        listingBidBook.record(bid(2L, 60.0, BidStatus.PENDING));
+        assertEquals(Arrays.asList(2L, 1L), topIds(10));
+
+        listingBidBook.record(bid(1L, 80.0, BidStatus.COUNTERED));
+        assertEquals(Arrays.asList(1L, 2L), topIds(10));
+
+        listingBidBook.record(bid(1L, 80.0, BidStatus.REJECTED));
+        assertEquals(List.of(2L), topIds(10));
+        assertEquals(1, listingBidBook.getActiveCount(1L));
+    }
+
+    @Test
+    void record_IgnoresListingsThatAreNotLoaded() {
+        listingBidBook.record(bid(2L, 60.0, BidStatus.PENDING));
+
+        assertEquals(0, listingBidBook.size());
+        verifyNoInteractions(bidRepository);
+    }
+
+    @Test
+    void close_DropsTheBookSoItIsReloaded() {
+        loadBook(new BidBookEntry(1L, 101L, 50.0, BidStatus.PENDING));
+        listingBidBook.getActiveCount(1L);
+
+        listingBidBook.close(1L);
+        assertEquals(0, listingBidBook.size());
+
+        listingBidBook.getActiveCount(1L);
+        verify(bidRepository, times(2)).findBookEntries(eq(1L), anyList());
+    }
+
+    @Test
+    void getStats_ReportsLoadsAndHits() {
+        loadBook();
+        listingBidBook.getActiveCount(1L);
+        listingBidBook.getActiveCount(1L);
+
+        assertEquals(1L, listingBidBook.getStats().get("loads"));
+        assertEquals(1L, listingBidBook.getStats().get("hits"));
+        assertEquals(1, listingBidBook.getStats().get("listings"));
+    }
+}
@@ -0,0 +1,232 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingBidLocks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for per-listing bid serialization, including a multi-threaded stress run that checks
+ * no update is lost and only one bid per listing can win under contention.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingBidLocksTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2000;
+    private static final int LISTINGS = 4;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ListingBidLocks listingBidLocks;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listingBidLocks, "stripes", 16);
+        ReflectionTestUtils.setField(listingBidLocks, "maxAttempts", 3);
+        ReflectionTestUtils.invokeMethod(listingBidLocks, "start");
+    }
+
+    @Test
+    void execute_RetriesOptimisticConflicts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = listingBidLocks.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Listing", 1L);
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2L, listingBidLocks.getStats().get("conflicts"));
+    }
+
+    @Test
+    void execute_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> listingBidLocks.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Listing", 1L);
+        }));
+
+        assertEquals("Bids on this listing changed concurrently, please try again", exception.getMessage());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void execute_SurfacesLastOptimisticConflictAfterRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<ObjectOptimisticLockingFailureException> thrown = new ArrayList<>();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> listingBidLocks.execute(5L, () -> {
+            attempts.incrementAndGet();
+            ObjectOptimisticLockingFailureException conflict = new ObjectOptimisticLockingFailureException("Listing", 5L);
+            thrown.add(conflict);
+            throw conflict;
+        }));
+
+        // Each attempt gets a fresh transaction, and the final error wraps the last conflict
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertSame(thrown.get(2), exception.getCause());
+        assertEquals(3L, listingBidLocks.getStats().get("conflicts"));
+        assertEquals(1L, listingBidLocks.getStats().get("executions"));
+
+        // The stripe is released after the last attempt
+        assertEquals("saved", listingBidLocks.execute(5L, () -> "saved"));
+    }
+
+    @Test
+    void execute_DoesNotRetryValidationErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> listingBidLocks.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Bid too low");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_InsideTransactionHoldsLockUntilItCompletes() throws Exception {
+        ReflectionTestUtils.setField(listingBidLocks, "waitMillis", 50L);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        List<TransactionSynchronization> synchronizations;
+        try {
+            assertEquals("joined", listingBidLocks.execute(1L, () -> "joined"));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(transactionManager);
+
+        // Until the outer transaction completes, another thread can't take the listing
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = other.submit(() -> listingBidLocks.execute(1L, () -> "other"));
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> blocked.get(5, TimeUnit.SECONDS));
+            assertEquals("Listing 1 is busy, please try again", exception.getCause().getMessage());
+
+            assertEquals(1, synchronizations.size());
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+            assertEquals("other", other.submit(() -> listingBidLocks.execute(1L, () -> "other")).get(5, TimeUnit.SECONDS));
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    void stress_ConcurrentBidsOnSameListingsLoseNoUpdates() throws Exception {
+        // Plain, unsynchronized state: only the listing lock keeps the read-modify-write safe.
+        long[] bidCounts = new long[LISTINGS];
+        double[] highestBids = new double[LISTINGS];
+
+        long elapsedNanos = runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int listing = random.nextInt(LISTINGS);
+                double price = random.nextInt(10_000);
+                listingBidLocks.execute((long) listing, () -> {
+                    long count = bidCounts[listing];
+                    if (price > highestBids[listing]) {
+                        highestBids[listing] = price;
+                    }
+                    bidCounts[listing] = count + 1;
+                    return null;
+                });
+            }
+        });
+
+        long operations = (long) THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(operations, Arrays.stream(bidCounts).sum());
+        assertEquals(operations, listingBidLocks.getStats().get("executions"));
+        assertEquals(0L, listingBidLocks.getStats().get("conflicts"));
+        assertEquals(0L, listingBidLocks.getStats().get("timeouts"));
+        assertTrue(elapsedNanos < TimeUnit.SECONDS.toNanos(30), "Stress run took " + elapsedNanos + " ns");
+    }
+
+    @Test
+    void stress_OnlyOneAcceptWinsPerListing() throws Exception {
+        // Thread-safe map so only the per-listing check-then-act is left to the lock
+        Map<Long, Long> acceptedBidByListing = new ConcurrentHashMap<>();
+        AtomicInteger rejectedAccepts = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (long listing = 0; listing < 200; listing++) {
+                long bidId = listing * 100 + thread;
+                long listingId = listing;
+                try {
+                    listingBidLocks.execute(listingId, () -> {
+                        // Check-then-act, as acceptSingleBid does against the listing status
+                        if (acceptedBidByListing.containsKey(listingId)) {
+                            throw new IllegalStateException("This listing is no longer open for bidding");
+                        }
+                        acceptedBidByListing.put(listingId, bidId);
+                        return bidId;
+                    });
+                } catch (IllegalStateException e) {
+                    rejectedAccepts.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(200, acceptedBidByListing.size());
+        assertEquals(200 * (THREADS - 1), rejectedAccepts.get());
+    }
+
+    private long runConcurrently(ThrowingWorker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return System.nanoTime() - started;
+    }
+
+    private interface ThrowingWorker {
+        void run(int thread) throws Exception;
+    }
+}
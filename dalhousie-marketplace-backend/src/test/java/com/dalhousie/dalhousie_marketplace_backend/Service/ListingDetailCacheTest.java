@@ -0,0 +1,123 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingDTO;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingDetailCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the listing detail read-through cache.
+ */
+class ListingDetailCacheTest {
+
+    private ListingDetailCache cache;
+    private AtomicInteger loads;
+    private Function<Long, ListingDTO> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ListingDetailCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            ListingDTO dto = new ListingDTO();
+            dto.setId(id);
+            return dto;
+        };
+    }
+
+    @Test
+    void getOrLoad_CachesLoadedValue() {
+        ListingDTO first = cache.getOrLoad(1L, loader);
+        ListingDTO second = cache.getOrLoad(1L, loader);
+
+        assertNotSame(first, second);
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, loads.get());
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.5, stats.get("hitRate"));
+    }
+
+    @Test
+    void getOrLoad_ChangesToReturnedDtoDoNotReachTheCache() {
+        ListingDTO loaded = cache.getOrLoad(1L, loader);
+        loaded.setTitle("Changed by the first caller");
+
+        ListingDTO hit = cache.getOrLoad(1L, loader);
+        hit.setPrice(1.0);
+
+        ListingDTO next = cache.getOrLoad(1L, loader);
+        assertNull(next.getTitle());
+        assertNull(next.getPrice());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getOrLoad_EvictsLeastRecentlyUsed() {
+        cache.getOrLoad(1L, loader);
+        cache.getOrLoad(2L, loader);
+        cache.getOrLoad(1L, loader);
+        cache.getOrLoad(3L, loader);
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getStats().get("evictions"));
+        cache.getOrLoad(1L, loader);
+        assertEquals(3, loads.get());
+        cache.getOrLoad(2L, loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void getOrLoad_ExpiredEntryIsReloaded() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+
+        cache.getOrLoad(1L, loader);
+        cache.getOrLoad(1L, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1L, cache.getStats().get("expirations"));
+    }
+
+    @Test
+    void invalidate_DropsEntry() {
+        cache.getOrLoad(1L, loader);
+
+        cache.invalidate(1L);
+        cache.getOrLoad(1L, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1L, cache.getStats().get("invalidations"));
+    }
+
+    @Test
+    void getOrLoad_LoadOverlappingInvalidationIsNotCached() {
+        ListingDTO loaded = cache.getOrLoad(1L, id -> {
+            ListingDTO stale = loader.apply(id);
+            cache.invalidate(id);
+            return stale;
+        });
+
+        assertNotNull(loaded);
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getStats().get("discardedLoads"));
+    }
+
+    @Test
+    void getOrLoad_LoaderExceptionIsNotCached() {
+        assertThrows(RuntimeException.class, () -> cache.getOrLoad(1L, id -> {
+            throw new RuntimeException("Listing not found");
+        }));
+
+        assertEquals(0, cache.size());
+    }
+}
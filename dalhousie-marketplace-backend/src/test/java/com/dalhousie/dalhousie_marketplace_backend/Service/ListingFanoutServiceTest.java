@@ -0,0 +1,161 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.*;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.KeywordMatcher;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingFanoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the asynchronous new-listing notification fan-out.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingFanoutServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserPreferencesRepository userPreferencesRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private KeywordMatcher keywordMatcher;
+
+    @InjectMocks
+    private ListingFanoutService listingFanoutService;
+
+    private User seller;
+    private Listing listing;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listingFanoutService, "pageSize", 2);
+        ReflectionTestUtils.setField(listingFanoutService, "queueCapacity", 10);
+        ReflectionTestUtils.invokeMethod(listingFanoutService, "start");
+
+        seller = new User();
+        seller.setUserId(1L);
+
+        listing = new Listing();
+        listing.setId(10L);
+        listing.setTitle("Used Laptop");
+        listing.setBiddingAllowed(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(listingFanoutService, "stop");
+    }
+
+    private UserPreferences preferences(Long userId, boolean items, boolean bids, String... keywords) {
+        User user = new User();
+        user.setUserId(userId);
+        return new UserPreferences(user, true, items, bids, new ArrayList<>(Arrays.asList(keywords)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Notification> publishAndCollectInserted() {
+        List<Notification> inserted = new ArrayList<>();
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+
+        listingFanoutService.publishNewListing(listing, seller);
+        ReflectionTestUtils.invokeMethod(listingFanoutService, "stop");
+        return inserted;
+    }
+
+    @Test
+    void publishNewListing_PagesThroughUsersByKeyset() {
+        when(userRepository.findUserIdsAfter(eq(0L), eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(2L, 3L));
+        when(userRepository.findUserIdsAfter(eq(3L), eq(1L), any(Pageable.class))).thenReturn(List.of(4L));
+        when(userPreferencesRepository.findByUserIdsWithKeywords(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<Notification> inserted = publishAndCollectInserted();
+
+        // Users without a preferences row get both ITEM and BID notifications
+        assertEquals(6, inserted.size());
+        verify(notificationRepository, times(2)).insertAll(anyList());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void publishNewListing_HonoursPreferencesBeforeWriting() {
+        when(userRepository.findUserIdsAfter(eq(0L), eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(2L));
+        when(userPreferencesRepository.findByUserIdsWithKeywords(anyCollection()))
+                .thenReturn(List.of(preferences(2L, true, false, "laptop", "used", "bicycle")));
+        when(keywordMatcher.match(anyString())).thenReturn(Map.of(2L, Set.of("laptop", "used")));
+
+        List<Notification> inserted = publishAndCollectInserted();
+
+        assertEquals(1, inserted.size());
+        assertEquals(NotificationType.ITEM, inserted.get(0).getType());
+        assertEquals("New post: Used Laptop", inserted.get(0).getMessage());
+        assertEquals(Set.of("laptop", "used"), inserted.get(0).getMatchedKeywords());
+    }
+
+    @Test
+    void publishNewListing_SkipsUsersWhoseKeywordsDoNotMatch() {
+        when(userRepository.findUserIdsAfter(eq(0L), eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(2L));
+        when(userPreferencesRepository.findByUserIdsWithKeywords(anyCollection()))
+                .thenReturn(List.of(preferences(2L, true, false, "bicycle")));
+
+        listingFanoutService.publishNewListing(listing, seller);
+        ReflectionTestUtils.invokeMethod(listingFanoutService, "stop");
+
+        verify(notificationRepository, never()).insertAll(anyList());
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void publishNewListing_PushesEachInsertedNotification() {
+        when(userRepository.findUserIdsAfter(eq(0L), eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(2L));
+        when(userPreferencesRepository.findByUserIdsWithKeywords(anyCollection())).thenReturn(Collections.emptyList());
+        listing.setBiddingAllowed(false);
+
+        publishAndCollectInserted();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/queue/notifications/2"), payload.capture());
+        assertEquals(NotificationType.ITEM, ((Notification) payload.getValue()).getType());
+    }
+
+    @Test
+    void getStats_ReportsCompletedWork() {
+        when(userRepository.findUserIdsAfter(eq(0L), eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(2L));
+        when(userPreferencesRepository.findByUserIdsWithKeywords(anyCollection())).thenReturn(Collections.emptyList());
+
+        publishAndCollectInserted();
+        Map<String, Object> stats = listingFanoutService.getStats();
+
+        assertEquals(1L, stats.get("listingsCompleted"));
+        assertEquals(2L, stats.get("notificationsWritten"));
+        assertEquals(0, stats.get("queueDepth"));
+    }
+}
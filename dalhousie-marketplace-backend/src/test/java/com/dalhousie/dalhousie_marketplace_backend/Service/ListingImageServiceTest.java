@@ -4,6 +4,8 @@ import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
 import com.dalhousie.dalhousie_marketplace_backend.model.ListingImage;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageStorageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageVariantService;
 import com.dalhousie.dalhousie_marketplace_backend.service.ListingImageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,28 +13,41 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
- * Test class for ListingImageService to ensure full coverage of saveImage method
+ * Test class for ListingImageService covering saveImage and the legacy blob migration
  */
 @ExtendWith(MockitoExtension.class)
 public class ListingImageServiceTest {
 
+    private static final String CONTENT_HASH = "9f64a747e1b97f131fabb6b447296c9b6f0201e79fb3c5356e6c77e89b6a806a";
+
     @Mock
     private ListingImageRepository listingImageRepository;
 
     @Mock
     private ListingRepository listingRepository;
 
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
     @Mock
     private MultipartFile imageFile;
 
@@ -63,9 +78,15 @@ public class ListingImageServiceTest {
 //        when(imageFile.getSize()).thenReturn(4L);
     }
 
+    private void stubStoredContent() throws IOException {
+        when(imageFile.getInputStream()).thenReturn(new ByteArrayInputStream(imageData));
+        when(imageStorageService.store(any(InputStream.class)))
+                .thenReturn(new ImageStorageService.StoredImage(CONTENT_HASH, imageData.length));
+    }
+
     @Test
     void saveImage_ReturnsNonNullResult() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
@@ -88,7 +109,7 @@ public class ListingImageServiceTest {
 
     @Test
     void saveImage_SetsCorrectListing() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
@@ -111,7 +132,7 @@ public class ListingImageServiceTest {
 
     @Test
     void saveImage_SetsCorrectSellerId() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
@@ -133,31 +154,60 @@ public class ListingImageServiceTest {
     }
 
     @Test
-    void saveImage_SetsCorrectImageData() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+    void saveImage_StoresBytesInImageStoreNotOnRow() throws IOException {
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
-        ListingImage savedImage = new ListingImage();
-        savedImage.setId(1L);
-        savedImage.setListing(listing);
-        savedImage.setSellerId(sellerId);
-        savedImage.setImageData(imageData);
-        savedImage.setImageType("image/jpeg");
-        savedImage.setImageSize(4L);
-        savedImage.setIsPrimary(true);
-        when(listingImageRepository.save(any(ListingImage.class))).thenReturn(savedImage);
+        when(listingImageRepository.save(any(ListingImage.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         ListingImage result = listingImageService.saveImage(listing.getId(), imageFile, sellerId, true);
 
-        assertArrayEquals(imageData, result.getImageData());
-        verify(listingRepository).findById(listing.getId());
-        verify(listingImageRepository).save(any(ListingImage.class));
+        assertEquals(CONTENT_HASH, result.getContentHash());
+        assertEquals(0, result.getImageData().length);
+        verify(imageStorageService).store(any(InputStream.class));
+        verify(imageFile, never()).getBytes();
+        verify(imageVariantService).scheduleVariants(result.getId(), CONTENT_HASH);
+    }
+
+    @Test
+    void migrateLegacyImages_MovesBlobIntoImageStore() throws IOException {
+        ListingImage legacy = new ListingImage();
+        legacy.setId(5L);
+        legacy.setListing(listing);
+        legacy.setImageData(imageData);
+        when(listingImageRepository.findLegacyImageIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(5L));
+        when(listingImageRepository.findById(5L)).thenReturn(Optional.of(legacy));
+        when(imageStorageService.store(any(InputStream.class)))
+                .thenReturn(new ImageStorageService.StoredImage(CONTENT_HASH, imageData.length));
+
+        int migrated = listingImageService.migrateLegacyImages();
+
+        assertEquals(1, migrated);
+        assertEquals(CONTENT_HASH, legacy.getContentHash());
+        assertEquals(0, legacy.getImageData().length);
+        verify(listingImageRepository).save(legacy);
+    }
+
+    @Test
+    void migrateLegacyImages_SkipsRowsThatFailToStore() throws IOException {
+        ListingImage legacy = new ListingImage();
+        legacy.setId(5L);
+        legacy.setImageData(imageData);
+        when(listingImageRepository.findLegacyImageIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(5L));
+        when(listingImageRepository.findById(5L)).thenReturn(Optional.of(legacy));
+        when(imageStorageService.store(any(InputStream.class))).thenThrow(new IOException("disk full"));
+
+        int migrated = listingImageService.migrateLegacyImages();
+
+        assertEquals(0, migrated);
+        assertArrayEquals(imageData, legacy.getImageData());
+        verify(listingImageRepository, never()).save(any());
     }
 
     @Test
     void saveImage_SetsCorrectImageType() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
@@ -180,7 +230,7 @@ public class ListingImageServiceTest {
 
     @Test
     void saveImage_SetsCorrectImageSize() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
@@ -203,7 +253,7 @@ public class ListingImageServiceTest {
 
     @Test
     void saveImage_SetsCorrectIsPrimary() throws IOException {
-        when(imageFile.getBytes()).thenReturn(imageData);
+        stubStoredContent();
         when(imageFile.getContentType()).thenReturn("image/jpeg");
         when(imageFile.getSize()).thenReturn(4L);
         when(listingRepository.findById(listing.getId())).thenReturn(Optional.of(listing));
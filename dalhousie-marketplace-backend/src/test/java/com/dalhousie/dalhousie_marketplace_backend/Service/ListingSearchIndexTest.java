@@ -0,0 +1,124 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Listing;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory listing search index.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingSearchIndexTest {
+
+    @Mock
+    private ListingRepository listingRepository;
+
+    @InjectMocks
+    private ListingSearchIndex listingSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        listingSearchIndex.update(listing(1L, "Calculus Textbook", "Used calculus book, 8th edition", Listing.ListingStatus.ACTIVE));
+        listingSearchIndex.update(listing(2L, "Mini Fridge", "Compact fridge, great for residence", Listing.ListingStatus.ACTIVE));
+        listingSearchIndex.update(listing(3L, "Desk Lamp", "Lamp for your calculus study desk", Listing.ListingStatus.ACTIVE));
+    }
+
+    private Listing listing(Long id, String title, String description, Listing.ListingStatus status) {
+        Listing listing = new Listing();
+        listing.setId(id);
+        listing.setTitle(title);
+        listing.setDescription(description);
+        listing.setStatus(status);
+        return listing;
+    }
+
+    @Test
+    void tokenize_LowercasesAndSplitsOnPunctuation() {
+        assertEquals(Arrays.asList("mini", "fridge", "8th", "ed"), ListingSearchIndex.tokenize("Mini-Fridge, 8th ED!"));
+        assertTrue(ListingSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void search_RanksTitleMatchesAboveDescriptionMatches() {
+        List<Long> results = listingSearchIndex.search("calculus", 10);
+
+        assertEquals(Arrays.asList(1L, 3L), results);
+    }
+
+    @Test
+    void search_MatchesPrefixes() {
+        assertEquals(Collections.singletonList(2L), listingSearchIndex.search("fri", 10));
+    }
+
+    @Test
+    void search_RequiresEveryTerm() {
+        assertEquals(Collections.singletonList(3L), listingSearchIndex.search("calculus lamp", 10));
+        assertTrue(listingSearchIndex.search("calculus fridge", 10).isEmpty());
+    }
+
+    @Test
+    void search_RespectsLimit() {
+        assertEquals(1, listingSearchIndex.search("calculus", 1).size());
+    }
+
+    @Test
+    void search_PrefixExpansionKeepsTheMostCommonTerms() {
+        // 70 rare terms sort before "car" and overflow the 64-term expansion cap
+        for (long id = 100; id < 170; id++) {
+            listingSearchIndex.update(listing(id, "cab" + id, "", Listing.ListingStatus.ACTIVE));
+        }
+        listingSearchIndex.update(listing(10L, "Used Car", "", Listing.ListingStatus.ACTIVE));
+        listingSearchIndex.update(listing(11L, "Car Seat", "", Listing.ListingStatus.ACTIVE));
+
+        List<Long> results = listingSearchIndex.search("ca", 200);
+
+        assertTrue(results.containsAll(Arrays.asList(10L, 11L)));
+        // "calculus" is in two listings as well, so it is kept and only 62 of the rare terms fit
+        assertTrue(results.containsAll(Arrays.asList(1L, 3L)));
+        assertEquals(62, results.stream().filter(id -> id >= 100).count());
+    }
+
+    @Test
+    void update_NonActiveListingIsRemoved() {
+        listingSearchIndex.update(listing(2L, "Mini Fridge", "Compact fridge", Listing.ListingStatus.SOLD));
+
+        assertTrue(listingSearchIndex.search("fridge", 10).isEmpty());
+        assertEquals(2, listingSearchIndex.size());
+    }
+
+    @Test
+    void update_ReindexesChangedText() {
+        listingSearchIndex.update(listing(2L, "Microwave", "Barely used", Listing.ListingStatus.ACTIVE));
+
+        assertTrue(listingSearchIndex.search("fridge", 10).isEmpty());
+        assertEquals(Collections.singletonList(2L), listingSearchIndex.search("microwave", 10));
+    }
+
+    @Test
+    void rebuild_LoadsActiveListingsInPagesAndBecomesReady() {
+        when(listingRepository.findByStatusAfterId(eq(Listing.ListingStatus.ACTIVE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(listing(4L, "Road Bike", "Bicycle", Listing.ListingStatus.ACTIVE)));
+
+        assertFalse(listingSearchIndex.isReady());
+        listingSearchIndex.rebuild();
+
+        assertTrue(listingSearchIndex.isReady());
+        assertEquals(Collections.singletonList(4L), listingSearchIndex.search("bike", 10));
+    }
+}
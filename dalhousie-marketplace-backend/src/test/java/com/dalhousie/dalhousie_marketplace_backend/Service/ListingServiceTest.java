@@ -1,19 +1,28 @@
 package com.dalhousie.dalhousie_marketplace_backend.Service;
 
 import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedFilter;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingFeedPage;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingSummaryDTO;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
-import com.dalhousie.dalhousie_marketplace_backend.repository.CategoryRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.AuctionTimer;
+import com.dalhousie.dalhousie_marketplace_backend.service.CategoryService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingDetailCache;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingFanoutService;
 import com.dalhousie.dalhousie_marketplace_backend.service.ListingImageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingSearchIndex;
 import com.dalhousie.dalhousie_marketplace_backend.service.ListingService;
-import com.dalhousie.dalhousie_marketplace_backend.service.NotificationService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingViewCounter;
+import com.dalhousie.dalhousie_marketplace_backend.util.ListingFeedCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -39,13 +48,25 @@ public class ListingServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
 
     @Mock
     private ListingImageRepository listingImageRepository;
 
     @Mock
-    private NotificationService notificationService;
+    private ListingFanoutService listingFanoutService;
+
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
+    @Mock
+    private ListingViewCounter listingViewCounter;
+
+    @Mock
+    private AuctionTimer auctionTimer;
+
+    @Spy
+    private ListingDetailCache listingDetailCache = new ListingDetailCache();
 
     @InjectMocks
     private ListingService listingService;
@@ -156,14 +177,39 @@ public class ListingServiceTest {
 
     @Test
     void searchListings_WithKeyword_ReturnsMatches() {
-        List<Listing> matches = Arrays.asList(activeListing1);
-        when(listingRepository.searchByKeyword("Active")).thenReturn(matches);
+        when(listingSearchIndex.isReady()).thenReturn(true);
+        when(listingSearchIndex.search(eq("Active"), anyInt())).thenReturn(Arrays.asList(1L));
+        when(listingRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(activeListing1));
 
         List<Listing> result = listingService.searchListings("Active");
 
         assertEquals(1, result.size());
         assertEquals("Active Listing 1", result.get(0).getTitle());
+        verify(listingRepository, never()).searchByKeyword(anyString());
+    }
+
+    @Test
+    void searchListings_KeepsIndexRankOrder() {
+        when(listingSearchIndex.isReady()).thenReturn(true);
+        when(listingSearchIndex.search(eq("Active"), anyInt())).thenReturn(Arrays.asList(2L, 1L));
+        when(listingRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(activeListing1, activeListing2));
+
+        List<Listing> result = listingService.searchListings("Active");
+
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+    }
+
+    @Test
+    void searchListings_IndexNotReady_FallsBackToDatabase() {
+        when(listingSearchIndex.isReady()).thenReturn(false);
+        when(listingRepository.searchByKeyword("Active")).thenReturn(Arrays.asList(activeListing1));
+
+        List<Listing> result = listingService.searchListings("Active");
+
+        assertEquals(1, result.size());
         verify(listingRepository).searchByKeyword("Active");
+        verify(listingSearchIndex, never()).search(anyString(), anyInt());
     }
 
     @Test
@@ -186,10 +232,9 @@ public class ListingServiceTest {
         seller.setIsVerified(true);
 
         activeListing1.setSeller(seller);
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
         when(userRepository.findByEmail(seller.getEmail())).thenReturn(Optional.of(seller));
         when(listingRepository.save(any(Listing.class))).thenReturn(activeListing1);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(seller, new User()));
         when(imageFile.isEmpty()).thenReturn(false);
         when(imageFile.getBytes()).thenReturn(new byte[]{1, 2, 3});
         when(imageFile.getContentType()).thenReturn("image/jpeg");
@@ -202,8 +247,30 @@ public class ListingServiceTest {
         assertEquals(activeListing1.getId(), result.getId());
         assertEquals(activeListing1.getTitle(), result.getTitle());
         verify(listingRepository).save(any(Listing.class));
-        verify(notificationService, atLeastOnce()).sendNotification(any(User.class), eq(NotificationType.ITEM), anyString());
+        verify(listingFanoutService).publishNewListing(activeListing1, seller);
+        verify(listingSearchIndex).update(activeListing1);
+        verify(userRepository, never()).findAll();
         verify(listingImageService).saveImage(activeListing1.getId(), imageFile, seller.getUserId(), true);
+        verify(auctionTimer).schedule(activeListing1);
+    }
+
+    @Test
+    void createListing_AuctionEndInPast_ThrowsException() throws IOException {
+        User seller = new User();
+        seller.setUserId(1L);
+        seller.setEmail("seller@example.com");
+        seller.setIsVerified(true);
+        activeListing1.setBiddingAllowed(true);
+        activeListing1.setAuctionEndsAt(new Date(System.currentTimeMillis() - 1000));
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
+        when(userRepository.findByEmail(seller.getEmail())).thenReturn(Optional.of(seller));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                listingService.createListing(activeListing1, seller.getEmail(), null));
+
+        assertEquals("Auction end time must be in the future", exception.getMessage());
+        verify(listingRepository, never()).save(any());
+        verify(auctionTimer, never()).schedule(any());
     }
 
     @Test
@@ -214,7 +281,7 @@ public class ListingServiceTest {
         seller.setusername("SellerUser");
         seller.setIsVerified(true);
         activeListing1.setCategoryId(99L);
-        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(categoryService.findById(99L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             listingService.createListing(activeListing1, seller.getEmail(), null);
@@ -235,7 +302,7 @@ public class ListingServiceTest {
         Listing listing = createListing(6L, "Test Listing", 100.0, Listing.ListingStatus.ACTIVE);
         listing.setSeller(unverifiedSeller);
 
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
         when(userRepository.findByEmail(unverifiedSeller.getEmail())).thenReturn(Optional.of(unverifiedSeller));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -254,9 +321,8 @@ public class ListingServiceTest {
 //        seller.setusername("SellerUser");
 //        seller.setIsVerified(true);
 
-        when(listingRepository.findById(activeListing1.getId())).thenReturn(Optional.of(activeListing1));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(listingRepository.save(any(Listing.class))).thenReturn(activeListing1);
+        when(listingRepository.findWithSellerById(activeListing1.getId())).thenReturn(Optional.of(activeListing1));
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
 
         ListingDTO result = listingService.getListingById(activeListing1.getId());
 
@@ -264,12 +330,41 @@ public class ListingServiceTest {
 //        assertEquals("Electronics", result.getCategoryName());
 //        assertEquals(seller.getUsername(), result.getSeller().getUsername());
         assertNotNull(result);
-        verify(listingRepository).save(any(Listing.class)); // Views incremented
+        verify(listingViewCounter).recordView(activeListing1.getId());
+        verify(listingRepository, never()).save(any(Listing.class)); // Views are buffered, not written here
+    }
+
+    @Test
+    void getListingById_SecondLookupIsServedFromCache() {
+        when(listingRepository.findWithSellerById(activeListing1.getId())).thenReturn(Optional.of(activeListing1));
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
+
+        ListingDTO first = listingService.getListingById(activeListing1.getId());
+        ListingDTO second = listingService.getListingById(activeListing1.getId());
+
+        assertSame(first, second);
+        verify(listingRepository, times(1)).findWithSellerById(activeListing1.getId());
+        verify(categoryService, times(1)).findById(1L);
+        verify(listingViewCounter, times(2)).recordView(activeListing1.getId());
+    }
+
+    @Test
+    void updateListingRatingStats_InvalidatesCachedListing() {
+        when(listingRepository.findWithSellerById(activeListing1.getId())).thenReturn(Optional.of(activeListing1));
+        when(listingRepository.updateRatingStats(activeListing1.getId(), 4.5, 10)).thenReturn(1);
+        when(categoryService.findById(1L)).thenReturn(Optional.of(category));
+
+        listingService.getListingById(activeListing1.getId());
+        listingService.updateListingRatingStats(activeListing1.getId(), 4.5, 10);
+        listingService.getListingById(activeListing1.getId());
+
+        verify(listingDetailCache).invalidate(activeListing1.getId());
+        verify(listingRepository, times(2)).findWithSellerById(activeListing1.getId());
     }
 
     @Test
     void getListingById_NotFound_ThrowsException() {
-        when(listingRepository.findById(99L)).thenReturn(Optional.empty());
+        when(listingRepository.findWithSellerById(99L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             listingService.getListingById(99L);
@@ -281,17 +376,17 @@ public class ListingServiceTest {
 
     @Test
     void updateListingRatingStats_Success() {
-        when(listingRepository.findById(activeListing1.getId())).thenReturn(Optional.of(activeListing1));
-        when(listingRepository.save(any(Listing.class))).thenReturn(activeListing1);
+        when(listingRepository.updateRatingStats(activeListing1.getId(), 4.5, 10)).thenReturn(1);
 
         listingService.updateListingRatingStats(activeListing1.getId(), 4.5, 10);
 
-        verify(listingRepository).save(argThat(l -> l.getAverageRating() == 4.5 && l.getReviewCount() == 10));
+        verify(listingRepository).updateRatingStats(activeListing1.getId(), 4.5, 10);
+        verify(listingRepository, never()).save(any());
     }
 
     @Test
     void updateListingRatingStats_ListingNotFound_ThrowsException() {
-        when(listingRepository.findById(99L)).thenReturn(Optional.empty());
+        when(listingRepository.updateRatingStats(99L, 4.5, 10)).thenReturn(0);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             listingService.updateListingRatingStats(99L, 4.5, 10);
@@ -332,4 +427,63 @@ public class ListingServiceTest {
         assertTrue(result.get(0).getBiddingAllowed());
         verify(listingRepository).findBySellerId(seller.getUserId());
     }
-}
\ No newline at end of file
+
+    private ListingSummaryDTO summary(Long id, long createdAtMillis) {
+        return new ListingSummaryDTO(id, "Listing " + id, 10.0, 1, 1L, false, null, null, 0,
+                new Date(createdAtMillis), 1L, "SellerUser", null);
+    }
+
+    @Test
+    void getListingFeed_FirstPageReturnsCursorForNextPage() {
+        ListingFeedFilter filter = new ListingFeedFilter(1L, 5.0, 50.0, false);
+        when(listingRepository.findActiveFeed(filter, null, 3))
+                .thenReturn(Arrays.asList(summary(9L, 3000L), summary(8L, 2000L), summary(7L, 1000L)));
+
+        ListingFeedPage page = listingService.getListingFeed(null, 2, filter);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        ListingFeedCursor cursor = ListingFeedCursor.decode(page.getNextCursor());
+        assertEquals(8L, cursor.getId());
+        assertEquals(2000L, cursor.getCreatedAt().getTime());
+    }
+
+    @Test
+    void getListingFeed_SeeksFromCursor() {
+        String cursor = new ListingFeedCursor(new Date(2000L), 8L).encode();
+        when(listingRepository.findActiveFeed(any(), any(ListingFeedCursor.class), eq(3)))
+                .thenReturn(Arrays.asList(summary(7L, 1000L)));
+
+        ListingFeedPage page = listingService.getListingFeed(cursor, 2, null);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(listingRepository).findActiveFeed(isNull(), argThat(after ->
+                after.getId() == 8L && after.getCreatedAt().getTime() == 2000L), eq(3));
+    }
+
+    @Test
+    void getListingFeed_ClampsLimit() {
+        when(listingRepository.findActiveFeed(any(), any(), anyInt())).thenReturn(new ArrayList<>());
+
+        listingService.getListingFeed(null, 10_000, null);
+        listingService.getListingFeed(null, null, null);
+
+        verify(listingRepository).findActiveFeed(null, null, 101);
+        verify(listingRepository).findActiveFeed(null, null, 21);
+    }
+
+    @Test
+    void getListingFeed_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> listingService.getListingFeed("not-a-cursor", 20, null));
+        verify(listingRepository, never()).findActiveFeed(any(), any(), anyInt());
+    }
+
+    @Test
+    void getListingFeed_InvertedPriceRange_ThrowsException() {
+        ListingFeedFilter filter = new ListingFeedFilter(null, 50.0, 5.0, null);
+
+        assertThrows(IllegalArgumentException.class, () -> listingService.getListingFeed(null, 20, filter));
+    }
+}
@@ -0,0 +1,97 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingViewCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for buffered listing view counting.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingViewCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ListingViewCounter listingViewCounter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesViewsIntoOneBatchSortedById() {
+        listingViewCounter.recordView(2L);
+        listingViewCounter.recordView(1L);
+        listingViewCounter.recordView(2L);
+
+        int updated = listingViewCounter.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE listings SET views = views + ? WHERE id = ?"), batch.capture());
+        assertEquals(2, updated);
+        assertArrayEquals(new Object[]{1L, 1L}, batch.getValue().get(0));
+        assertArrayEquals(new Object[]{2L, 2L}, batch.getValue().get(1));
+        assertEquals(0L, listingViewCounter.getPendingViews(2L));
+    }
+
+    @Test
+    void flush_NothingPendingSkipsDatabase() {
+        assertEquals(0, listingViewCounter.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void flush_FailureKeepsDeltasForRetry() {
+        listingViewCounter.recordView(1L);
+        listingViewCounter.recordView(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        listingViewCounter.flush();
+
+        assertEquals(2L, listingViewCounter.getPendingViews(1L));
+        assertEquals(1L, listingViewCounter.getStats().get("flushFailures"));
+    }
+
+    @Test
+    void recordView_ConcurrentIncrementsAreNotLost() throws InterruptedException {
+        int threads = 8;
+        int viewsPerThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < viewsPerThread; i++) {
+                    listingViewCounter.recordView(7L);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals((long) threads * viewsPerThread, listingViewCounter.getPendingViews(7L));
+    }
+}
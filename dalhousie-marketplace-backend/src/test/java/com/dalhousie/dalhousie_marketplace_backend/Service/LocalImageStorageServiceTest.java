@@ -0,0 +1,85 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageStorageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.LocalImageStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the filesystem-backed, content-addressed image store.
+ */
+class LocalImageStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalImageStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorageService();
+        ReflectionTestUtils.setField(storage, "storageRoot", root.toString());
+        ReflectionTestUtils.invokeMethod(storage, "init");
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void store_KeysContentBySha256() throws IOException {
+        ImageStorageService.StoredImage stored = storage.store(content("abc"));
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", stored.getContentHash());
+        assertEquals(3, stored.getSize());
+        assertTrue(storage.exists(stored.getContentHash()));
+        assertTrue(Files.exists(root.resolve("ba").resolve("78").resolve(stored.getContentHash())));
+    }
+
+    @Test
+    void store_DuplicateContentIsStoredOnce() throws IOException {
+        ImageStorageService.StoredImage first = storage.store(content("same image"));
+        ImageStorageService.StoredImage second = storage.store(content("same image"));
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void load_ReturnsStoredBytes() throws IOException {
+        ImageStorageService.StoredImage stored = storage.store(content("image bytes"));
+
+        Resource resource = storage.load(stored.getContentHash());
+
+        assertEquals("image bytes", new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void load_UnknownHashThrows() {
+        String missing = "0".repeat(64);
+
+        assertFalse(storage.exists(missing));
+        assertThrows(FileNotFoundException.class, () -> storage.load(missing));
+    }
+
+    @Test
+    void load_RejectsMalformedHash() {
+        assertThrows(IllegalArgumentException.class, () -> storage.load("../../etc/passwd"));
+    }
+}
@@ -1,24 +1,32 @@
 package com.dalhousie.dalhousie_marketplace_backend.Service;
 
 import com.dalhousie.dalhousie_marketplace_backend.DTO.ConversationDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ConversationPage;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.MessageDTO;
+import com.dalhousie.dalhousie_marketplace_backend.DTO.MessageHistoryPage;
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ConversationSummaryRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.ListingRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.MessageRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
 import com.dalhousie.dalhousie_marketplace_backend.service.MessageService;
 import com.dalhousie.dalhousie_marketplace_backend.service.NotificationService;
+import com.dalhousie.dalhousie_marketplace_backend.service.UserDisplayNameCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class MessageServiceTest {
@@ -41,6 +49,11 @@ public class MessageServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private UserDisplayNameCache userDisplayNameCache;
 
     @InjectMocks
     private MessageService messageService;
@@ -65,9 +78,13 @@ public class MessageServiceTest {
         mockListing.setId(1L);
         mockListing.setSeller(receiver); 
 
-        when(userRepository.findById(91L)).thenReturn(Optional.of(sender));
-        when(userRepository.findById(105L)).thenReturn(Optional.of(receiver));
-        when(listingRepository.findById(1L)).thenReturn(Optional.of(mockListing));
+        when(userDisplayNameCache.getUsername(91L)).thenReturn("sender");
+        when(userDisplayNameCache.getUsername(105L)).thenReturn("receiver");
+        when(userRepository.getReferenceById(91L)).thenReturn(sender);
+        when(userRepository.getReferenceById(105L)).thenReturn(receiver);
+        when(listingRepository.getReferenceById(1L)).thenReturn(mockListing);
+        when(listingRepository.findSellerIdById(1L)).thenReturn(Optional.of(105L));
+        when(conversationSummaryRepository.recordMessage(any(Message.class), any(), any())).thenReturn(true);
     }
 
 //    @Test
@@ -110,7 +127,7 @@ public class MessageServiceTest {
         Long listingId = 1L;
         String content = "Hello, is this available?";
 
-        when(userRepository.findById(105L)).thenReturn(Optional.empty());
+        when(userDisplayNameCache.getUsername(105L)).thenReturn(null);
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, listingId, content);
@@ -128,7 +145,7 @@ public class MessageServiceTest {
         Long invalidListingId = 999L;
         String content = "Hello, is this available?";
 
-        when(listingRepository.findById(invalidListingId)).thenReturn(Optional.empty());
+        when(listingRepository.findSellerIdById(invalidListingId)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, invalidListingId, content);
@@ -222,7 +239,7 @@ public class MessageServiceTest {
     public void sendMessageOverloaded_ListingNotFound() {
         Long senderId = 91L;
         Long invalidListingId = 999L;
-        when(listingRepository.findById(invalidListingId)).thenReturn(Optional.empty());
+        when(listingRepository.findSellerIdById(invalidListingId)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, invalidListingId, "Hello");
@@ -248,6 +265,25 @@ public class MessageServiceTest {
         assertNotNull(result);
     }
 
+    @Test
+    public void sendMessage_UpdatesConversationSummaries() {
+        Message result = messageService.sendMessage(91L, 105L, 1L, "Hi there", "91_105_1");
+
+        verify(conversationSummaryRepository).recordMessage(result, "sender", "receiver");
+    }
+
+    @Test
+    public void sendMessage_BroadcastsOnceAndNotifiesReceiverWithoutLoadingEntities() {
+        messageService.sendMessage(91L, 105L, 1L, "Hi there", "91_105_1");
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/messages/91_105_1"), any(MessageDTO.class));
+        verifyNoMoreInteractions(messagingTemplate);
+        verify(notificationService).sendNotification(receiver, NotificationType.MESSAGE,
+                "sender sent you a message: Hi there");
+        verify(userRepository, never()).findById(any());
+        verify(listingRepository, never()).findById(any());
+    }
+
     @Test
     public void sendMessage_SelfMessagingThrowsException() {
         Long userId = 91L;
@@ -265,7 +301,7 @@ public class MessageServiceTest {
         Long senderId = 999L;
         Long receiverId = 105L;
         String conversationId = "999_105_1";
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userDisplayNameCache.getUsername(999L)).thenReturn(null);
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, receiverId, 1L, "Hello", conversationId);
@@ -279,7 +315,7 @@ public class MessageServiceTest {
         Long senderId = 91L;
         Long receiverId = 999L;
         String conversationId = "91_999_1";
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userDisplayNameCache.getUsername(999L)).thenReturn(null);
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, receiverId, 1L, "Hello", conversationId);
@@ -294,13 +330,14 @@ public class MessageServiceTest {
         Long receiverId = 105L;
         Long invalidListingId = 999L;
         String conversationId = "91_105_999";
-        when(listingRepository.findById(invalidListingId)).thenReturn(Optional.empty());
+        when(conversationSummaryRepository.recordMessage(any(Message.class), any(), any())).thenReturn(false);
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             messageService.sendMessage(senderId, receiverId, invalidListingId, "Hello", conversationId);
         });
 
         assertEquals("Listing not found", exception.getMessage());
+        verify(messageRepository, never()).save(any(Message.class));
     }
 
     // generateConversationId
@@ -347,73 +384,93 @@ public class MessageServiceTest {
 
     // getMessageHistory
     @Test
-    public void getMessageHistory_ReturnsCorrectSize() {
-        String conversationId = "91_105_1";
-        Message message1 = new Message();
-        message1.setConversationId(conversationId);
-        message1.setContent("Message 1");
-        List<Message> mockMessages = Collections.singletonList(message1);
-        when(messageRepository.findByConversationId(conversationId)).thenReturn(mockMessages);
+    public void getMessageHistory_ReturnsLatestWindowOldestFirst() {
+        ReflectionTestUtils.setField(messageService, "historyMaxLimit", 200);
+        when(messageRepository.findHistoryBefore(eq("91_105_1"), eq(Long.MAX_VALUE), any()))
+                .thenReturn(Arrays.asList(historyMessage(9L), historyMessage(8L), historyMessage(7L)));
 
-        List<Message> result = messageService.getMessageHistory(conversationId);
+        MessageHistoryPage page = messageService.getMessageHistory("91_105_1", null, null, 2);
 
-        assertEquals(1, result.size());
+        assertEquals(Arrays.asList(8L, 9L), page.getItems().stream().map(MessageDTO::getId).toList());
+        assertTrue(page.isHasMore());
+        assertEquals(8L, page.getNextCursor());
+    }
+
+    @Test
+    public void getMessageHistory_AfterCursorReadsForwards() {
+        ReflectionTestUtils.setField(messageService, "historyMaxLimit", 200);
+        when(messageRepository.findHistoryAfter(eq("91_105_1"), eq(9L), any()))
+                .thenReturn(Collections.singletonList(historyMessage(10L)));
+
+        MessageHistoryPage page = messageService.getMessageHistory("91_105_1", null, 9L, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(messageRepository, never()).findHistoryBefore(any(), any(), any());
+    }
+
+    @Test
+    public void getMessageHistory_RejectsBothCursors() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.getMessageHistory("91_105_1", 5L, 3L, 10));
     }
 
     // getSellerConversations
     @Test
     public void getSellerConversations_ReturnsCorrectSize() {
-        String conversationId = "91_105_1";
-        Message lastMessage = new Message();
-        lastMessage.setConversationId(conversationId);
-        lastMessage.setSender(sender);
-        lastMessage.setReceiver(receiver);
-        lastMessage.setContent("Last message");
-        lastMessage.setTimestamp(new Date());
-        lastMessage.setListing(mockListing);
-        when(messageRepository.findDistinctConversationIdsBySeller(105L)).thenReturn(Collections.singletonList(conversationId));
-        when(messageRepository.findByConversationId(conversationId)).thenReturn(Collections.singletonList(lastMessage));
+        when(conversationSummaryRepository.findInbox(105L, false, null, null, 100))
+                .thenReturn(Collections.singletonList(summary(1L, 105L, sender, "Last message")));
 
         List<ConversationDTO> result = messageService.getSellerConversations(105L);
 
         assertEquals(1, result.size());
+        assertEquals(91L, result.get(0).getBuyerId());
+        assertEquals("sender", result.get(0).getBuyerName());
+        assertEquals(2, result.get(0).getUnreadCount());
+        verify(messageRepository, never()).findByConversationId(any());
     }
 
     @Test
     public void getSellerConversations_EmptyWhenNoMessages() {
-        when(messageRepository.findDistinctConversationIdsBySeller(105L)).thenReturn(Collections.emptyList());
+        when(conversationSummaryRepository.findInbox(105L, false, null, null, 100))
+                .thenReturn(Collections.emptyList());
 
         List<ConversationDTO> result = messageService.getSellerConversations(105L);
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    public void getSellerConversations_CappedAtInboxMaxLimit() {
+        ReflectionTestUtils.setField(messageService, "inboxMaxLimit", 2);
+        when(conversationSummaryRepository.findInbox(105L, false, null, null, 2))
+                .thenReturn(Arrays.asList(summary(2L, 105L, sender, "b"), summary(1L, 105L, sender, "a")));
+
+        List<ConversationDTO> result = messageService.getSellerConversations(105L);
+
+        assertEquals(2, result.size());
+        verify(conversationSummaryRepository).findInbox(105L, false, null, null, 2);
+    }
+
     // getMessagesForListing
     @Test
     public void getMessagesForListing_ReturnsCorrectSize() {
-        Long listingId = 1L;
-        Long userId = 91L;
-        Message message = new Message();
-        message.setConversationId("91_105_1");
-        message.setSender(sender);
-        message.setReceiver(receiver);
-        message.setContent("Hi");
-        message.setTimestamp(new Date());
-        message.setListing(mockListing);
-        when(messageRepository.findByListingAndUser(listingId, userId)).thenReturn(Collections.singletonList(message));
+        when(conversationSummaryRepository.findInbox(91L, false, 1L, null, 100))
+                .thenReturn(Collections.singletonList(summary(1L, 91L, receiver, "Hi")));
 
-        List<ConversationDTO> result = messageService.getMessagesForListing(listingId, userId);
+        List<ConversationDTO> result = messageService.getMessagesForListing(1L, 91L);
 
         assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getListingId());
     }
 
     @Test
     public void getMessagesForListing_EmptyWhenNoMessages() {
-        Long listingId = 1L;
-        Long userId = 91L;
-        when(messageRepository.findByListingAndUser(listingId, userId)).thenReturn(Collections.emptyList());
+        when(conversationSummaryRepository.findInbox(91L, false, 1L, null, 100))
+                .thenReturn(Collections.emptyList());
 
-        List<ConversationDTO> result = messageService.getMessagesForListing(listingId, userId);
+        List<ConversationDTO> result = messageService.getMessagesForListing(1L, 91L);
 
         assertTrue(result.isEmpty());
     }
@@ -421,28 +478,73 @@ public class MessageServiceTest {
     // getBuyerConversations
     @Test
     public void getBuyerConversations_ReturnsCorrectSize() {
-        String conversationId = "91_105_1";
-        Message lastMessage = new Message();
-        lastMessage.setConversationId(conversationId);
-        lastMessage.setSender(sender);
-        lastMessage.setReceiver(receiver);
-        lastMessage.setContent("Buyer message");
-        lastMessage.setTimestamp(new Date());
-        lastMessage.setListing(mockListing);
-        when(messageRepository.findDistinctConversationIdsByBuyer(91L)).thenReturn(Collections.singletonList(conversationId));
-        when(messageRepository.findByConversationId(conversationId)).thenReturn(Collections.singletonList(lastMessage));
+        when(conversationSummaryRepository.findInbox(91L, true, null, null, 100))
+                .thenReturn(Collections.singletonList(summary(1L, 91L, receiver, "Buyer message")));
 
         List<ConversationDTO> result = messageService.getBuyerConversations(91L);
 
         assertEquals(1, result.size());
+        assertEquals(105L, result.get(0).getBuyerId());
+        assertEquals("receiver", result.get(0).getBuyerName());
     }
 
     @Test
     public void getBuyerConversations_EmptyWhenNoMessages() {
-        when(messageRepository.findDistinctConversationIdsByBuyer(91L)).thenReturn(Collections.emptyList());
+        when(conversationSummaryRepository.findInbox(91L, true, null, null, 100))
+                .thenReturn(Collections.emptyList());
 
         List<ConversationDTO> result = messageService.getBuyerConversations(91L);
 
         assertTrue(result.isEmpty());
     }
+
+    // getInbox
+    @Test
+    public void getInbox_ReturnsCursorWhenMoreRowsExist() {
+        ReflectionTestUtils.setField(messageService, "inboxMaxLimit", 100);
+        when(conversationSummaryRepository.findInbox(eq(105L), eq(false), isNull(), isNull(), eq(3)))
+                .thenReturn(Arrays.asList(summary(3L, 105L, sender, "c"), summary(2L, 105L, sender, "b"),
+                        summary(1L, 105L, sender, "a")));
+
+        ConversationPage page = messageService.getInbox(105L, false, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+
+        when(conversationSummaryRepository.findInbox(eq(105L), eq(false), isNull(), any(), eq(3)))
+                .thenReturn(Collections.singletonList(summary(1L, 105L, sender, "a")));
+
+        ConversationPage next = messageService.getInbox(105L, false, null, page.getNextCursor(), 2);
+
+        assertEquals(1, next.getItems().size());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    public void getInbox_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.getInbox(105L, false, null, "not-a-cursor", 10));
+    }
+
+    private MessageDTO historyMessage(Long id) {
+        return new MessageDTO(id, "91_105_1", 91L, 105L, 1L, "Message " + id, new Date(1_700_000_000_000L + id));
+    }
+
+    private ConversationSummary summary(Long id, Long userId, User other, String content) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setId(id);
+        summary.setConversationId("91_105_1");
+        summary.setUserId(userId);
+        summary.setOtherUserId(other.getUserId());
+        summary.setOtherUsername(other.getUsername());
+        summary.setListingId(mockListing.getId());
+        summary.setListingTitle("Test Listing");
+        summary.setSellerId(receiver.getUserId());
+        summary.setLastMessage(content);
+        summary.setLastMessageAt(new Date(1_700_000_000_000L + id));
+        summary.setUnreadCount(2);
+        return summary;
+    }
 }
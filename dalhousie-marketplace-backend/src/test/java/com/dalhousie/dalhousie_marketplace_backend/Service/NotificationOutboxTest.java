@@ -0,0 +1,249 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.NotificationOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for batching notifications out of the outbox, for dead-lettering rows the database
+ * rejects, and for spilling and replaying them across a shutdown.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private NotificationOutbox notificationOutbox;
+
+    @TempDir
+    Path tempDir;
+
+    private Path spillFile;
+    private Path deadLetterFile;
+    private boolean stopped;
+
+    @BeforeEach
+    void setUp() {
+        spillFile = tempDir.resolve("outbox.jsonl");
+        deadLetterFile = tempDir.resolve("dead-letter.jsonl");
+        ReflectionTestUtils.setField(notificationOutbox, "spillFile", spillFile.toString());
+        ReflectionTestUtils.setField(notificationOutbox, "deadLetterFile", deadLetterFile.toString());
+        ReflectionTestUtils.setField(notificationOutbox, "retryDelayMillis", 60_000L);
+        ReflectionTestUtils.invokeMethod(notificationOutbox, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (!stopped) {
+            ReflectionTestUtils.invokeMethod(notificationOutbox, "stop");
+        }
+    }
+
+    @Test
+    void enqueue_WritesAndPushesOutsideTransaction() {
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            return batch.size();
+        });
+
+        notificationOutbox.enqueue(7L, NotificationType.BID, "You were outbid");
+
+        ArgumentCaptor<Notification> pushed = ArgumentCaptor.forClass(Notification.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/queue/notifications/7"), pushed.capture());
+        assertEquals("You were outbid", pushed.getValue().getMessage());
+        assertEquals(1L, notificationOutbox.getStats().get("written"));
+    }
+
+    @Test
+    void enqueue_CutsMessageToColumnLength() {
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            return batch.size();
+        });
+
+        notificationOutbox.enqueue(7L, NotificationType.MESSAGE, "x".repeat(Notification.MESSAGE_LENGTH + 100));
+
+        ArgumentCaptor<Notification> pushed = ArgumentCaptor.forClass(Notification.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/queue/notifications/7"), pushed.capture());
+        assertEquals(Notification.MESSAGE_LENGTH, pushed.getValue().getMessage().length());
+    }
+
+    @Test
+    void enqueue_FullBufferInsideTransactionWritesInItsOwnTransaction() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notification (user_id BIGINT, message VARCHAR(255))");
+        jdbcTemplate.execute("DELETE FROM notification");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        // Restart with a one-slot buffer and a real transaction manager
+        ReflectionTestUtils.invokeMethod(notificationOutbox, "stop");
+        ReflectionTestUtils.setField(notificationOutbox, "capacity", 1);
+        ReflectionTestUtils.setField(notificationOutbox, "transactionManager", transactionManager);
+        ReflectionTestUtils.invokeMethod(notificationOutbox, "start");
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger committedInserts = new AtomicInteger();
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            if (Thread.currentThread().getName().equals("notification-outbox")) {
+                // Keep the writer busy so the buffer stays full
+                release.await(5, TimeUnit.SECONDS);
+                return batch.size();
+            }
+            for (Notification notification : batch) {
+                jdbcTemplate.update("INSERT INTO notification (user_id, message) VALUES (?, ?)",
+                        notification.getUser().getUserId(), notification.getMessage());
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedInserts.incrementAndGet();
+                }
+            });
+            return batch.size();
+        });
+
+        try {
+            notificationOutbox.enqueue(1L, NotificationType.BID, "Taken by the writer");
+            verify(notificationRepository, timeout(2000)).insertAll(anyList());
+            notificationOutbox.enqueue(2L, NotificationType.BID, "Fills the buffer");
+            assertEquals(1, notificationOutbox.size());
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    notificationOutbox.enqueue(3L, NotificationType.MESSAGE, "Written by the caller"));
+
+            assertEquals(1L, notificationOutbox.getStats().get("callerWrites"));
+            assertEquals(1, committedInserts.get());
+            assertEquals(List.of("Written by the caller"),
+                    jdbcTemplate.queryForList("SELECT message FROM notification", String.class));
+            verify(messagingTemplate).convertAndSend(eq("/queue/notifications/3"), any(Notification.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void writer_DeadLettersRejectedRowAndWritesTheRest() throws Exception {
+        ReflectionTestUtils.setField(notificationOutbox, "maxAttempts", 1);
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(notification -> notification.getMessage().equals("Bad"))) {
+                throw new DataIntegrityViolationException("Data too long for column 'message'");
+            }
+            return batch.size();
+        });
+
+        notificationOutbox.enqueue(7L, NotificationType.MESSAGE, "Bad");
+        notificationOutbox.enqueue(8L, NotificationType.MESSAGE, "Good");
+
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/queue/notifications/8"), any(Notification.class));
+        await(() -> Long.valueOf(1L).equals(notificationOutbox.getStats().get("deadLettered")));
+        verify(messagingTemplate, never()).convertAndSend(eq("/queue/notifications/7"), any(Notification.class));
+
+        List<String> deadLetters = Files.readAllLines(deadLetterFile);
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"message\":\"Bad\""));
+        assertTrue(deadLetters.get(0).contains("Data too long"));
+        assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void replay_DeadLettersRejectedRecordsInsteadOfKeepingThem() throws Exception {
+        Files.write(spillFile, List.of(
+                "{\"userId\":7,\"type\":\"MESSAGE\",\"message\":\"Bad\",\"timestamp\":1700000000000}",
+                "{\"userId\":8,\"type\":\"BID\",\"message\":\"Good\",\"timestamp\":1700000000000}"));
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(notification -> notification.getMessage().equals("Bad"))) {
+                throw new DataIntegrityViolationException("Cannot add or update a child row");
+            }
+            return batch.size();
+        });
+
+        notificationOutbox.replay();
+
+        assertFalse(Files.exists(spillFile));
+        assertEquals(1, Files.readAllLines(deadLetterFile).size());
+        assertEquals(1L, notificationOutbox.getStats().get("replayed"));
+        assertEquals(1L, notificationOutbox.getStats().get("deadLettered"));
+
+        // Nothing is left to fail again on the next startup
+        reset(notificationRepository);
+        notificationOutbox.replay();
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void stop_SpillsUnwrittenNotificationsAndReplayWritesThem() throws Exception {
+        when(notificationRepository.insertAll(anyList())).thenThrow(new RuntimeException("database down"));
+
+        notificationOutbox.enqueue(7L, NotificationType.MESSAGE, "First");
+        notificationOutbox.enqueue(8L, NotificationType.BID, "Second");
+        verify(notificationRepository, timeout(2000).atLeastOnce()).insertAll(anyList());
+
+        ReflectionTestUtils.invokeMethod(notificationOutbox, "stop");
+        stopped = true;
+        assertEquals(2, Files.readAllLines(spillFile).size());
+
+        reset(notificationRepository);
+        when(notificationRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            return batch.size();
+        });
+
+        notificationOutbox.replay();
+
+        ArgumentCaptor<List<Notification>> replayed = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).insertAll(replayed.capture());
+        assertEquals(List.of("First", "Second"), replayed.getValue().stream().map(Notification::getMessage).toList());
+        assertEquals(NotificationType.BID, replayed.getValue().get(1).getType());
+        assertFalse(Files.exists(spillFile));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the outbox");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dalhousie.dalhousie_marketplace_backend.Service;
+
+import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
+import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.NotificationRetention;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for chunked purging of old read notifications and for collapsing unread ones into digests.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetentionTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private NotificationRetention notificationRetention;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notificationRetention, "chunkSize", 2);
+        ReflectionTestUtils.setField(notificationRetention, "chunkPauseMillis", 0L);
+        lenient().when(notificationRepository.findDigestCandidates(any(), any(), anyInt(), anyLong(), anyInt()))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void run_PurgesReadNotificationsChunkByChunk() {
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(0L), eq(2))).thenReturn(List.of(1L, 2L));
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(2L), eq(2))).thenReturn(List.of(5L));
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(5L), eq(2))).thenReturn(List.of());
+        when(notificationRepository.purgeRead(anyCollection(), eq(false))).thenReturn(2, 1);
+
+        long processed = notificationRetention.run();
+
+        assertEquals(3L, processed);
+        verify(notificationRepository).purgeRead(List.of(1L, 2L), false);
+        verify(notificationRepository).purgeRead(List.of(5L), false);
+        assertEquals(3L, notificationRetention.getStats().get("rowsPurged"));
+    }
+
+    @Test
+    void run_ArchiveModeCopiesBeforeDeleting() {
+        ReflectionTestUtils.setField(notificationRetention, "mode", "archive");
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(0L), anyInt())).thenReturn(List.of(1L));
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(1L), anyInt())).thenReturn(List.of());
+        when(notificationRepository.purgeRead(List.of(1L), true)).thenReturn(1);
+
+        notificationRetention.run();
+
+        verify(notificationRepository).purgeRead(List.of(1L), true);
+    }
+
+    @Test
+    void run_StopsAtRowBudget() {
+        ReflectionTestUtils.setField(notificationRetention, "maxRowsPerRun", 2);
+        when(notificationRepository.findReadIdsBefore(any(Date.class), eq(0L), eq(2))).thenReturn(List.of(1L, 2L));
+        when(notificationRepository.purgeRead(anyCollection(), eq(false))).thenReturn(2);
+
+        assertEquals(2L, notificationRetention.run());
+        verify(notificationRepository, times(1)).findReadIdsBefore(any(Date.class), anyLong(), anyInt());
+        verify(notificationRepository, never()).findDigestCandidates(any(), any(), anyInt(), anyLong(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_CollapsesUnreadItemsIntoDigest() {
+        when(notificationRepository.findReadIdsBefore(any(Date.class), anyLong(), anyInt())).thenReturn(List.of());
+        when(notificationRepository.findDigestCandidates(eq(NotificationType.ITEM), any(Date.class), eq(10), eq(0L), eq(2)))
+                .thenReturn(List.of(7L));
+        when(notificationRepository.findDigestCandidates(eq(NotificationType.ITEM), any(Date.class), eq(10), eq(7L), eq(2)))
+                .thenReturn(List.of());
+        when(notificationRepository.compactUnread(eq(7L), eq(NotificationType.ITEM), any(Date.class), eq(10), eq(2), any()))
+                .thenReturn(12);
+
+        long processed = notificationRetention.run();
+
+        ArgumentCaptor<IntFunction<String>> message = ArgumentCaptor.forClass(IntFunction.class);
+        verify(notificationRepository).compactUnread(eq(7L), eq(NotificationType.ITEM), any(Date.class), eq(10), eq(2),
+                message.capture());
+        assertEquals("12 new listings", message.getValue().apply(12));
+        assertEquals(12L, processed);
+
+        Map<String, Object> stats = notificationRetention.getStats();
+        assertEquals(1L, stats.get("digestsCreated"));
+        assertEquals(12L, stats.get("rowsCompacted"));
+        assertEquals(12L, stats.get("lastRunRows"));
+    }
+
+    @Test
+    void run_DisabledDoesNothing() {
+        ReflectionTestUtils.setField(notificationRetention, "enabled", false);
+
+        assertEquals(0L, notificationRetention.run());
+        verifyNoInteractions(notificationRepository);
+    }
+}
@@ -1,24 +1,31 @@
 package com.dalhousie.dalhousie_marketplace_backend.Service;
 
+import com.dalhousie.dalhousie_marketplace_backend.DTO.NotificationPage;
 import com.dalhousie.dalhousie_marketplace_backend.model.Notification;
 import com.dalhousie.dalhousie_marketplace_backend.model.NotificationType;
 import com.dalhousie.dalhousie_marketplace_backend.model.User;
 import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
 import com.dalhousie.dalhousie_marketplace_backend.repository.NotificationRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
+import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.NotificationOutbox;
 import com.dalhousie.dalhousie_marketplace_backend.service.NotificationService;
+import com.dalhousie.dalhousie_marketplace_backend.util.NotificationCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,7 +40,10 @@ class NotificationServiceTest {
     private UserPreferencesRepository userPreferencesRepository;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private UserRepository userRepository;
 
     @InjectMocks
     private NotificationService notificationService;
@@ -65,18 +75,11 @@ class NotificationServiceTest {
 
     // Test sendNotification()
     @Test
-    void sendNotification_SavesNotification() {
-        notificationService.sendNotification(testUser, NotificationType.ITEM, "New item added");
-
-        verify(notificationRepository, times(1)).save(any(Notification.class));
-    }
-
-    @Test
-    void sendNotification_SendsWebSocketMessage() {
+    void sendNotification_EnqueuesInOutbox() {
         notificationService.sendNotification(testUser, NotificationType.ITEM, "New item added");
 
-        verify(messagingTemplate, times(1))
-                .convertAndSend(eq("/queue/notifications/" + testUser.getUserId()), any(Notification.class));
+        verify(notificationOutbox, times(1)).enqueue(testUser.getUserId(), NotificationType.ITEM, "New item added");
+        verify(notificationRepository, never()).save(any(Notification.class));
     }
 
 
@@ -104,27 +107,28 @@ class NotificationServiceTest {
     // Test markAsRead()
     @Test
     void markAsRead_MarksNotificationRead() {
-        when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+        when(notificationRepository.findUserIdById(1L)).thenReturn(Optional.of(testUser.getUserId()));
 
         notificationService.markAsRead(1L);
 
-        assertTrue(testNotification.getReadStatus());
+        verify(notificationRepository, times(1)).markRead(testUser.getUserId(), List.of(1L));
     }
 
     @Test
-    void markAsRead_SavesChanges() {
-        when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+    void markAsRead_DoesNotLoadOrSaveEntity() {
+        when(notificationRepository.findUserIdById(1L)).thenReturn(Optional.of(testUser.getUserId()));
 
         notificationService.markAsRead(1L);
 
-        verify(notificationRepository, times(1)).save(testNotification);
+        verify(notificationRepository, never()).findById(anyLong());
+        verify(notificationRepository, never()).save(any(Notification.class));
     }
 
     // Test getNotificationsForUser()
     @Test
     void getNotificationsForUser_ReturnsCorrectSize() {
         when(userPreferencesRepository.findByUser_UserId(testUser.getUserId())).thenReturn(userPreferences);
-        when(notificationRepository.findByUser_UserIdAndReadStatusFalse(testUser.getUserId()))
+        when(notificationRepository.findUnread(eq(testUser.getUserId()), anyCollection(), anyCollection(), isNull(), anyInt()))
                 .thenReturn(Arrays.asList(testNotification));
 
         List<Notification> result = notificationService.getNotificationsForUser(testUser.getUserId());
@@ -133,39 +137,69 @@ class NotificationServiceTest {
     }
 
     @Test
-    void getNotificationsForUser_CallsNotificationRepository() {
+    void getNotificationsForUser_FiltersDisabledTypesInQuery() {
+        userPreferences.setKeywords(new ArrayList<>(List.of(" Laptop ")));
         when(userPreferencesRepository.findByUser_UserId(testUser.getUserId())).thenReturn(userPreferences);
-        when(notificationRepository.findByUser_UserIdAndReadStatusFalse(testUser.getUserId()))
+        when(notificationRepository.findUnread(eq(testUser.getUserId()), anyCollection(), anyCollection(), isNull(), anyInt()))
                 .thenReturn(Arrays.asList(testNotification));
 
         notificationService.getNotificationsForUser(testUser.getUserId());
 
-        verify(notificationRepository, times(1)).findByUser_UserIdAndReadStatusFalse(testUser.getUserId());
+        verify(notificationRepository, times(1)).findUnread(testUser.getUserId(),
+                List.of(NotificationType.ITEM, NotificationType.BID), Set.of("laptop"), null, 51);
+        verify(notificationRepository, never()).findByUser_UserIdAndReadStatusFalse(anyLong());
     }
 
-    // Test markNotificationAsRead() - Success
     @Test
-    void markNotificationAsRead_Success_MarksRead() {
-        when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+    void getNotificationsForUser_AllTypesDisabled_SkipsQuery() {
+        userPreferences.setReceiveItems(false);
+        userPreferences.setReceiveBids(false);
+        when(userPreferencesRepository.findByUser_UserId(testUser.getUserId())).thenReturn(userPreferences);
 
-        notificationService.markNotificationAsRead(1L);
+        List<Notification> result = notificationService.getNotificationsForUser(testUser.getUserId());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(notificationRepository);
+    }
+
+    // Test getUnreadPage()
+    @Test
+    void getUnreadPage_ReturnsCursorWhenMoreRowsExist() {
+        Notification older = new Notification(testUser, "Older", new Date(1000L), false, NotificationType.BID);
+        older.setId(2L);
+        when(userPreferencesRepository.findByUser_UserId(testUser.getUserId())).thenReturn(userPreferences);
+        when(notificationRepository.findUnread(eq(testUser.getUserId()), anyCollection(), anyCollection(), isNull(), eq(2)))
+                .thenReturn(new ArrayList<>(List.of(testNotification, older)));
+
+        NotificationPage page = notificationService.getUnreadPage(testUser.getUserId(), null, 1);
 
-        assertTrue(testNotification.getReadStatus());
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasMore());
+        NotificationCursor cursor = NotificationCursor.decode(page.getNextCursor());
+        assertEquals(testNotification.getId(), cursor.getId());
+        assertEquals(testNotification.getTimestamp(), cursor.getTimestamp());
+    }
+
+    @Test
+    void getUnreadPage_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationService.getUnreadPage(testUser.getUserId(), "not-a-cursor", null));
     }
 
+    // Test markNotificationAsRead() - Success
     @Test
-    void markNotificationAsRead_Success_SavesNotification() {
-        when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+    void markNotificationAsRead_Success_MarksRead() {
+        when(notificationRepository.findUserIdById(1L)).thenReturn(Optional.of(testUser.getUserId()));
 
         notificationService.markNotificationAsRead(1L);
 
-        verify(notificationRepository, times(1)).save(testNotification);
+        verify(notificationRepository, times(1)).markRead(testUser.getUserId(), List.of(1L));
     }
 
     // Test markNotificationAsRead() - Not Found
     @Test
     void markNotificationAsRead_NotFound_ThrowsException() {
-        when(notificationRepository.findById(99L)).thenReturn(Optional.empty());
+        when(notificationRepository.findUserIdById(99L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             notificationService.markNotificationAsRead(99L);
@@ -174,5 +208,64 @@ class NotificationServiceTest {
         assertEquals("Notification not found", exception.getMessage());
     }
 
+    // Test markAllAsRead()
+    @Test
+    void markAllAsRead_UpdatesUpToGivenId() {
+        when(notificationRepository.markAllRead(testUser.getUserId(), 40L)).thenReturn(3);
+
+        int updated = notificationService.markAllAsRead(testUser.getUserId(), 40L);
+
+        assertEquals(3, updated);
+    }
+
+    // Test markAsRead(userId, ids)
+    @Test
+    void markAsReadIds_DeduplicatesIds() {
+        when(notificationRepository.markRead(eq(testUser.getUserId()), anyCollection())).thenReturn(2);
+
+        int updated = notificationService.markAsRead(testUser.getUserId(), List.of(5L, 6L, 5L));
+
+        assertEquals(2, updated);
+        verify(notificationRepository, times(1)).markRead(testUser.getUserId(), Set.of(5L, 6L));
+    }
+
+    @Test
+    void markAsReadIds_TooManyIds_ThrowsException() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> notificationService.markAsRead(testUser.getUserId(), ids));
+        verifyNoInteractions(notificationRepository);
+    }
+
+    // Test getUnreadCount()
+    @Test
+    void getUnreadCount_ReadsCounter() {
+        when(notificationRepository.countUnread(testUser.getUserId())).thenReturn(7L);
+
+        assertEquals(7L, notificationService.getUnreadCount(testUser.getUserId()));
+        verify(notificationRepository, never()).findByUser_UserIdAndReadStatusFalse(anyLong());
+    }
 
+    @Test
+    void reconcileUnreadCounts_WalksUsersInChunks() {
+        ReflectionTestUtils.setField(notificationService, "reconcileChunkSize", 2);
+        when(userRepository.findUserIdsAfter(0L, 0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 4L));
+        when(userRepository.findUserIdsAfter(4L, 0L, PageRequest.of(0, 2))).thenReturn(List.of(9L));
+        when(userRepository.findUserIdsAfter(9L, 0L, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(notificationRepository.reconcileUnreadCounts(1L, 4L)).thenReturn(2);
+        when(notificationRepository.reconcileUnreadCounts(5L, 9L)).thenReturn(1);
+
+        assertEquals(3, notificationService.reconcileUnreadCounts());
+    }
+
+    @Test
+    void reconcileUnreadCountsOnStartup_OffByDefault() {
+        notificationService.reconcileUnreadCountsOnStartup();
+
+        verifyNoInteractions(userRepository);
+        verify(notificationRepository, never()).reconcileUnreadCounts(anyLong(), anyLong());
+    }
 }
@@ -2,6 +2,8 @@ package com.dalhousie.dalhousie_marketplace_backend.Service;
 
 import com.dalhousie.dalhousie_marketplace_backend.model.*;
 import com.dalhousie.dalhousie_marketplace_backend.repository.*;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingDetailCache;
+import com.dalhousie.dalhousie_marketplace_backend.service.ListingSearchIndex;
 import com.dalhousie.dalhousie_marketplace_backend.service.NotificationService;
 import com.dalhousie.dalhousie_marketplace_backend.service.OrderService;
 import com.dalhousie.dalhousie_marketplace_backend.service.PaymentService;
@@ -53,6 +55,12 @@ public class PaymentServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
+    @Mock
+    private ListingDetailCache listingDetailCache;
+
 
     @InjectMocks
     private PaymentService paymentService;
@@ -310,7 +318,8 @@ public class PaymentServiceTest {
         // Assert: Listing inventory update should be skipped
         //verify(listingRepository, never()).save(any());
 
-        verify(listingRepository).save(any(Listing.class)); // Because it was a bid listing
+        verify(listingRepository).updateStatus(mockListing, Listing.ListingStatus.SOLD); // Because it was a bid listing
+        verify(listingRepository, never()).applyPurchase(any(), anyInt());
     }
     @Test
     void handleSuccessfulPayment_shouldCreateFallbackPaymentIfNotFound() {
@@ -465,19 +474,20 @@ public class PaymentServiceTest {
         ReflectionTestUtils.invokeMethod(paymentService, "updateListingInventory", mockOrder);
 
         // Assert
-        verify(listingRepository, never()).save(any());
+        verify(listingRepository, never()).applyPurchase(any(), anyInt());
     }
 
     @Test
-    void updateListingInventory_shouldPreventNegativeStock() {
+    void updateListingInventory_shouldApplyPurchaseWithTargetedUpdate() {
         mockListing.setQuantity(1);
         mockOrderItem.setQuantity(5);
 
         ReflectionTestUtils.invokeMethod(paymentService, "updateListingInventory", mockOrder);
 
-        verify(listingRepository).save(argThat(listing ->
-                listing.getQuantity() == 0 && listing.getStatus() == Listing.ListingStatus.SOLD
-        ));
+        // The UPDATE clamps stock at zero and marks the listing SOLD; the entity isn't saved
+        // with its version checked
+        verify(listingRepository).applyPurchase(mockListing, 5);
+        verify(listingRepository, never()).save(any());
     }
     @Test
     void handleSuccessfulPayment_shouldCreateFallbackPaymentWhenNotFound() {
@@ -530,7 +540,8 @@ public class PaymentServiceTest {
         paymentService.handleBidPaymentCompletion(1L);
 
         verify(bidRepository).save(any(Bid.class));
-        verify(listingRepository).save(any(Listing.class));
+        verify(listingRepository).updateStatus(mockListing, Listing.ListingStatus.SOLD);
+        verify(listingRepository, never()).save(any());
         verify(notificationService, times(2)).sendNotification(any(), eq(NotificationType.BID), anyString());
     }
     @Test
@@ -542,7 +553,7 @@ public class PaymentServiceTest {
 
         paymentService.handleBidPaymentFailure(1L);
 
-        verify(listingRepository).save(argThat(listing -> listing.getStatus() == Listing.ListingStatus.ACTIVE));
+        verify(listingRepository).updateStatus(mockListing, Listing.ListingStatus.ACTIVE);
         verify(notificationService, times(2)).sendNotification(any(), eq(NotificationType.BID), anyString());
     }
     @Test
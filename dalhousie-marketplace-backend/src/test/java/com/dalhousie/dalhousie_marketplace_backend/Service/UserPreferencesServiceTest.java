@@ -3,6 +3,7 @@ import com.dalhousie.dalhousie_marketplace_backend.model.User;
 import com.dalhousie.dalhousie_marketplace_backend.model.UserPreferences;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserPreferencesRepository;
 import com.dalhousie.dalhousie_marketplace_backend.repository.UserRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.KeywordMatcher;
 import com.dalhousie.dalhousie_marketplace_backend.service.UserPreferencesService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +25,9 @@ public class UserPreferencesServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private KeywordMatcher keywordMatcher;
+
     @InjectMocks
     private UserPreferencesService userPreferencesService;
 
@@ -167,6 +171,15 @@ public class UserPreferencesServiceTest {
         assertTrue(existingPreferences.getKeywords().contains("games"));
     }
 
+    @Test
+    void addKeyword_UpdatesKeywordMatcher() {
+        when(userPreferencesRepository.findByUser_UserId(1L)).thenReturn(existingPreferences);
+
+        userPreferencesService.addKeyword(1L, "games");
+
+        verify(keywordMatcher, times(1)).setKeywords(1L, Arrays.asList("electronics", "books", "games"));
+    }
+
     @Test
     void addKeyword_DoesNotAddNullKeyword() {
         when(userPreferencesRepository.findByUser_UserId(1L)).thenReturn(existingPreferences);
@@ -202,6 +215,7 @@ public class UserPreferencesServiceTest {
         userPreferencesService.removeKeyword(1L, "BOOKS");
 
         assertFalse(existingPreferences.getKeywords().contains("books"));
+        verify(keywordMatcher, times(1)).setKeywords(1L, Arrays.asList("electronics"));
     }
 
     @Test
@@ -63,7 +63,7 @@ public class BidControllerIntegrationTest {
         bid.setProposedPrice(100.0);
         bid.setAdditionalTerms("Additional terms");
 
-        when(bidService.createBid(anyLong(), anyLong(), anyDouble(), any())).thenReturn(bid);
+        when(bidService.createBid(anyLong(), anyLong(), anyDouble(), any(), any())).thenReturn(bid);
 
         mockMvc.perform(post("/api/bids/1")
                         .header("Authorization", authHeader)
@@ -6,7 +6,6 @@ import com.dalhousie.dalhousie_marketplace_backend.service.MessageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.lang.reflect.Field;
 
@@ -16,7 +15,6 @@ public class ChatControllerTest {
 
     private ChatController chatController;
     private MessageService messageService;
-    private SimpMessagingTemplate messagingTemplate;
 
     @BeforeEach
     public void setUp() throws Exception {
@@ -24,11 +22,9 @@ public class ChatControllerTest {
 
         // Create mocks
         messageService = mock(MessageService.class);
-        messagingTemplate = mock(SimpMessagingTemplate.class);
 
         // Inject mocks into private fields using reflection
         setPrivateField(chatController, "messageService", messageService);
-        setPrivateField(chatController, "messagingTemplate", messagingTemplate);
     }
 
     private void setPrivateField(Object target, String fieldName, Object value) throws Exception {
@@ -56,9 +52,7 @@ public class ChatControllerTest {
         // Act
         chatController.sendMessage(request);
 
-        // Assert
-        verify(messagingTemplate).convertAndSend("/topic/messages/" + conversationId, savedMessage);
-        verify(messagingTemplate).convertAndSend("/user/2/queue/messages", savedMessage);
-        verify(messagingTemplate).convertAndSend("/user/1/queue/messages", savedMessage);
+        // Assert: the service saves and broadcasts the message
+        verify(messageService).sendMessage(1L, 2L, 3L, "Hello!", conversationId);
     }
 }
@@ -0,0 +1,111 @@
+package com.dalhousie.dalhousie_marketplace_backend.controller;
+
+import com.dalhousie.dalhousie_marketplace_backend.DTO.ListingImageMetadata;
+import com.dalhousie.dalhousie_marketplace_backend.model.ListingImage;
+import com.dalhousie.dalhousie_marketplace_backend.repository.ListingImageRepository;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageStorageService;
+import com.dalhousie.dalhousie_marketplace_backend.service.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for the HTTP caching and range headers on listing image responses.
+ */
+public class ListingImageCachingTest {
+
+    private static final String HASH = "3a7bd3e2360a3d29eea436fcfb7e44c735d117c42d1c1835420b6b9942dd4f1b";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private ListingImageRepository listingImageRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        ListingController controller = new ListingController();
+        ReflectionTestUtils.setField(controller, "listingImageRepository", listingImageRepository);
+        ReflectionTestUtils.setField(controller, "imageStorageService", imageStorageService);
+        ReflectionTestUtils.setField(controller, "imageVariantService", imageVariantService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(listingImageRepository.findMetadataById(5L))
+                .thenReturn(Optional.of(new ListingImageMetadata(5L, 1L, "image/jpeg", 20L, true, HASH)));
+        when(imageStorageService.load(HASH)).thenAnswer(invocation -> new ByteArrayResource(CONTENT));
+    }
+
+    @Test
+    void getListingImage_SendsETagAndLongLivedCacheControl() throws Exception {
+        mockMvc.perform(get("/api/listings/{listingId}/images/{imageId}", 1L, 5L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void getListingImage_MatchingIfNoneMatchReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/api/listings/{listingId}/images/{imageId}", 1L, 5L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getListingImage_StaleIfNoneMatchReturnsContent() throws Exception {
+        mockMvc.perform(get("/api/listings/{listingId}/images/{imageId}", 1L, 5L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"some-older-hash\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void getListingImage_RangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/api/listings/{listingId}/images/{imageId}", 1L, 5L)
+                        .header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/20"))
+                .andExpect(content().bytes("0123456789".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void getListingImage_LegacyImageDataGetsShortMaxAge() throws Exception {
+        ListingImage legacy = new ListingImage();
+        legacy.setImageData(CONTENT);
+        when(listingImageRepository.findMetadataById(6L))
+                .thenReturn(Optional.of(new ListingImageMetadata(6L, 1L, "image/png", 20L, false, null)));
+        when(listingImageRepository.findById(6L)).thenReturn(Optional.of(legacy));
+
+        mockMvc.perform(get("/api/listings/{listingId}/images/{imageId}", 1L, 6L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(content().bytes(CONTENT));
+
+        verify(imageStorageService, never()).load(any());
+    }
+}
@@ -0,0 +1,164 @@
+package com.dalhousie.dalhousie_marketplace_backend.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives POST /api/messages/send on a running server from several threads and reports sent
+ * messages per second, per server core, and latency percentiles. It is not a unit test and is
+ * not picked up by Surefire. Build with {@code ./mvnw test-compile}, then run:
+ *
+ * <pre>
+ * java -cp target/test-classes com.dalhousie.dalhousie_marketplace_backend.loadtest.ChatLoadHarness \
+ *     --base-url http://localhost:8080 --token &lt;jwt&gt; --sender 1 --receiver 2 --listing 3 \
+ *     --threads 16 --warmup-seconds 10 --seconds 30 --server-cores 4
+ * </pre>
+ *
+ * Each thread alternates the direction of its messages, so both participants' conversation
+ * summaries are updated as in a real chat. Compare runs against /api/metrics/notifications and
+ * /api/metrics/display-names to see the background queue and cache hit rate under load.
+ */
+public class ChatLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = option(args, "--base-url", "http://localhost:8080");
+        String token = option(args, "--token", System.getenv("MARKETPLACE_TOKEN"));
+        long senderId = Long.parseLong(option(args, "--sender", "1"));
+        long receiverId = Long.parseLong(option(args, "--receiver", "2"));
+        long listingId = Long.parseLong(option(args, "--listing", "1"));
+        int threads = Integer.parseInt(option(args, "--threads", "8"));
+        int warmupSeconds = Integer.parseInt(option(args, "--warmup-seconds", "10"));
+        int seconds = Integer.parseInt(option(args, "--seconds", "30"));
+        int serverCores = Integer.parseInt(option(args, "--server-cores",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI sendUri = URI.create(baseUrl + "/api/messages/send");
+
+        System.out.printf("Warming up for %d s with %d threads%n", warmupSeconds, threads);
+        run(client, sendUri, token, senderId, receiverId, listingId, threads, warmupSeconds);
+
+        System.out.printf("Measuring for %d s with %d threads%n", seconds, threads);
+        Result result = run(client, sendUri, token, senderId, receiverId, listingId, threads, seconds);
+
+        double perSecond = result.sent / (result.elapsedNanos / 1e9);
+        System.out.printf("sent=%d failed=%d%n", result.sent, result.failed);
+        System.out.printf("messages/sec=%.1f messages/sec/core=%.1f (server cores=%d)%n",
+                perSecond, perSecond / serverCores, serverCores);
+        System.out.printf("latency ms p50=%.2f p99=%.2f max=%.2f%n",
+                result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0));
+    }
+
+    private static Result run(HttpClient client, URI sendUri, String token, long senderId, long receiverId,
+                              long listingId, int threads, int seconds) throws InterruptedException {
+        LongAdder sent = new LongAdder();
+        LongAdder failed = new LongAdder();
+        List<long[]> latencies = new ArrayList<>();
+        int[] sampleCounts = new int[threads];
+        AtomicLong sequence = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long started = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            int slot = t;
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            Thread worker = new Thread(() -> {
+                int count = 0;
+                boolean forward = true;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long from = forward ? senderId : receiverId;
+                        long to = forward ? receiverId : senderId;
+                        forward = !forward;
+                        String body = String.format(
+                                "{\"senderId\":%d,\"receiverId\":%d,\"listingId\":%d,\"content\":\"load %d\"}",
+                                from, to, listingId, sequence.incrementAndGet());
+                        HttpRequest.Builder request = HttpRequest.newBuilder(sendUri)
+                                .timeout(Duration.ofSeconds(10))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body));
+                        if (token != null) {
+                            request.header("Authorization", "Bearer " + token);
+                        }
+
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                sent.increment();
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        // Keep the first samples once the buffer is full; enough for percentiles
+                        if (count < samples.length) {
+                            samples[count++] = System.nanoTime() - begin;
+                        }
+                    }
+                } finally {
+                    sampleCounts[slot] = count;
+                    done.countDown();
+                }
+            }, "chat-load-" + t);
+            worker.start();
+        }
+
+        done.await();
+        // countDown/await publishes each worker's samples and count to this thread
+        return new Result(sent.sum(), failed.sum(), System.nanoTime() - started, latencies, sampleCounts);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private static class Result {
+        final long sent;
+        final long failed;
+        final long elapsedNanos;
+        final long[] sortedLatencies;
+
+        Result(long sent, long failed, long elapsedNanos, List<long[]> perThread, int[] counts) {
+            this.sent = sent;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            long[] all = new long[Arrays.stream(counts).sum()];
+            int index = 0;
+            for (int t = 0; t < perThread.size(); t++) {
+                System.arraycopy(perThread.get(t), 0, all, index, counts[t]);
+                index += counts[t];
+            }
+            Arrays.sort(all);
+            this.sortedLatencies = all;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -12,6 +12,7 @@ const ChatBox = ({ senderId, listingId, receiverId }) => {
   const [isLoading, setIsLoading] = useState(false);
   const [error, setError] = useState(null);
   const [isChatOpen, setIsChatOpen] = useState(false);
+  const [olderCursor, setOlderCursor] = useState(null);
   const stompClientRef = useRef(null);
   const messagesEndRef = useRef(null);
 
@@ -46,20 +47,36 @@ const ChatBox = ({ senderId, listingId, receiverId }) => {
         withCredentials: true,
       });
 
-      if (response.status === 204 || response.data === "") {
-        setMessages([]);
-        return;
-      }
-
-      setMessages(response.data);
+      setMessages(response.data.items);
+      setOlderCursor(response.data.hasMore ? response.data.nextCursor : null);
     } catch (error) {
       console.error("Error fetching messages:", error);
       setMessages([]);
+      setOlderCursor(null);
     } finally {
       setIsLoading(false);
     }
   }, [conversationId, senderId, receiverId, listingId, error]);
 
+  const fetchOlderMessages = async () => {
+    if (!olderCursor) return;
+
+    try {
+      const response = await axios.get(`${BASE_URL}/api/messages/history/${conversationId}`, {
+        params: { before: olderCursor },
+        withCredentials: true,
+      });
+
+      setMessages((prev) => [...response.data.items, ...prev]);
+      setOlderCursor(response.data.hasMore ? response.data.nextCursor : null);
+    } catch (error) {
+      console.error("Error fetching older messages:", error);
+    }
+  };
+
+  // History items carry senderId; live and pending messages carry a sender object
+  const senderOf = (msg) => msg.senderId ?? msg.sender?.userId;
+
   const connectWebSocket = useCallback(() => {
     if (!senderId || !receiverId || !listingId || error || stompClientRef.current) return;
 
@@ -183,6 +200,11 @@ const ChatBox = ({ senderId, listingId, receiverId }) => {
           </div>
 
           <div className="chat-messages">
+            {olderCursor && !isLoading && (
+              <button className="load-older-btn" onClick={fetchOlderMessages}>
+                Load earlier messages
+              </button>
+            )}
             {isLoading ? (
               <p>Loading messages...</p>
             ) : messages.length > 0 ? (
@@ -201,7 +223,7 @@ const ChatBox = ({ senderId, listingId, receiverId }) => {
                 acc.push(
                   <div
                     key={`${msg.id || index}-${msg.timestamp}`}
-                    className={`message ${Number(msg.sender?.userId) === Number(senderId) ? "sent" : "received"}`}
+                    className={`message ${Number(senderOf(msg)) === Number(senderId) ? "sent" : "received"}`}
                   >
                     <p>{msg.content}</p>
                     <span>{formatTime(msg.timestamp)}</span>
@@ -76,14 +76,14 @@ const Layout = () => {
         console.log("Fetched Notifications:", data);
         if (Array.isArray(data)) {
           setNotifications(data);
-          const unreadCount = data.filter((notif) => !notif.read).length;
-          setUnreadNotifications(unreadCount);
         } else {
           console.error("Notifications API returned non-array data:", data);
           setNotifications([]); // Set empty array to prevent errors
         }
       });
 
+    fetchUnreadCount();
+
     // Connect WebSocket for real-time updates
     WebSocketService.connect(userId, (newNotification) => {
       setNotifications((prev) => [newNotification, ...prev]);
@@ -135,16 +135,35 @@ const Layout = () => {
     setIsDropdownOpen(!isDropdownOpen);
   };
 
+  const fetchUnreadCount = () => {
+    fetch(`${BASE_URL}/api/notifications/${userId}/unread-count`, {
+      headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
+    })
+      .then((res) => res.json())
+      .then((data) => setUnreadNotifications(data.unreadCount ?? 0))
+      .catch((err) => console.error("Failed to fetch unread count:", err));
+  };
+
   const markAsRead = (id) => {
-    fetch(`${BASE_URL}/api/notifications/mark-as-read/${id}`, {
-      method: "POST",
+    fetch(`${BASE_URL}/api/notifications/${id}/read`, {
+      method: "PUT",
       headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
     }).then(() => {
-      setNotifications((prevNotifs) => {
-        const updated = prevNotifs.filter((notif) => notif.id !== id);
-        setUnreadNotifications(updated.length); // 👈 update unread count
-        return updated;
-      });
+      setNotifications((prevNotifs) => prevNotifs.filter((notif) => notif.id !== id));
+      setUnreadNotifications((prev) => Math.max(prev - 1, 0));
+    });
+  };
+
+  // One request for everything shown; notifications that arrive meanwhile stay unread
+  const markAllAsRead = () => {
+    if (notifications.length === 0) return;
+    const upToId = Math.max(...notifications.map((notif) => notif.id));
+    fetch(`${BASE_URL}/api/notifications/${userId}/read-all?upToId=${upToId}`, {
+      method: "PUT",
+      headers: { Authorization: `Bearer ${localStorage.getItem("token")}` },
+    }).then(() => {
+      setNotifications((prevNotifs) => prevNotifs.filter((notif) => notif.id > upToId));
+      fetchUnreadCount();
     });
   };
 
@@ -228,6 +247,9 @@ const Layout = () => {
                   >
                     ✖
                   </button>
+                  {notifications.length > 0 && (
+                    <button onClick={markAllAsRead}>Mark all as read</button>
+                  )}
                   {notifications.length === 0 ? (
                     <p>No new notifications</p>
                   ) : (